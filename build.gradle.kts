@@ -2,6 +2,7 @@ plugins {
     java
     alias(libs.plugins.spring.boot)
     alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.jmh)
     id("jacoco")
 }
 
@@ -23,6 +24,8 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.spring.boot.starter.actuator)
+    runtimeOnly(libs.micrometer.registry.prometheus)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
@@ -38,6 +41,17 @@ with(extensions.getByType(JacocoPluginExtension::class.java)) {
     toolVersion = "0.8.7"
 }
 
+// benchmark (src/jmh)
+// ./gradlew jmh -Pjmh.includes=PointServiceBenchmark -Pjmh.threads=8
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgs.addAll("-Xms4g", "-Xmx4g")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+    providers.gradleProperty("jmh.threads").orNull?.let { threads.set(it.toInt()) }
+}
+
 // bundling tasks
 tasks.getByName("bootJar") {
     enabled = true
@@ -49,4 +63,8 @@ tasks.getByName("jar") {
 tasks.test {
     ignoreFailures = true
     useJUnitPlatform()
+    // 부하 테스트 실행 여부와 모드를 커맨드라인(-D)에서 넘겨받는다.
+    listOf("loadTest", "loadTest.concurrency", "loadTest.flood", "point.async.enabled", "point.admission.enabled").forEach { key ->
+        System.getProperty(key)?.let { systemProperty(key, it) }
+    }
 }
@@ -0,0 +1,45 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 지연 방식을 바꿀 수 있는 PointHistoryTable
+ * - 조회는 원본과 같이 전체 목록을 훑어서 유저의 내역을 거른다.
+ * - retain 이 false 이면 내역을 보관하지 않는다. (색인만 측정할 때 메모리 절약)
+ */
+public class BenchmarkPointHistoryTable extends PointHistoryTable {
+
+    private final List<PointHistory> table = new ArrayList<>();
+    private final Throttle throttle;
+    private final long throttleMillis;
+    private final boolean retain;
+    private long cursor = 1;
+
+    public BenchmarkPointHistoryTable(Throttle throttle, long throttleMillis, boolean retain) {
+        this.throttle = throttle;
+        this.throttleMillis = throttleMillis;
+        this.retain = retain;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        throttle.pause(throttleMillis);
+        synchronized (table) {
+            PointHistory pointHistory = new PointHistory(cursor++, userId, amount, type, updateMillis);
+            if (retain) {
+                table.add(pointHistory);
+            }
+            return pointHistory;
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+    }
+}
@@ -0,0 +1,44 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 지연 방식을 바꿀 수 있는 UserPointTable
+ * - 원본 테이블은 변경하지 않고, 같은 공개 API 를 덮어써서 지연만 바꾼다.
+ */
+public class BenchmarkUserPointTable extends UserPointTable {
+
+    private final Map<Long, UserPoint> table = new ConcurrentHashMap<>();
+    private final Throttle throttle;
+    private final long throttleMillis;
+
+    public BenchmarkUserPointTable(Throttle throttle, long throttleMillis) {
+        this.throttle = throttle;
+        this.throttleMillis = throttleMillis;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        throttle.pause(throttleMillis);
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        throttle.pause(throttleMillis);
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        table.put(id, userPoint);
+        return userPoint;
+    }
+
+    /**
+     * 지연 없이 초기 잔액을 넣는다.
+     */
+    public void seed(long id, long amount) {
+        table.put(id, new UserPoint(id, amount, System.currentTimeMillis()));
+    }
+}
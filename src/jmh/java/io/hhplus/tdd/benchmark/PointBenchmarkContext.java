@@ -0,0 +1,63 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.UserPointTableStore;
+import io.hhplus.tdd.point.OptimisticPointUpdater;
+import io.hhplus.tdd.point.PointBalanceUpdater;
+import io.hhplus.tdd.point.PointCommandQueue;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointLockManager;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointPartition;
+import io.hhplus.tdd.point.PointPartitions;
+import io.hhplus.tdd.point.PointReadCoalescer;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.UserPointCache;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+
+/**
+ * 벤치마크용 포인트 컴포넌트 조립
+ * - 스프링 없이 지연 방식을 바꾼 테이블로 PointService 를 만든다.
+ * - optimistic 이면 잔액 변경을 OptimisticPointUpdater 로, 아니면 PointCommandQueue 로 처리한다.
+ */
+class PointBenchmarkContext implements AutoCloseable {
+
+    final BenchmarkUserPointTable userPointTable;
+    final BenchmarkPointHistoryTable pointHistoryTable;
+    final PointHistoryWriter pointHistoryWriter;
+    final PointHistoryRepository pointHistoryRepository;
+    final PointService pointService;
+
+    PointBenchmarkContext(Throttle throttle, long throttleMillis, int cacheSize) {
+        this(throttle, throttleMillis, cacheSize, false);
+    }
+
+    PointBenchmarkContext(Throttle throttle, long throttleMillis, int cacheSize, boolean optimistic) {
+        this.userPointTable = new BenchmarkUserPointTable(throttle, throttleMillis);
+        this.pointHistoryTable = new BenchmarkPointHistoryTable(throttle, throttleMillis, false);
+        // 지표 기록 비용까지 포함해서 측정한다.
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        PointLockManager pointLockManager = new PointLockManager(0, pointMetrics);
+        UserPointTableStore userPointStore = new UserPointTableStore(userPointTable);
+        UserPointCache userPointCache = new UserPointCache(cacheSize);
+        UserPointRepository userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics);
+        this.pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, pointMetrics, true, 4096, 256);
+        this.pointHistoryRepository = new PointHistoryRepository(pointHistoryWriter, PointWriteAheadLog.disabled());
+        PointBalanceUpdater pointBalanceUpdater = optimistic
+                ? new OptimisticPointUpdater(userPointRepository, pointHistoryRepository, pointMetrics, 64, 1000)
+                : new PointCommandQueue(userPointRepository, pointHistoryRepository, pointLockManager,
+                        new PointReadCoalescer(pointMetrics));
+        PointPartition pointPartition = new PointPartition(0, pointBalanceUpdater, pointHistoryRepository, userPointStore,
+                userPointCache, null, null);
+        this.pointService = new PointService(new PointPartitions(List.of(pointPartition), null, 1), pointMetrics);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        pointHistoryWriter.close();
+    }
+}
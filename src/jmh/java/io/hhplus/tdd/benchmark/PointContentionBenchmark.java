@@ -0,0 +1,86 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 동시성 방식(point.concurrency.mode)별 충전/사용 처리량
+ * - LOCK : 유저 락 + 명령 묶음 처리 (PointCommandQueue)
+ * - OPTIMISTIC : 버전 비교 후 교체, 충돌 시 재시도 (OptimisticPointUpdater)
+ * - workload
+ *   - UNIFORM : 10,000 명에 고르게 분포, 충돌이 드물다.
+ *   - ZIPF : 10,000 명 중 소수에게 몰린다.
+ *   - HOT_KEY : 모든 요청이 한 유저에게 몰린다.
+ * - 충돌은 스레드가 여럿일 때만 생기므로 -Pjmh.threads 를 바꿔가며 비교한다. (기본 8)
+ * - 테이블 지연은 끄고(OFF) 동시성 처리 비용만 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PointContentionBenchmark {
+
+    private static final long INITIAL_POINT = UserPoint.MAX_POINT / 2;
+    private static final int USERS = 10_000;
+
+    public enum ConcurrencyMode {
+        LOCK, OPTIMISTIC
+    }
+
+    public enum Workload {
+        UNIFORM, ZIPF, HOT_KEY
+    }
+
+    @Param({"LOCK", "OPTIMISTIC"})
+    public ConcurrencyMode mode;
+
+    @Param({"UNIFORM", "ZIPF", "HOT_KEY"})
+    public Workload workload;
+
+    private PointBenchmarkContext context;
+    private LongSupplier userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new PointBenchmarkContext(Throttle.OFF, 0, USERS, mode == ConcurrencyMode.OPTIMISTIC);
+        userIds = switch (workload) {
+            case UNIFORM -> UserIdDistribution.UNIFORM.sampler(USERS);
+            case ZIPF -> UserIdDistribution.ZIPF.sampler(USERS);
+            case HOT_KEY -> () -> 1L;
+        };
+        for (long id = 1; id <= USERS; id++) {
+            context.userPointTable.seed(id, INITIAL_POINT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        context.close();
+    }
+
+    /**
+     * 충전과 사용을 번갈아 보내 잔액이 초기값 근처에 머물게 한다.
+     */
+    @Benchmark
+    public UserPoint chargeThenUse(ThreadCounter counter) {
+        long userId = userIds.getAsLong();
+        try {
+            return (counter.next++ & 1) == 0
+                    ? context.pointService.charge(userId, 1)
+                    : context.pointService.use(userId, 1);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCounter {
+        long next;
+    }
+}
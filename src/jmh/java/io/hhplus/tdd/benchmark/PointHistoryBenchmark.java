@@ -0,0 +1,78 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 내역 수에 따른 유저별 내역 조회 비용
+ * - 조회 대상 유저의 내역 수(targetUserRows)는 고정하고, 전체 내역 수(tableSize)만 늘린다.
+ * - INDEX : PointHistoryRepository 의 유저별 색인 조회
+ * - TABLE_SCAN : PointHistoryTable.selectAllByUserId 와 같은 전체 목록 필터링
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointHistoryBenchmark {
+
+    public enum Source {
+        INDEX, TABLE_SCAN
+    }
+
+    private static final long TARGET_USER = 0;
+    private static final int OTHER_USERS = 10_000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tableSize;
+
+    @Param({"INDEX", "TABLE_SCAN"})
+    public Source source;
+
+    @Param({"100"})
+    public int targetUserRows;
+
+    private BenchmarkPointHistoryTable pointHistoryTable;
+    private PointHistoryWriter pointHistoryWriter;
+    private PointHistoryRepository pointHistoryRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pointHistoryTable = new BenchmarkPointHistoryTable(Throttle.OFF, 0, source == Source.TABLE_SCAN);
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, new PointMetrics(new SimpleMeterRegistry()), false, 1, 1);
+        pointHistoryRepository = new PointHistoryRepository(pointHistoryWriter, PointWriteAheadLog.disabled());
+
+        // 대상 유저의 내역이 전체 내역 사이에 고르게 섞이도록 넣는다.
+        int stride = Math.max(1, tableSize / targetUserRows);
+        for (int i = 0; i < tableSize; i++) {
+            long userId = i % stride == 0 ? TARGET_USER : 1 + i % OTHER_USERS;
+            if (source == Source.INDEX) {
+                pointHistoryRepository.save(userId, 100, TransactionType.CHARGE, i);
+            } else {
+                pointHistoryTable.insert(userId, 100, TransactionType.CHARGE, i);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pointHistoryWriter.close();
+    }
+
+    @Benchmark
+    public List<PointHistory> findAllByUserId() {
+        return source == Source.INDEX
+                ? pointHistoryRepository.findAllByUserId(TARGET_USER)
+                : pointHistoryTable.selectAllByUserId(TARGET_USER);
+    }
+}
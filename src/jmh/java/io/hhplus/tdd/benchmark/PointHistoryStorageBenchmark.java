@@ -0,0 +1,103 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryIndex;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내역 저장 방식별 메모리 사용량과 유저별 조회 비용
+ * - OBJECTS : PointHistoryTable 과 같은 ArrayList<PointHistory>, 유저별 조회는 전체 목록 stream filter
+ * - COLUMNAR : PointHistoryIndex (유저별 청크, 컬럼별 primitive 배열)
+ * - 내역을 모두 채운 뒤 GC 후 힙 증가량을 내역 수로 나눠 출력한다. ("bytes/row")
+ * - COLUMNAR 는 한 건에 13 바이트 + 유저당 고정 비용(색인 항목, 청크 객체, 마지막 청크의 빈 칸)이라
+ *   유저당 내역이 많을수록(users 가 적을수록) 한 건의 크기가 13 바이트에 가까워진다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class PointHistoryStorageBenchmark {
+
+    public enum Storage {
+        OBJECTS, COLUMNAR
+    }
+
+    @Param({"10000000", "50000000"})
+    public int rows;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    public Storage storage;
+
+    private List<PointHistory> objects;
+    private PointHistoryIndex columnar;
+    private long targetUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedBytes();
+        if (storage == Storage.OBJECTS) {
+            objects = new ArrayList<>();
+        } else {
+            columnar = new PointHistoryIndex();
+        }
+        long millis = System.currentTimeMillis();
+        for (int i = 0; i < rows; i++) {
+            PointHistory history = new PointHistory(i + 1, i % users, 100 + i % 1_000,
+                    i % 3 == 0 ? TransactionType.USE : TransactionType.CHARGE, millis + i / 100);
+            if (storage == Storage.OBJECTS) {
+                objects.add(history);
+            } else {
+                columnar.append(history);
+            }
+        }
+        long used = usedBytes() - before;
+        System.out.printf("%n%s rows=%d users=%d bytes/row=%.1f%n", storage, rows, users, (double) used / rows);
+    }
+
+    @Setup(Level.Iteration)
+    public void pickUser() {
+        targetUser = (targetUser + 7_919) % users;
+    }
+
+    /**
+     * 한 유저의 내역 목록을 조회한다.
+     */
+    @Benchmark
+    public List<PointHistory> findAllByUserId() {
+        return storage == Storage.OBJECTS
+                ? objects.stream().filter(history -> history.userId() == targetUser).toList()
+                : columnar.findAllByUserId(targetUser);
+    }
+
+    /**
+     * 한 유저의 내역을 모두 읽어 금액을 더한다. (목록 없이 순회)
+     */
+    @Benchmark
+    public long sumByUserId() {
+        if (storage == Storage.OBJECTS) {
+            return objects.stream().filter(history -> history.userId() == targetUser).mapToLong(PointHistory::amount).sum();
+        }
+        long[] sum = new long[1];
+        columnar.forEach(targetUser, 0, history -> {
+            sum[0] += history.amount();
+            return true;
+        });
+        return sum[0];
+    }
+
+    private static long usedBytes() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.PointHistorySequence;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointPartition;
+import io.hhplus.tdd.point.PointPartitionFactory;
+import io.hhplus.tdd.point.PointPartitions;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.UserPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 파티션 수(point.partition.count)별 충전/사용 처리량
+ * - 파티션마다 테이블, 락, 내역 기록 스레드, 실행 스레드 풀(8)을 따로 둔다. (PointPartitionFactory)
+ * - FIXED : 테이블 호출마다 1ms, 한 파티션의 처리량은 내역을 하나씩 기록하는 테이블 속도(초당 약 1,000 건)에 묶이므로
+ *   파티션 수에 거의 비례해서 늘어야 한다.
+ * - OFF : 테이블 지연 없이 파티션 라우팅과 스레드 전환 비용까지 포함한 CPU 비용을 본다. 코어 수 이상으로는 늘지 않는다.
+ * - 10,000 명에 고르게 요청을 보낸다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(32)
+@Fork(1)
+public class PointPartitionBenchmark {
+
+    private static final long INITIAL_POINT = UserPoint.MAX_POINT / 2;
+    private static final int USERS = 10_000;
+    private static final int POOL_SIZE = 8;
+
+    @Param({"1", "2", "4", "8"})
+    public int partitions;
+
+    @Param({"FIXED", "OFF"})
+    public Throttle throttle;
+
+    private PointPartitions pointPartitions;
+    private PointService pointService;
+    private LongSupplier userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        PointPartitionFactory factory = new PointPartitionFactory(pointMetrics, PointHistorySequence.standalone(), POOL_SIZE,
+                "lock", 64, 1000, 0, USERS, true, 4096, 256);
+        List<BenchmarkUserPointTable> tables = new ArrayList<>();
+        List<PointPartition> partitionList = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            BenchmarkUserPointTable table = new BenchmarkUserPointTable(throttle, 1);
+            tables.add(table);
+            partitionList.add(factory.create(i, table, new BenchmarkPointHistoryTable(throttle, 1, false)));
+        }
+        pointPartitions = new PointPartitions(partitionList, factory, 128);
+        pointService = new PointService(pointPartitions, pointMetrics);
+        for (long id = 1; id <= USERS; id++) {
+            tables.get(pointPartitions.partitionOf(id)).seed(id, INITIAL_POINT);
+        }
+        userIds = UserIdDistribution.UNIFORM.sampler(USERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pointPartitions.close();
+    }
+
+    /**
+     * 충전과 사용을 번갈아 보내 잔액이 초기값 근처에 머물게 한다.
+     */
+    @Benchmark
+    public UserPoint chargeThenUse(ThreadCounter counter) {
+        long userId = userIds.getAsLong();
+        try {
+            return (counter.next++ & 1) == 0
+                    ? pointService.charge(userId, 1)
+                    : pointService.use(userId, 1);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCounter {
+        long next;
+    }
+}
@@ -0,0 +1,91 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.InMemoryUserPointStore;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointLedgerRecovery;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointSnapshotter;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 유저 수에 따른 재시작 복구 시간
+ * - 유저마다 충전 한 건씩을 로그에 남기고 다 채워진 세그먼트까지 스냅샷을 만든 뒤(로그는 지움),
+ *   매 측정마다 로그와 스냅샷을 새로 열어 메모리 잔액 저장소로 복구한다.
+ * - 스냅샷에 들어가지 않은 마지막 세그먼트(최대 tailRecords 건)는 로그로 다시 적용한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PointRecoveryBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int users;
+
+    @Param({"1000000"})
+    public int tailRecords;
+
+    private Path directory;
+    private PointWriteAheadLog pointWriteAheadLog;
+    private PointHistoryWriter pointHistoryWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path parent = Path.of(System.getProperty("point.wal.benchmark.dir", System.getProperty("java.io.tmpdir")));
+        directory = Files.createTempDirectory(parent, "point-recovery-");
+        PointWriteAheadLog writer = openLog();
+        for (long userId = 1; userId <= users; userId++) {
+            writer.append(new PointHistory(userId, userId, 1_000, TransactionType.CHARGE, userId));
+        }
+        snapshotter(writer).snapshot();
+        writer.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeInvocation() throws InterruptedException {
+        pointHistoryWriter.close();
+        pointWriteAheadLog.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public PointLedgerRecovery recover() {
+        pointWriteAheadLog = openLog();
+        pointHistoryWriter = new PointHistoryWriter(new BenchmarkPointHistoryTable(Throttle.OFF, 0, false),
+                new PointMetrics(new SimpleMeterRegistry()), false, 1, 1);
+        return new PointLedgerRecovery(pointWriteAheadLog, snapshotter(pointWriteAheadLog),
+                new PointHistoryRepository(pointHistoryWriter, pointWriteAheadLog), pointHistoryWriter, new InMemoryUserPointStore());
+    }
+
+    private PointWriteAheadLog openLog() {
+        int segmentBytes = tailRecords * 40;
+        return new PointWriteAheadLog(true, directory.resolve("wal").toString(), segmentBytes, PointWriteAheadLog.FsyncPolicy.OS, 1);
+    }
+
+    private PointSnapshotter snapshotter(PointWriteAheadLog log) {
+        return new PointSnapshotter(log, false, directory.resolve("snapshot").toString(), 60,
+                PointSnapshotter.Compaction.DELETE, directory.resolve("archive").toString(), 2);
+    }
+}
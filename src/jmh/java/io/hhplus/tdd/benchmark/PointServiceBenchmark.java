@@ -0,0 +1,89 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * PointService 충전/사용/조회/내역 벤치마크
+ * - throttle 로 테이블 지연을 끄거나(OFF) 고정(FIXED)/임의(RANDOM)로 준다.
+ * - distribution 으로 유저 ID 분포를 균등(UNIFORM) 또는 쏠림(ZIPF)으로 바꾼다.
+ * - 스레드 수는 -Pjmh.threads 로 바꾼다.
+ * - charge/use 는 같은 그룹에서 함께 돌아 잔액이 초기값 근처에 머문다.
+ *   잔액 부족/한도 초과로 거절되는 요청도 한 번의 처리로 센다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointServiceBenchmark {
+
+    private static final long INITIAL_POINT = UserPoint.MAX_POINT / 2;
+
+    @Param({"OFF", "FIXED", "RANDOM"})
+    public Throttle throttle;
+
+    @Param({"1"})
+    public long throttleMillis;
+
+    @Param({"UNIFORM", "ZIPF"})
+    public UserIdDistribution distribution;
+
+    @Param({"10000"})
+    public int users;
+
+    private PointBenchmarkContext context;
+    private LongSupplier userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new PointBenchmarkContext(throttle, throttleMillis, users);
+        userIds = distribution.sampler(users);
+        for (long id = 1; id <= users; id++) {
+            context.userPointTable.seed(id, INITIAL_POINT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("chargeUse")
+    @GroupThreads(1)
+    public UserPoint charge() {
+        try {
+            return context.pointService.charge(userIds.getAsLong(), 1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("chargeUse")
+    @GroupThreads(1)
+    public UserPoint use() {
+        try {
+            return context.pointService.use(userIds.getAsLong(), 1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public UserPoint point() {
+        return context.pointService.point(userIds.getAsLong());
+    }
+
+    @Benchmark
+    public List<PointHistory> history() {
+        return context.pointService.history(userIds.getAsLong());
+    }
+}
@@ -0,0 +1,72 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.PointWriteAheadLog.FsyncPolicy;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 선행 기록 로그의 fsync 정책별 덧붙이기 처리량
+ * - 한 건마다 내역 저장소처럼 순서 구간에서 id 를 받아 덧붙이고, 응답 전처럼 sync 까지 기다린다.
+ * - 세그먼트는 point.wal.benchmark.dir(기본 java.io.tmpdir) 아래 임시 디렉토리에 만들고 끝나면 지운다.
+ *   tmpfs 위에서는 fsync 비용이 드러나지 않으므로 실제 디스크 경로를 지정해서 측정한다.
+ * - 동시 요청 수는 -Pjmh.threads 로 바꾼다. GROUP/ALWAYS 는 동시 요청이 많을수록 한번의 반영에 여러 건이 묶인다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointWriteAheadLogBenchmark {
+
+    @Param({"OS", "GROUP", "ALWAYS"})
+    public FsyncPolicy fsync;
+
+    @Param({"2"})
+    public long groupCommitMillis;
+
+    private final Object sequenceLock = new Object();
+    private long sequence;
+
+    private Path directory;
+    private PointWriteAheadLog pointWriteAheadLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path parent = Path.of(System.getProperty("point.wal.benchmark.dir", System.getProperty("java.io.tmpdir")));
+        directory = Files.createTempDirectory(parent, "point-wal-");
+        pointWriteAheadLog = new PointWriteAheadLog(true, directory.toString(), 64 * 1024 * 1024, fsync, groupCommitMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pointWriteAheadLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        long userId = ThreadLocalRandom.current().nextLong(1_000_000);
+        long id;
+        synchronized (sequenceLock) {
+            id = ++sequence;
+            pointWriteAheadLog.append(new PointHistory(id, userId, 100, TransactionType.CHARGE, System.currentTimeMillis()));
+        }
+        pointWriteAheadLog.sync(id);
+        return id;
+    }
+}
@@ -0,0 +1,30 @@
+package io.hhplus.tdd.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤치마크용 테이블 지연 방식
+ * - OFF : 지연 없음 (순수 CPU 비용 측정)
+ * - FIXED : 매번 millis 만큼 지연
+ * - RANDOM : 0 ~ millis 사이 임의 지연 (실제 테이블과 같은 방식)
+ */
+public enum Throttle {
+    OFF, FIXED, RANDOM;
+
+    void pause(long millis) {
+        long sleep = switch (this) {
+            case OFF -> 0;
+            case FIXED -> millis;
+            case RANDOM -> (long) (ThreadLocalRandom.current().nextDouble() * millis);
+        };
+        if (sleep <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
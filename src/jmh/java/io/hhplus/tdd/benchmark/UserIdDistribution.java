@@ -0,0 +1,34 @@
+package io.hhplus.tdd.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 벤치마크 요청의 유저 ID 분포
+ * - UNIFORM : 모든 유저가 같은 확률
+ * - ZIPF : 순위가 k 인 유저의 확률이 1/k 에 비례 (소수의 유저에 요청이 몰림)
+ * 유저 ID 는 1 부터 users 까지이고, ZIPF 에서는 ID 가 작을수록 요청이 많다.
+ */
+public enum UserIdDistribution {
+    UNIFORM, ZIPF;
+
+    LongSupplier sampler(int users) {
+        if (this == UNIFORM) {
+            return () -> ThreadLocalRandom.current().nextLong(users) + 1;
+        }
+        double[] cdf = new double[users];
+        double sum = 0;
+        for (int rank = 1; rank <= users; rank++) {
+            sum += 1.0 / rank;
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < users; i++) {
+            cdf[i] /= sum;
+        }
+        return () -> {
+            int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        };
+    }
+}
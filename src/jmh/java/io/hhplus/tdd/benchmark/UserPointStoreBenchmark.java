@@ -0,0 +1,94 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.InMemoryUserPointStore;
+import io.hhplus.tdd.database.PrimitiveUserPointStore;
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.database.UserPointTableStore;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 저장소별 메모리 사용량과 조회/저장 비용
+ * - TABLE : UserPointTable 과 같은 Map<Long, UserPoint> (지연 없음)
+ * - MEMORY : InMemoryUserPointStore (ConcurrentHashMap<Long, UserPoint>)
+ * - PRIMITIVE / PRIMITIVE_OFF_HEAP : PrimitiveUserPointStore
+ * - 유저를 모두 채운 뒤 GC 후 힙(+ direct 메모리) 증가량을 유저 수로 나눠 출력한다. ("bytes/user")
+ * - 요청당 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 비교한다. (build.gradle.kts 의 jmh 설정에 포함)
+ * - 50M 유저는 힙이 크게 필요하므로 이 벤치마크만 힙을 늘려서 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms16g", "-Xmx16g", "-XX:MaxDirectMemorySize=8g"})
+public class UserPointStoreBenchmark {
+
+    public enum Store {
+        TABLE, MEMORY, PRIMITIVE, PRIMITIVE_OFF_HEAP
+    }
+
+    @Param({"1000000", "50000000"})
+    public int users;
+
+    @Param({"TABLE", "MEMORY", "PRIMITIVE", "PRIMITIVE_OFF_HEAP"})
+    public Store store;
+
+    private UserPointStore userPointStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedBytes();
+        userPointStore = switch (store) {
+            case TABLE -> new UserPointTableStore(new BenchmarkUserPointTable(Throttle.OFF, 0));
+            case MEMORY -> new InMemoryUserPointStore();
+            case PRIMITIVE -> new PrimitiveUserPointStore(1 << 20, false);
+            case PRIMITIVE_OFF_HEAP -> new PrimitiveUserPointStore(1 << 20, true);
+        };
+        for (long id = 0; id < users; id++) {
+            userPointStore.restore(id, 1_000, id);
+        }
+        long used = usedBytes() - before;
+        System.out.printf("%n%s users=%d bytes/user=%.1f%n", store, users, (double) used / users);
+    }
+
+    /**
+     * 한 유저의 잔액을 읽고 바꿔서 저장한다. (충전/사용의 저장소 비용)
+     */
+    @Benchmark
+    public UserPoint readModifyWrite() {
+        long id = ThreadLocalRandom.current().nextLong(users);
+        UserPoint userPoint = userPointStore.selectById(id);
+        return userPointStore.insertOrUpdate(id, userPoint.point() + 1);
+    }
+
+    /**
+     * 복구처럼 잔액을 그대로 덮어쓴다. PRIMITIVE 는 할당이 없다.
+     */
+    @Benchmark
+    public void restore() {
+        long id = ThreadLocalRandom.current().nextLong(users);
+        userPointStore.restore(id, 1_000, id);
+    }
+
+    @Benchmark
+    public UserPoint selectById() {
+        return userPointStore.selectById(ThreadLocalRandom.current().nextLong(users));
+    }
+
+    private static long usedBytes() {
+        System.gc();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+        return memory.getHeapMemoryUsage().getUsed() + direct;
+    }
+}
@@ -1,5 +1,9 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.point.PointBatchTooLargeException;
+import io.hhplus.tdd.point.PointOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -7,6 +11,18 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 @RestControllerAdvice
 class ApiControllerAdvice extends ResponseEntityExceptionHandler {
+    @ExceptionHandler(value = PointOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(PointOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("429", e.getMessage()));
+    }
+
+    @ExceptionHandler(value = PointBatchTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleBatchTooLarge(PointBatchTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(new ErrorResponse("413", e.getMessage()));
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
         return ResponseEntity.status(500).body(new ErrorResponse("500", "에러가 발생했습니다."));
@@ -0,0 +1,35 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 지연 없는 메모리 잔액 저장소
+ * - 영속성은 PointWriteAheadLog 가 맡고, 재시작 시 로그에서 복구한 잔액을 restore 로 채운다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.store.type", havingValue = "memory")
+public class InMemoryUserPointStore implements UserPointStore {
+
+    private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+
+    @Override
+    public UserPoint selectById(long id) {
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        table.put(id, userPoint);
+        return userPoint;
+    }
+
+    @Override
+    public void restore(long id, long amount, long updateMillis) {
+        table.put(id, new UserPoint(id, amount, updateMillis));
+    }
+}
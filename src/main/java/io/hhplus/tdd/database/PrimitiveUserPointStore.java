@@ -0,0 +1,264 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 박싱 없는 메모리 잔액 저장소
+ * - 유저 ID 를 키로 하는 open addressing(linear probing) 해시 테이블을 구간(segment)으로 나눠 둔다.
+ * - 한 칸은 [유저 ID, 잔액, 갱신 시각] 세 개의 long 을 붙여 저장해서, 탐색 한번에 같은 캐시 라인에서 값까지 읽는다.
+ * - 조회와 저장 모두 객체를 만들지 않고, UserPoint 는 API 경계에서 반환할 때만 만든다.
+ * - 조회는 낙관적 읽기(StampedLock)로 잠그지 않고, 저장과 크기 조정만 구간 단위로 잠근다.
+ * - off-heap 이면 direct ByteBuffer 에 저장해서 유저 수가 많아도 GC 가 살펴볼 힙이 늘지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.store.type", havingValue = "primitive")
+public class PrimitiveUserPointStore implements UserPointStore {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public PrimitiveUserPointStore(@Value("${point.store.initial-capacity:1048576}") int initialCapacity,
+                                   @Value("${point.store.off-heap:false}") boolean offHeap) {
+        int segmentCapacity = Integer.highestOneBit(Math.max(16, (int) (initialCapacity / LOAD_FACTOR / SEGMENTS)) * 2 - 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity, offHeap);
+        }
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        long hash = hash(id);
+        Segment segment = segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+        StampedLock lock = segment.lock;
+        long stamp = lock.tryOptimisticRead();
+        Slots slots = segment.slots;
+        int slot = slots.find(id, hash);
+        long point = slot < 0 ? 0 : slots.point(slot);
+        long updateMillis = slot < 0 ? 0 : slots.updateMillis(slot);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slots = segment.slots;
+                slot = slots.find(id, hash);
+                point = slot < 0 ? 0 : slots.point(slot);
+                updateMillis = slot < 0 ? 0 : slots.updateMillis(slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot < 0 ? UserPoint.empty(id) : new UserPoint(id, point, updateMillis);
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        long updateMillis = System.currentTimeMillis();
+        put(id, amount, updateMillis);
+        return new UserPoint(id, amount, updateMillis);
+    }
+
+    @Override
+    public void restore(long id, long amount, long updateMillis) {
+        put(id, amount, updateMillis);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 테이블이 차지하는 바이트 수 (빈 칸 포함)
+     */
+    public long capacityBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.slots.capacity * Slots.SLOT_LONGS * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    private void put(long id, long point, long updateMillis) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("지원하지 않는 유저 ID 입니다.");
+        }
+        long hash = hash(id);
+        Segment segment = segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.slots.put(id, hash, point, updateMillis)) {
+                segment.size++;
+                if (segment.size > segment.slots.capacity * LOAD_FACTOR) {
+                    segment.slots = segment.slots.resize();
+                }
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long hash(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private Slots slots;
+        private int size;
+
+        private Segment(int capacity, boolean offHeap) {
+            this.slots = offHeap ? new DirectSlots(capacity) : new HeapSlots(capacity);
+        }
+    }
+
+    /**
+     * 해시 테이블의 칸, capacity 는 2 의 거듭제곱
+     */
+    private abstract static class Slots {
+        static final int SLOT_LONGS = 3;
+
+        final int capacity;
+        private final int mask;
+
+        Slots(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+        }
+
+        abstract long get(int index);
+
+        abstract void set(int index, long value);
+
+        abstract Slots create(int capacity);
+
+        long point(int slot) {
+            return get(slot * SLOT_LONGS + 1);
+        }
+
+        long updateMillis(int slot) {
+            return get(slot * SLOT_LONGS + 2);
+        }
+
+        /**
+         * 유저의 칸 번호, 없으면 -1
+         * 낙관적 읽기 중에는 값이 바뀔 수 있으므로 한 바퀴만 돈다.
+         */
+        int find(long id, long hash) {
+            int slot = (int) hash & mask;
+            for (int probe = 0; probe < capacity; probe++) {
+                long key = get(slot * SLOT_LONGS);
+                if (key == id) {
+                    return slot;
+                }
+                if (key == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * 새 유저를 넣었으면 true
+         */
+        boolean put(long id, long hash, long point, long updateMillis) {
+            int slot = (int) hash & mask;
+            while (true) {
+                int index = slot * SLOT_LONGS;
+                long key = get(index);
+                if (key == id || key == EMPTY) {
+                    set(index + 1, point);
+                    set(index + 2, updateMillis);
+                    set(index, id);
+                    return key == EMPTY;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        Slots resize() {
+            Slots resized = create(capacity * 2);
+            for (int slot = 0; slot < capacity; slot++) {
+                int index = slot * SLOT_LONGS;
+                long key = get(index);
+                if (key != EMPTY) {
+                    resized.put(key, hash(key), get(index + 1), get(index + 2));
+                }
+            }
+            return resized;
+        }
+    }
+
+    private static final class HeapSlots extends Slots {
+        private final long[] table;
+
+        private HeapSlots(int capacity) {
+            super(capacity);
+            this.table = new long[capacity * SLOT_LONGS];
+            for (int slot = 0; slot < capacity; slot++) {
+                table[slot * SLOT_LONGS] = EMPTY;
+            }
+        }
+
+        @Override
+        long get(int index) {
+            return table[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            table[index] = value;
+        }
+
+        @Override
+        Slots create(int capacity) {
+            return new HeapSlots(capacity);
+        }
+    }
+
+    private static final class DirectSlots extends Slots {
+        private final ByteBuffer table;
+
+        private DirectSlots(int capacity) {
+            super(capacity);
+            this.table = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, SLOT_LONGS * Long.BYTES)).order(ByteOrder.nativeOrder());
+            for (int slot = 0; slot < capacity; slot++) {
+                table.putLong(slot * SLOT_LONGS * Long.BYTES, EMPTY);
+            }
+        }
+
+        @Override
+        long get(int index) {
+            return table.getLong(index * Long.BYTES);
+        }
+
+        @Override
+        void set(int index, long value) {
+            table.putLong(index * Long.BYTES, value);
+        }
+
+        @Override
+        Slots create(int capacity) {
+            return new DirectSlots(capacity);
+        }
+    }
+}
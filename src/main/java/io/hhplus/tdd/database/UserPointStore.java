@@ -0,0 +1,20 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * 유저 포인트 잔액 저장소
+ * - UserPointTable 과 같은 조회/저장 API 에, 재시작 시 잔액을 되살리기 위한 restore 를 더한다.
+ * - point.store.type 으로 구현을 고른다. (table: UserPointTable, memory: 지연 없는 메모리 저장소, primitive: 박싱 없는 메모리 저장소)
+ */
+public interface UserPointStore {
+
+    UserPoint selectById(long id);
+
+    UserPoint insertOrUpdate(long id, long amount);
+
+    /**
+     * 복구한 잔액과 마지막 갱신 시각을 그대로 저장한다.
+     */
+    void restore(long id, long amount, long updateMillis);
+}
@@ -0,0 +1,45 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * UserPointTable 을 그대로 사용하는 잔액 저장소 (기본값)
+ * - 테이블은 갱신 시각을 지정할 수 없으므로 restore 시 갱신 시각은 복구한 시각이 된다.
+ * - 테이블 호출마다 지연이 있으므로 유저가 많은 경우 복구에는 memory 저장소를 사용한다.
+ * - UserPointTable 은 동시 접근에 안전하지 않으므로(HashMap) 모든 호출을 테이블 단위로 하나씩 실행한다.
+ *   유저 락은 같은 유저만 막으므로, 다른 유저의 갱신이 동시에 맵을 고치면 잔액을 잃을 수 있다.
+ *   파티션마다 테이블을 따로 두므로 파티션끼리는 막지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.store.type", havingValue = "table", matchIfMissing = true)
+public class UserPointTableStore implements UserPointStore {
+
+    private final UserPointTable userPointTable;
+
+    public UserPointTableStore(UserPointTable userPointTable) {
+        this.userPointTable = userPointTable;
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        synchronized (userPointTable) {
+            return userPointTable.selectById(id);
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        synchronized (userPointTable) {
+            return userPointTable.insertOrUpdate(id, amount);
+        }
+    }
+
+    @Override
+    public void restore(long id, long amount, long updateMillis) {
+        synchronized (userPointTable) {
+            userPointTable.insertOrUpdate(id, amount);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.hhplus.tdd.point;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 요청이 많은 유저 상위 K 명 추정 (Space-Saving)
+ * - 고정된 개수의 카운터만 유지하고, 자리가 없으면 가장 작은 카운터를 새 유저에게 넘긴다.
+ * - 요청 경로의 부담을 줄이기 위해 sampleRate 분의 1 확률로만 기록한다.
+ */
+public class HotUserSketch {
+
+    private final long[] ids;
+    private final long[] counts;
+    private final int sampleRate;
+    private int used;
+
+    public HotUserSketch(int capacity, int sampleRate) {
+        this.ids = new long[capacity];
+        this.counts = new long[capacity];
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void offer(long userId) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        record(userId);
+    }
+
+    private synchronized void record(long userId) {
+        int min = 0;
+        for (int i = 0; i < used; i++) {
+            if (ids[i] == userId) {
+                counts[i]++;
+                return;
+            }
+            if (counts[i] < counts[min]) {
+                min = i;
+            }
+        }
+        if (used < ids.length) {
+            ids[used] = userId;
+            counts[used++] = 1;
+            return;
+        }
+        // 가장 적게 센 유저를 내보내고, 그 횟수를 이어받는다. (과대 추정의 상한)
+        ids[min] = userId;
+        counts[min]++;
+    }
+
+    /**
+     * 추정 요청 수가 많은 순서로 최대 k 명, [유저 ID, 추정 요청 수(샘플 보정)]
+     */
+    public synchronized long[][] top(int k) {
+        Integer[] order = new Integer[used];
+        for (int i = 0; i < used; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+        long[][] top = new long[Math.min(k, used)][];
+        for (int rank = 0; rank < top.length; rank++) {
+            top[rank] = new long[]{ids[order[rank]], counts[order[rank]] * sampleRate};
+        }
+        return top;
+    }
+}
@@ -0,0 +1,326 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 락 없는 잔액 변경 (point.concurrency.mode=optimistic)
+ * - 유저마다 버전이 붙은 잔액을 하나 두고, 읽은 값(snapshot)으로 한도/잔액을 검증한 뒤
+ *   버전이 그대로일 때만 새 잔액으로 바꾼다. (compare-and-set)
+ * - 그 사이 다른 요청이 먼저 바꿨으면 새 값으로 다시 검증하고, 재시도 횟수가 늘수록 오래 쉰다.
+ *   재시도를 다 쓰면 요청을 거절한다. (429, PointOverloadedException)
+ * - 잔액 저장소에는 유저마다 한 스레드만 최신 버전을 순서대로 저장한다. 조회는 버전 잔액을 그대로 읽는다.
+ * - 바꾼 잔액의 내역을 남기지 못하면 반대로 적용해서 되돌린다. 내역을 남긴 뒤의 실패는 PointCommitException 으로 알린다.
+ * - 버전 잔액은 처음 쓰일 때 저장소에서 읽는다. 읽는 동안에는 자리만 잡아두므로 같은 해시 구간의 다른 유저를 막지 않는다.
+ * - idle-millis 동안 쓰이지 않았고 저장소에 모두 저장된 잔액은 지운다. 새 잔액을 읽어온 스레드가 idle-millis 마다 한번 훑는다.
+ *   지운 잔액은 더 쓸 수 없도록 표시(RETIRED)해서, 그 잔액을 들고 있던 요청은 저장소에서 다시 읽은 잔액으로 재시도한다.
+ * - 같은 유저에게 동시에 들어온 요청의 내역 id 순서는 잔액이 바뀐 순서와 다를 수 있다. (금액 합은 같다)
+ * - 충돌이 드문 경우(여러 유저에 고르게 분포) 락과 큐 없이 처리되어 빠르고,
+ *   한 유저에 몰리면 재시도가 늘어 lock 모드의 묶음 처리가 유리하다. (PointContentionBenchmark)
+ */
+@Component
+@ConditionalOnProperty(name = "point.concurrency.mode", havingValue = "optimistic")
+public class OptimisticPointUpdater implements PointBalanceUpdater {
+
+    private static final int SPIN_ATTEMPTS = 4;
+    // 지운 잔액의 버전, 이 버전으로는 compare-and-set 이 성공하지 않는다.
+    private static final long RETIRED = -1;
+
+    private final UserPointRepository userPointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointMetrics pointMetrics;
+    private final int maxRetries;
+    private final long maxBackoffNanos;
+    private final long idleNanos;
+    private final long retryAfterSeconds;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Balance>> balances = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepNanos;
+
+    /**
+     * @param maxRetries         버전 충돌 시 최대 재시도 횟수
+     * @param maxBackoffMicros   재시도 사이에 쉬는 최대 시간(us)
+     * @param idleMillis         이 시간 동안 쓰이지 않은 잔액은 지운다.
+     * @param retryAfterSeconds  재시도를 다 써서 거절할 때 알려주는 재시도 대기 시간
+     */
+    @Autowired
+    public OptimisticPointUpdater(UserPointRepository userPointRepository, PointHistoryRepository pointHistoryRepository,
+                                  PointMetrics pointMetrics,
+                                  @Value("${point.concurrency.max-retries:64}") int maxRetries,
+                                  @Value("${point.concurrency.max-backoff-micros:1000}") long maxBackoffMicros,
+                                  @Value("${point.concurrency.idle-millis:60000}") long idleMillis,
+                                  @Value("${point.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        if (maxRetries < 0 || idleMillis <= 0) {
+            throw new IllegalArgumentException("재시도 횟수는 0 이상, 잔액 보관 시간은 0보다 커야 합니다.");
+        }
+        this.userPointRepository = userPointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.pointMetrics = pointMetrics;
+        this.maxRetries = maxRetries;
+        this.maxBackoffNanos = maxBackoffMicros * 1_000;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.nextSweepNanos = System.nanoTime() + idleNanos;
+    }
+
+    /**
+     * 기본 보관 시간(60초)과 재시도 대기 시간(1초)으로 만든다. (테스트, 벤치마크)
+     */
+    public OptimisticPointUpdater(UserPointRepository userPointRepository, PointHistoryRepository pointHistoryRepository,
+                                  PointMetrics pointMetrics, int maxRetries, long maxBackoffMicros) {
+        this(userPointRepository, pointHistoryRepository, pointMetrics, maxRetries, maxBackoffMicros, 60_000, 1);
+    }
+
+    @Override
+    public UserPoint execute(long userId, TransactionType type, long amount) {
+        Balance balance = balanceOf(userId);
+        int attempt = 0;
+        while (true) {
+            VersionedPoint snapshot = balance.current.get();
+            if (snapshot.version == RETIRED) {
+                // 지워진 잔액이면 저장소에서 다시 읽은 잔액으로 바꾼다. 충돌로 세지 않는다.
+                balance = balanceOf(userId);
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            UserPoint updated = switch (type) {
+                case CHARGE -> snapshot.userPoint.charge(amount, now);
+                case USE -> snapshot.userPoint.use(amount, now);
+            };
+            if (balance.current.compareAndSet(snapshot, new VersionedPoint(updated, snapshot.version + 1))) {
+                return commit(userId, balance, type, amount, updated, now);
+            }
+            pointMetrics.recordOptimisticConflict();
+            if (attempt >= maxRetries) {
+                pointMetrics.recordOptimisticExhausted();
+                throw new PointOverloadedException(PointOverloadedException.Scope.USER, retryAfterSeconds);
+            }
+            backoff(attempt++);
+        }
+    }
+
+    @Override
+    public UserPoint current(long userId) {
+        while (true) {
+            VersionedPoint snapshot = balanceOf(userId).current.get();
+            if (snapshot.version != RETIRED) {
+                return snapshot.userPoint;
+            }
+        }
+    }
+
+    /**
+     * 바꾼 잔액의 내역을 남기고, 로그 반영을 기다린 뒤 저장소에 저장한다.
+     * - 내역을 남기지 못하면 바꾼 잔액을 되돌리고 실패시킨다.
+     *   되돌리면 잔액 규칙을 어기는 경우(그 사이 이 변경에 기대어 다른 요청이 반영됨)는 되돌리지 않고 PointCommitException 으로 알린다.
+     * - 내역을 남긴 뒤의 실패(로그 반영, 잔액 저장)는 되돌리지 않고 PointCommitException 으로 알린다.
+     */
+    private UserPoint commit(long userId, Balance balance, TransactionType type, long amount, UserPoint updated, long now) {
+        PointHistory history;
+        try {
+            history = pointHistoryRepository.save(userId, amount, type, now);
+        } catch (RuntimeException e) {
+            if (!revert(userId, balance, type, amount, e)) {
+                throw new PointCommitException(updated, e);
+            }
+            throw e;
+        }
+
+        RuntimeException failure = null;
+        try {
+            // 내역이 로그에 반영된 뒤에 응답한다.
+            pointHistoryRepository.sync(history.id());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        try {
+            flush(userId, balance);
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            throw new PointCommitException(updated, failure);
+        }
+        return updated;
+    }
+
+    // 바꾼 만큼을 지금 잔액에서 반대로 적용한다. 잔액 규칙을 어겨서 되돌리지 못하면 false
+    private boolean revert(long userId, Balance balance, TransactionType type, long amount, RuntimeException cause) {
+        while (true) {
+            VersionedPoint snapshot = balance.current.get();
+            if (snapshot.version == RETIRED) {
+                balance = balanceOf(userId);
+                continue;
+            }
+            UserPoint reverted;
+            try {
+                long now = System.currentTimeMillis();
+                reverted = switch (type) {
+                    case CHARGE -> snapshot.userPoint.use(amount, now);
+                    case USE -> snapshot.userPoint.charge(amount, now);
+                };
+            } catch (IllegalArgumentException e) {
+                cause.addSuppressed(e);
+                return false;
+            }
+            if (balance.current.compareAndSet(snapshot, new VersionedPoint(reverted, snapshot.version + 1))) {
+                try {
+                    flush(userId, balance);
+                } catch (RuntimeException e) {
+                    // 되돌린 잔액은 다음 저장 때 함께 저장된다.
+                    cause.addSuppressed(e);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 보관 중인 버전 잔액 수 (테스트)
+     */
+    public int size() {
+        return balances.size();
+    }
+
+    /**
+     * 버전 잔액을 찾고, 없으면 저장소의 잔액을 버전 0 으로 가져온다.
+     * 가져오는 동안 맵에는 끝나지 않은 future 만 두고, 같은 유저의 다른 요청은 그 결과를 기다린다.
+     */
+    private Balance balanceOf(long userId) {
+        while (true) {
+            CompletableFuture<Balance> entry = balances.get(userId);
+            if (entry == null) {
+                CompletableFuture<Balance> loading = new CompletableFuture<>();
+                entry = balances.putIfAbsent(userId, loading);
+                if (entry == null) {
+                    return load(userId, loading);
+                }
+            }
+            Balance balance = await(entry);
+            if (balance.current.get().version != RETIRED) {
+                balance.lastAccessNanos = System.nanoTime();
+                return balance;
+            }
+            // 지우는 중인 잔액이면 맵에서 빠진 뒤 다시 읽는다.
+            balances.remove(userId, entry);
+        }
+    }
+
+    private Balance load(long userId, CompletableFuture<Balance> loading) {
+        Balance balance;
+        try {
+            UserPoint stored = userPointRepository.findById(userId);
+            if (stored == null) {
+                throw new IllegalArgumentException("유저 정보가 존재하지 않습니다.");
+            }
+            balance = new Balance(stored);
+        } catch (RuntimeException e) {
+            balances.remove(userId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        loading.complete(balance);
+        sweepIfDue();
+        return balance;
+    }
+
+    // idle-millis 마다 한 스레드만, 오래 쓰이지 않았고 저장소에 모두 저장된 잔액을 지운다.
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        if (now - nextSweepNanos < 0 || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            nextSweepNanos = now + idleNanos;
+            balances.forEach((userId, entry) -> {
+                Balance balance = entry.getNow(null);
+                if (balance != null && now - balance.lastAccessNanos > idleNanos && balance.retire()) {
+                    balances.remove(userId, entry);
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 저장 중인 스레드가 없으면 직접 최신 버전을 저장하고, 있으면 그 스레드가 이어서 저장한다.
+     * 저장을 마친 스레드는 그 사이 바뀐 버전이 없는지 다시 확인하므로 마지막 버전이 빠지지 않는다.
+     */
+    private void flush(long userId, Balance balance) {
+        while (balance.current.get().version > balance.savedVersion && balance.saving.compareAndSet(false, true)) {
+            try {
+                VersionedPoint latest;
+                while ((latest = balance.current.get()).version > balance.savedVersion) {
+                    userPointRepository.save(userId, latest.userPoint.point());
+                    balance.savedVersion = latest.version;
+                }
+            } finally {
+                balance.saving.set(false);
+            }
+        }
+    }
+
+    // 처음 몇 번은 바로 다시 시도하고, 이후에는 두 배씩(최대 maxBackoffNanos) 임의로 쉬어서 충돌한 요청끼리 엇갈리게 한다.
+    private void backoff(int attempt) {
+        if (attempt < SPIN_ATTEMPTS) {
+            Thread.onSpinWait();
+            return;
+        }
+        long ceiling = Math.min(maxBackoffNanos, 1_000L << Math.min(20, attempt - SPIN_ATTEMPTS));
+        if (ceiling > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        }
+    }
+
+    private static Balance await(CompletableFuture<Balance> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record VersionedPoint(UserPoint userPoint, long version) {
+    }
+
+    private static final class Balance {
+        private final AtomicReference<VersionedPoint> current;
+        // 저장소에 저장한 마지막 버전, saving 을 가진 스레드만 바꾼다.
+        private final AtomicBoolean saving = new AtomicBoolean();
+        private volatile long savedVersion;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private Balance(UserPoint stored) {
+            this.current = new AtomicReference<>(new VersionedPoint(stored, 0));
+        }
+
+        /**
+         * 저장소에 모두 저장되었고 저장 중이 아니면 더 쓸 수 없도록 표시한다.
+         */
+        private boolean retire() {
+            VersionedPoint snapshot = current.get();
+            return snapshot.version != RETIRED && !saving.get() && snapshot.version == savedVersion
+                    && current.compareAndSet(snapshot, new VersionedPoint(snapshot.userPoint, RETIRED));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 수용 제어 (admission control)
+ * - 유저별 : 같은 유저의 처리 중/대기 요청이 perUserLimit 개를 넘으면 바로 거절한다. (userId 를 넘긴 요청만)
+ *   한 유저에게 몰린 요청이 유저 락 앞에서 톰캣 스레드를 붙잡고 있지 않게 한다.
+ * - 전체 : 동시 처리 요청 수를 AIMD 방식의 한도로 제한한다.
+ *   - 응답 시간이 latencyThreshold 이하이고 한도의 절반 이상을 쓰고 있으면 요청마다 1/한도 씩 늘린다. (additive increase)
+ *   - 넘으면 한도를 decreaseRatio 배로 줄인다. 한번 줄인 뒤 latencyThreshold 동안은 다시 줄이지 않는다. (multiplicative decrease)
+ *   - 한도는 [minLimit, maxLimit] 안에서 움직인다.
+ * - 거절은 기다리지 않고 PointOverloadedException 으로 알린다. (429, Retry-After)
+ */
+@Component
+public class PointAdmissionController {
+
+    private final boolean enabled;
+    private final int perUserLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double decreaseRatio;
+    private final long retryAfterSeconds;
+
+    private final ConcurrentHashMap<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder userRejections = new LongAdder();
+    private final LongAdder globalRejections = new LongAdder();
+    // 한도 조정은 완료 시점에만 일어나므로 짧게 잠근다. 요청 수용 시에는 volatile 로 읽기만 한다.
+    private final Object limitLock = new Object();
+    private volatile double limit;
+    private long lastDecreaseNanos;
+
+    public PointAdmissionController(@Value("${point.admission.enabled:true}") boolean enabled,
+                                    @Value("${point.admission.per-user-limit:4}") int perUserLimit,
+                                    @Value("${point.admission.initial-limit:100}") int initialLimit,
+                                    @Value("${point.admission.min-limit:8}") int minLimit,
+                                    @Value("${point.admission.max-limit:180}") int maxLimit,
+                                    @Value("${point.admission.latency-threshold-millis:1000}") long latencyThresholdMillis,
+                                    @Value("${point.admission.decrease-ratio:0.9}") double decreaseRatio,
+                                    @Value("${point.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        if (perUserLimit <= 0 || minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("요청 한도 설정이 올바르지 않습니다.");
+        }
+        if (decreaseRatio <= 0 || decreaseRatio >= 1) {
+            throw new IllegalArgumentException("한도 감소 비율은 0 과 1 사이여야 합니다.");
+        }
+        this.enabled = enabled;
+        this.perUserLimit = perUserLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.decreaseRatio = decreaseRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = initialLimit;
+        this.lastDecreaseNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    /**
+     * 요청을 받아들이고 허가를 돌려준다. 처리가 끝나면 release 로 반납해야 한다.
+     *
+     * @param userId 요청 대상 유저, 유저가 없는 요청이면 null
+     */
+    public Permit acquire(Long userId) {
+        if (!enabled) {
+            return new Permit(null, System.nanoTime());
+        }
+        if (userId != null && !acquireUser(userId)) {
+            userRejections.increment();
+            throw new PointOverloadedException(PointOverloadedException.Scope.USER, retryAfterSeconds);
+        }
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                if (userId != null) {
+                    releaseUser(userId);
+                }
+                globalRejections.increment();
+                throw new PointOverloadedException(PointOverloadedException.Scope.GLOBAL, retryAfterSeconds);
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(userId, System.nanoTime());
+            }
+        }
+    }
+
+    public void release(Permit permit) {
+        release(permit, System.nanoTime() - permit.startNanos());
+    }
+
+    /**
+     * 허가를 반납하고 걸린 시간으로 전체 한도를 조정한다.
+     */
+    public void release(Permit permit, long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        int current = inflight.getAndDecrement();
+        if (permit.userId() != null) {
+            releaseUser(permit.userId());
+        }
+        synchronized (limitLock) {
+            if (latencyNanos > latencyThresholdNanos) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= latencyThresholdNanos) {
+                    limit = Math.max(minLimit, limit * decreaseRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (current * 2 >= limit) {
+                // 한도를 절반도 쓰지 않을 때 늘리면 실제 부하와 상관없이 한도만 커진다.
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public long rejectedCount(PointOverloadedException.Scope scope) {
+        return (scope == PointOverloadedException.Scope.USER ? userRejections : globalRejections).sum();
+    }
+
+    private boolean acquireUser(long userId) {
+        boolean[] admitted = {false};
+        pendingByUser.compute(userId, (id, pending) -> {
+            int count = pending == null ? 0 : pending;
+            if (count >= perUserLimit) {
+                return pending;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        return admitted[0];
+    }
+
+    private void releaseUser(long userId) {
+        pendingByUser.computeIfPresent(userId, (id, pending) -> pending == 1 ? null : pending - 1);
+    }
+
+    /**
+     * 받아들인 요청의 허가, 유저가 없는 요청이면 userId 는 null
+     */
+    public record Permit(Long userId, long startNanos) {
+    }
+}
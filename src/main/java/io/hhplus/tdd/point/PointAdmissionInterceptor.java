@@ -0,0 +1,66 @@
+package io.hhplus.tdd.point;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PointController 앞에서 요청 수용 여부를 정한다. (PointAdmissionController)
+ * - 유저별 한도는 잔액을 바꾸는 충전/사용(PATCH /point/{id}/charge, /use)에만 건다. 경로의 {id} 로 유저를 구분한다.
+ *   조회는 같은 유저의 요청이 몰려도 읽기 합치기(PointReadCoalescer)가 흡수하므로 전체 한도만 건다.
+ * - 비동기 응답(CompletableFuture)은 결과를 쓰는 ASYNC 디스패치가 끝날 때 허가를 반납한다.
+ */
+@Component
+public class PointAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = PointAdmissionInterceptor.class.getName() + ".permit";
+    private static final Set<String> USER_LIMITED_PATTERNS = Set.of("/point/{id}/charge", "/point/{id}/use");
+
+    private final PointAdmissionController pointAdmissionController;
+
+    public PointAdmissionInterceptor(PointAdmissionController pointAdmissionController) {
+        this.pointAdmissionController = pointAdmissionController;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 처음 디스패치에서 받은 허가를 그대로 쓴다.
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, pointAdmissionController.acquire(userId(request)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof PointAdmissionController.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            pointAdmissionController.release(permit);
+        }
+    }
+
+    // 충전/사용이 아니면 유저별 한도를 걸지 않도록 null 을 돌려준다.
+    private static Long userId(HttpServletRequest request) {
+        if (!"PATCH".equals(request.getMethod())
+                || !(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern)
+                || !USER_LIMITED_PATTERNS.contains(pattern)) {
+            return null;
+        }
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("id") instanceof String id) {
+            try {
+                return Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
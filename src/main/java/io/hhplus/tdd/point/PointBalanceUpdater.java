@@ -0,0 +1,20 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 잔액 변경 방식
+ * - point.concurrency.mode 로 선택한다.
+ *   - lock : 유저 락을 잡고 쌓인 명령을 한번에 적용한다. (PointCommandQueue)
+ *   - optimistic : 락 없이 버전 비교(CAS)로 적용하고, 충돌하면 다시 시도한다. (OptimisticPointUpdater)
+ */
+public interface PointBalanceUpdater {
+
+    /**
+     * 충전/사용을 적용하고 적용된 시점의 포인트를 반환한다. 규칙을 위반하면 PointRejectedException
+     */
+    UserPoint execute(long userId, TransactionType type, long amount);
+
+    /**
+     * 현재 포인트, 같은 유저에게 앞서 응답한 충전/사용이 반영된 값이다.
+     */
+    UserPoint current(long userId);
+}
@@ -0,0 +1,120 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 여러 유저의 충전/사용 일괄 처리
+ * - 요청을 유저별로 묶어, 서로 다른 유저는 고정 크기 스레드 풀에서 병렬로 처리한다.
+ * - 같은 유저의 요청은 요청 목록의 순서대로 하나씩 처리한다.
+ * - 결과는 끝나는 대로 호출한 스레드에서 한 건씩 넘겨주므로, 전체 결과를 모아두지 않고 바로 내보낼 수 있다.
+ * - 요청은 최대 max-size 건까지 받는다. 넘으면 하나도 처리하지 않고 거절한다. (PointBatchTooLargeException)
+ * - 유저별 작업이 Error 로 멈추거나 풀이 닫혀 실행되지 못해도, 남은 요청마다 실패 결과를 넘겨 호출한 스레드가 끝없이 기다리지 않는다.
+ */
+@Component
+public class PointBatchProcessor implements AutoCloseable {
+
+    private final PointService pointService;
+    private final int maxSize;
+    private final ExecutorService executor;
+
+    public PointBatchProcessor(PointService pointService,
+                               @Value("${point.batch.parallelism:8}") int parallelism,
+                               @Value("${point.batch.max-size:10000}") int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("일괄 처리 최대 건수는 0보다 커야 합니다.");
+        }
+        this.pointService = pointService;
+        this.maxSize = maxSize;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "point-batch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 요청을 처리하고 결과를 끝나는 순서대로 resultConsumer 에 넘긴다.
+     * resultConsumer 는 이 메서드를 호출한 스레드에서만 불린다.
+     */
+    public void process(List<PointBatchRequest> requests, Consumer<PointBatchResult> resultConsumer) throws InterruptedException {
+        if (requests.size() > maxSize) {
+            throw new PointBatchTooLargeException(maxSize);
+        }
+        Map<Long, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByUser.computeIfAbsent(requests.get(i).userId(), id -> new ArrayList<>()).add(i);
+        }
+
+        BlockingQueue<PointBatchResult> results = new LinkedBlockingQueue<>();
+        for (List<Integer> indexes : indexesByUser.values()) {
+            try {
+                executor.execute(() -> {
+                    int done = 0;
+                    try {
+                        for (; done < indexes.size(); done++) {
+                            int index = indexes.get(done);
+                            results.add(execute(index, requests.get(index)));
+                        }
+                    } finally {
+                        failRemaining(requests, indexes, done, results);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failRemaining(requests, indexes, 0, results);
+            }
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            resultConsumer.accept(results.take());
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private static void failRemaining(List<PointBatchRequest> requests, List<Integer> indexes, int from,
+                                      BlockingQueue<PointBatchResult> results) {
+        for (int i = from; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            results.add(PointBatchResult.failure(index, requests.get(index), new ErrorResponse("500", "에러가 발생했습니다.")));
+        }
+    }
+
+    private PointBatchResult execute(int index, PointBatchRequest request) {
+        try {
+            if (request.type() == null) {
+                throw new IllegalArgumentException("처리 종류(CHARGE, USE)가 필요합니다.");
+            }
+            UserPoint userPoint = switch (request.type()) {
+                case CHARGE -> pointService.charge(request.userId(), request.amount());
+                case USE -> pointService.use(request.userId(), request.amount());
+            };
+            return PointBatchResult.success(index, request, userPoint);
+        } catch (IllegalArgumentException e) {
+            return PointBatchResult.failure(index, request, new ErrorResponse("400", e.getMessage()));
+        } catch (RuntimeException e) {
+            return PointBatchResult.failure(index, request, new ErrorResponse("500", "에러가 발생했습니다."));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,11 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 일괄 처리 요청 한 건
+ */
+public record PointBatchRequest(
+        long userId,
+        TransactionType type,
+        long amount
+) {
+}
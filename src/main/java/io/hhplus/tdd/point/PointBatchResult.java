@@ -0,0 +1,26 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+
+/**
+ * 일괄 처리 결과 한 건
+ * - index 는 요청 목록에서의 위치
+ * - 성공하면 userPoint, 실패하면 error 가 채워진다.
+ */
+public record PointBatchResult(
+        int index,
+        long userId,
+        TransactionType type,
+        long amount,
+        UserPoint userPoint,
+        ErrorResponse error
+) {
+
+    public static PointBatchResult success(int index, PointBatchRequest request, UserPoint userPoint) {
+        return new PointBatchResult(index, request.userId(), request.type(), request.amount(), userPoint, null);
+    }
+
+    public static PointBatchResult failure(int index, PointBatchRequest request, ErrorResponse error) {
+        return new PointBatchResult(index, request.userId(), request.type(), request.amount(), null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 최대 건수(point.batch.max-size)를 넘어 처리하지 않고 거절한 일괄 처리 요청 (413)
+ */
+public class PointBatchTooLargeException extends IllegalArgumentException {
+
+    private final int maxSize;
+
+    public PointBatchTooLargeException(int maxSize) {
+        super("한번에 처리할 수 있는 요청은 최대 " + maxSize + " 건입니다.");
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,216 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 유저별 충전/사용 명령 큐
+ * - 요청은 유저별 메일박스에 도착 순서대로 쌓인다.
+ * - 유저 락을 먼저 잡은 요청이 쌓여있는 명령을 한번에 꺼내 메모리에서 순서대로 적용하고,
+ *   내역을 모두 남긴 뒤 최종 잔액만 한번 저장한다. (group commit)
+ * - 각 요청은 자신의 명령이 적용된 시점의 포인트 또는 거절 사유를 돌려받는다.
+ */
+@Component
+@ConditionalOnProperty(name = "point.concurrency.mode", havingValue = "lock", matchIfMissing = true)
+public class PointCommandQueue implements PointBalanceUpdater {
+
+    private final UserPointRepository userPointRepository;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final PointLockManager pointLockManager;
+    private final PointReadCoalescer pointReadCoalescer;
+
+    private final ConcurrentHashMap<Long, Queue<PointCommand>> mailboxes = new ConcurrentHashMap<>();
+
+    public PointCommandQueue(UserPointRepository userPointRepository, PointHistoryRepository pointHistoryRepository,
+                             PointLockManager pointLockManager, PointReadCoalescer pointReadCoalescer) {
+        this.userPointRepository = userPointRepository;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.pointLockManager = pointLockManager;
+        this.pointReadCoalescer = pointReadCoalescer;
+    }
+
+    /**
+     * 명령을 메일박스에 넣고 처리 결과를 기다린다.
+     */
+    @Override
+    public UserPoint execute(long userId, TransactionType type, long amount) {
+        PointCommand command = new PointCommand(type, amount);
+        mailboxes.compute(userId, (id, mailbox) -> {
+            Queue<PointCommand> queue = mailbox == null ? new ArrayDeque<>() : mailbox;
+            queue.add(command);
+            return queue;
+        });
+
+        try {
+            pointLockManager.executeWithLock(userId, () -> {
+                // 앞선 요청이 이미 내 명령까지 처리했다면 바로 빠져나간다.
+                if (!command.result.isDone()) {
+                    drain(userId);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 락을 얻지 못했더라도 다른 요청이 이미 명령을 가져갔다면 그 결과를 따른다.
+            if (command.claim()) {
+                throw e;
+            }
+        }
+        return await(command.result);
+    }
+
+    @Override
+    public UserPoint current(long userId) {
+        // 캐시에 없을 때만 유저 락을 잡고 읽어서, 진행 중인 충전/사용보다 과거 값이 캐시에 들어가지 않게 한다.
+        // 락을 기다리는 동안 들어온 같은 유저의 조회는 한번의 테이블 조회로 합친다.
+        return userPointRepository.findCached(userId)
+                .orElseGet(() -> pointReadCoalescer.load(userId, detach -> pointLockManager.executeWithLock(userId, () -> {
+                    detach.run();
+                    return userPointRepository.findByIdAfterMiss(userId);
+                })));
+    }
+
+    private void drain(long userId) {
+        List<PointCommand> batch = takeAll(userId);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PointCommand> accepted = new ArrayList<>(batch.size());
+        long now = System.currentTimeMillis();
+        try {
+            UserPoint current = userPointRepository.findById(userId);
+            if (current == null) {
+                throw new IllegalArgumentException("유저 정보가 존재하지 않습니다.");
+            }
+
+            for (PointCommand command : batch) {
+                if (!command.claim()) {
+                    continue;
+                }
+                try {
+                    current = command.apply(current, now);
+                    command.applied = current;
+                    accepted.add(command);
+                } catch (IllegalArgumentException e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+        } catch (RuntimeException e) {
+            // 꺼내온 명령이 결과 없이 남지 않도록 모두 실패 처리한다.
+            batch.forEach(command -> command.fail(e));
+            accepted.forEach(command -> command.result.completeExceptionally(e));
+            return;
+        }
+        if (!accepted.isEmpty()) {
+            commit(userId, accepted, now);
+        }
+    }
+
+    /**
+     * 내역을 먼저 남기고, 로그 반영을 기다린 뒤 잔액을 저장한다.
+     * - 내역을 남기지 못한 명령부터는 잔액에 반영하지 않고 실패시킨다. 그 앞의 명령까지만 잔액에 반영한다.
+     * - 내역을 남긴 뒤의 실패(로그 반영, 잔액 저장)는 되돌리지 않고 PointCommitException 으로 알린다.
+     *   로그 반영에 실패해도 잔액은 저장해서 내역과 어긋나지 않게 한다.
+     */
+    private void commit(long userId, List<PointCommand> accepted, long now) {
+        int committed = 0;
+        long lastHistoryId = 0;
+        try {
+            for (PointCommand command : accepted) {
+                lastHistoryId = pointHistoryRepository.save(userId, command.amount, command.type, now).id();
+                committed++;
+            }
+        } catch (RuntimeException e) {
+            accepted.subList(committed, accepted.size()).forEach(command -> command.result.completeExceptionally(e));
+        }
+        if (committed == 0) {
+            return;
+        }
+
+        List<PointCommand> saved = accepted.subList(0, committed);
+        PointCommand last = saved.get(committed - 1);
+        RuntimeException failure = null;
+        try {
+            // 묶음의 마지막 내역까지 로그에 반영된 뒤에 응답한다.
+            pointHistoryRepository.sync(lastHistoryId);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        try {
+            last.applied = userPointRepository.save(userId, last.applied.point());
+        } catch (RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+
+        if (failure == null) {
+            saved.forEach(command -> command.result.complete(command.applied));
+        } else {
+            RuntimeException cause = failure;
+            saved.forEach(command -> command.result.completeExceptionally(new PointCommitException(command.applied, cause)));
+        }
+    }
+
+    private List<PointCommand> takeAll(long userId) {
+        List<PointCommand> batch = new ArrayList<>();
+        mailboxes.computeIfPresent(userId, (id, mailbox) -> {
+            batch.addAll(mailbox);
+            return null;
+        });
+        return batch;
+    }
+
+    private static UserPoint await(CompletableFuture<UserPoint> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class PointCommand {
+        private final TransactionType type;
+        private final long amount;
+        private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+        // 처리하는 쪽(drain)과 포기하는 쪽(락 획득 실패) 중 먼저 가져간 쪽만 결과를 정한다.
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private UserPoint applied;
+
+        private PointCommand(TransactionType type, long amount) {
+            this.type = type;
+            this.amount = amount;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private UserPoint apply(UserPoint userPoint, long updateMillis) {
+            return switch (type) {
+                case CHARGE -> userPoint.charge(amount, updateMillis);
+                case USE -> userPoint.use(amount, updateMillis);
+            };
+        }
+
+        private void fail(RuntimeException e) {
+            if (claim()) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 잔액에 반영된 뒤, 응답하기 전에 실패한 충전/사용
+ * - 내역을 남긴 뒤 로그 반영 대기나 잔액 저장에 실패했거나, 내역을 남기지 못했지만 잔액을 되돌릴 수 없었던 경우다.
+ * - 반영은 되돌리지 않는다. 같은 요청을 다시 보내면 두 번 반영되므로, 멱등 키가 있으면 applied 를 그 키의 결과로 남긴다.
+ * - applied 는 이 요청이 반영된 시점의 포인트다.
+ */
+public class PointCommitException extends IllegalStateException {
+
+    private final UserPoint applied;
+
+    public PointCommitException(UserPoint applied, Throwable cause) {
+        super("포인트는 반영되었지만 처리를 마치지 못했습니다.", cause);
+        this.applied = applied;
+    }
+
+    public UserPoint getApplied() {
+        return applied;
+    }
+}
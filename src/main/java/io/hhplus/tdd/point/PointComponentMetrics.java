@@ -0,0 +1,90 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 캐시, 멱등 키 캐시, 내역 기록기, 내역 옮기기, 요청 실행기, 요청 수용 제어, 변경 피드, 잔액 대사의 상태 지표
+ * - 각 컴포넌트가 이미 세고 있는 값을 수집 시점에 읽기만 하므로 요청 경로에 부담이 없다.
+ */
+@Component
+public class PointComponentMetrics implements MeterBinder {
+
+    private final UserPointCache userPointCache;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointRequestExecutor pointRequestExecutor;
+    private final PointAdmissionController pointAdmissionController;
+    private final PointEventFeed pointEventFeed;
+    private final PointLedgerReconciler pointLedgerReconciler;
+    private final PointHistoryTiering pointHistoryTiering;
+    private final PointIdempotencyCache pointIdempotencyCache;
+
+    public PointComponentMetrics(UserPointCache userPointCache, PointHistoryWriter pointHistoryWriter,
+                                 PointRequestExecutor pointRequestExecutor, PointAdmissionController pointAdmissionController,
+                                 PointEventFeed pointEventFeed, PointLedgerReconciler pointLedgerReconciler,
+                                 PointHistoryTiering pointHistoryTiering, PointIdempotencyCache pointIdempotencyCache) {
+        this.userPointCache = userPointCache;
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.pointRequestExecutor = pointRequestExecutor;
+        this.pointAdmissionController = pointAdmissionController;
+        this.pointEventFeed = pointEventFeed;
+        this.pointLedgerReconciler = pointLedgerReconciler;
+        this.pointHistoryTiering = pointHistoryTiering;
+        this.pointIdempotencyCache = pointIdempotencyCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::hitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::missCount)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("point.cache.evictions", userPointCache, UserPointCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.cache.size", userPointCache, UserPointCache::size).register(registry);
+
+        // 적중률 = (hit + wait) / (hit + wait + miss)
+        FunctionCounter.builder("point.idempotency.requests", pointIdempotencyCache, PointIdempotencyCache::hitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("point.idempotency.requests", pointIdempotencyCache, PointIdempotencyCache::waitCount)
+                .tag("result", "wait").register(registry);
+        FunctionCounter.builder("point.idempotency.requests", pointIdempotencyCache, PointIdempotencyCache::missCount)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("point.idempotency.evictions", pointIdempotencyCache, PointIdempotencyCache::evictionCount)
+                .register(registry);
+        Gauge.builder("point.idempotency.size", pointIdempotencyCache, PointIdempotencyCache::size).register(registry);
+
+        Gauge.builder("point.history.pending", pointHistoryWriter, PointHistoryWriter::pendingCount).register(registry);
+        Gauge.builder("point.history.hot", pointHistoryTiering, PointHistoryTiering::hotCount).register(registry);
+        FunctionCounter.builder("point.history.tiered", pointHistoryTiering, PointHistoryTiering::movedCount)
+                .register(registry);
+
+        Gauge.builder("point.executor.active", pointRequestExecutor, PointRequestExecutor::activeCount).register(registry);
+        Gauge.builder("point.executor.queued", pointRequestExecutor, PointRequestExecutor::queuedCount).register(registry);
+        FunctionCounter.builder("point.executor.completed", pointRequestExecutor, PointRequestExecutor::completedCount)
+                .register(registry);
+        FunctionCounter.builder("point.executor.rejected", pointRequestExecutor, PointRequestExecutor::rejectedCount)
+                .register(registry);
+        FunctionCounter.builder("point.executor.queue.wait", pointRequestExecutor, executor -> executor.totalQueueWaitNanos() / 1e9)
+                .baseUnit("seconds").register(registry);
+
+        Gauge.builder("point.admission.limit", pointAdmissionController, PointAdmissionController::limit).register(registry);
+        Gauge.builder("point.admission.inflight", pointAdmissionController, PointAdmissionController::inflight).register(registry);
+        for (PointOverloadedException.Scope scope : PointOverloadedException.Scope.values()) {
+            FunctionCounter.builder("point.admission.rejected", pointAdmissionController, controller -> controller.rejectedCount(scope))
+                    .tag("scope", scope.name().toLowerCase()).register(registry);
+        }
+
+        Gauge.builder("point.events.subscribers", pointEventFeed, PointEventFeed::subscriberCount).register(registry);
+        FunctionCounter.builder("point.events.slow.dropped", pointEventFeed, PointEventFeed::slowDroppedCount)
+                .register(registry);
+
+        Gauge.builder("point.reconcile.mismatches", pointLedgerReconciler, PointLedgerReconciler::lastMismatchCount)
+                .register(registry);
+        Gauge.builder("point.reconcile.unsettled", pointLedgerReconciler, PointLedgerReconciler::lastUnsettledCount)
+                .register(registry);
+    }
+}
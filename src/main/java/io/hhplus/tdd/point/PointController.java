@@ -1,10 +1,25 @@
 package io.hhplus.tdd.point;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/point")
@@ -13,50 +28,174 @@ public class PointController {
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
 
     private final PointService pointService;
+    private final PointBatchProcessor pointBatchProcessor;
+    private final PointRequestExecutor pointRequestExecutor;
+    private final PointEventFeed pointEventFeed;
+    private final PointIdempotencyCache pointIdempotencyCache;
+    private final ObjectMapper objectMapper;
 
-    public PointController(PointService pointService) {
+    public PointController(PointService pointService, PointBatchProcessor pointBatchProcessor,
+                           PointRequestExecutor pointRequestExecutor, PointEventFeed pointEventFeed,
+                           PointIdempotencyCache pointIdempotencyCache, ObjectMapper objectMapper) {
         this.pointService = pointService;
+        this.pointBatchProcessor = pointBatchProcessor;
+        this.pointRequestExecutor = pointRequestExecutor;
+        this.pointEventFeed = pointEventFeed;
+        this.pointIdempotencyCache = pointIdempotencyCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * TODO - 특정 유저의 포인트를 조회하는 기능을 작성해주세요.
+     * at(ms) 을 주면 그 시점까지의 내역을 반영한 포인트를 조회한다.
      */
     @GetMapping("{id}")
-    public UserPoint point(
-            @PathVariable long id
+    public CompletableFuture<UserPoint> point(
+            @PathVariable long id,
+            @RequestParam(required = false) Long at
     ) {
-        return pointService.point(id);
+        return pointRequestExecutor.submit(() -> at == null ? pointService.point(id) : pointService.pointAt(id, at));
     }
 
     /**
      * TODO - 특정 유저의 포인트 충전/이용 내역을 조회하는 기능을 작성해주세요.
      */
     @GetMapping("{id}/histories")
-    public List<PointHistory> history(
+    public CompletableFuture<List<PointHistory>> history(
             @PathVariable long id
     ) {
-        return pointService.history(id);
+        return pointRequestExecutor.submit(() -> pointService.history(id));
+    }
+
+    /**
+     * 특정 유저의 누적 충전/이용 금액과 건수, 최근 시간별/일별 집계를 조회한다.
+     * 내역을 추가할 때 갱신한 집계를 읽으므로 내역 수와 관계없이 빠르다.
+     */
+    @GetMapping("{id}/summary")
+    public CompletableFuture<PointSummary> summary(
+            @PathVariable long id
+    ) {
+        return pointRequestExecutor.submit(() -> pointService.summary(id));
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 내역을 커서 기반으로 나눠서 조회한다.
+     * 다음 페이지는 응답의 nextCursor 를 cursor 로 넘겨서 조회한다.
+     */
+    @GetMapping("{id}/histories/page")
+    public CompletableFuture<PointHistoryPage> historyPage(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
+    ) {
+        PointHistoryQuery query = new PointHistoryQuery(cursor, type, from, to);
+        return pointRequestExecutor.submit(() -> pointService.historyPage(id, query, size));
+    }
+
+    /**
+     * 특정 유저의 포인트 충전/이용 내역을 한 줄에 한 건씩(NDJSON) 내보낸다.
+     * 목록을 만들지 않고 읽는 대로 쓰므로 내역이 많아도 요청당 메모리가 늘지 않는다.
+     */
+    @GetMapping(value = "{id}/histories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody historyStream(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to
+    ) {
+        PointHistoryQuery query = new PointHistoryQuery(cursor, type, from, to);
+        return outputStream -> pointService.streamHistory(id, query, pointHistory -> writeLine(outputStream, pointHistory, false));
+    }
+
+    /**
+     * 모든 유저의 새 포인트 충전/이용 내역을 추가되는 대로 Server-Sent Events 로 내보낸다.
+     * fromId 또는 Last-Event-ID 를 주면 그 다음 내역부터 이어서 받고, 이미 지나간 내역이면 fell-behind 이벤트로 끝난다.
+     */
+    @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestParam(required = false) Long fromId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        return pointEventFeed.subscribe(fromId != null ? fromId : lastEventId);
     }
 
     /**
      * TODO - 특정 유저의 포인트를 충전하는 기능을 작성해주세요.
+     * Idempotency-Key 를 주면 같은 키의 재시도는 다시 충전하지 않고 처음 결과를 돌려준다.
      */
     @PatchMapping("{id}/charge")
-    public UserPoint charge(
+    public CompletableFuture<UserPoint> charge(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        return pointService.charge(id, amount);
+        return pointRequestExecutor.submit(() -> pointIdempotencyCache.execute(id, TransactionType.CHARGE, amount,
+                idempotencyKey, () -> pointService.charge(id, amount)));
     }
 
     /**
      * TODO - 특정 유저의 포인트를 사용하는 기능을 작성해주세요.
+     * Idempotency-Key 를 주면 같은 키의 재시도는 다시 사용하지 않고 처음 결과를 돌려준다.
      */
     @PatchMapping("{id}/use")
-    public UserPoint use(
+    public CompletableFuture<UserPoint> use(
             @PathVariable long id,
-            @RequestBody long amount
+            @RequestBody long amount,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        return pointService.use(id, amount);
+        return pointRequestExecutor.submit(() -> pointIdempotencyCache.execute(id, TransactionType.USE, amount,
+                idempotencyKey, () -> pointService.use(id, amount)));
+    }
+
+    /**
+     * 여러 유저의 포인트 충전/사용을 한번에 처리한다.
+     * 결과는 처리가 끝나는 대로 한 줄에 한 건씩(NDJSON) 내보낸다.
+     * 요청 배열은 한 건씩 읽고, point.batch.max-size 건을 넘으면 나머지를 읽지 않고 413 으로 거절한다.
+     */
+    @PostMapping(value = "batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody batch(
+            HttpServletRequest request
+    ) throws IOException {
+        List<PointBatchRequest> requests = readBatch(new ServletServerHttpRequest(request));
+        return outputStream -> {
+            try {
+                pointBatchProcessor.process(requests, result -> writeLine(outputStream, result, true));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("포인트 일괄 처리 응답이 중단되었습니다.");
+            }
+        };
+    }
+
+    private List<PointBatchRequest> readBatch(HttpInputMessage inputMessage) throws IOException {
+        List<PointBatchRequest> requests = new ArrayList<>();
+        try (MappingIterator<PointBatchRequest> iterator = objectMapper.readerFor(PointBatchRequest.class)
+                .readValues(inputMessage.getBody())) {
+            while (iterator.hasNextValue()) {
+                if (requests.size() == pointBatchProcessor.maxSize()) {
+                    throw new PointBatchTooLargeException(pointBatchProcessor.maxSize());
+                }
+                requests.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("일괄 처리 요청을 읽을 수 없습니다.", e, inputMessage);
+        }
+        return requests;
+    }
+
+    private void writeLine(OutputStream outputStream, Object value, boolean flush) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+            if (flush) {
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,214 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 새 포인트 내역 변경 피드 (Server-Sent Events)
+ * - 구독자마다 링 버퍼(PointEventRing)에서 다음에 읽을 순번만 갖고, 스레드 하나가 poll-millis 마다 모든 구독자의 새 내역을 읽는다.
+ *   구독자가 늘어도 내역을 다시 훑지 않고, 구독자마다 버퍼를 따로 두지 않는다.
+ * - 읽은 내역은 전송 스레드에서 구독자마다 따로 보낸다. 구독자마다 한번에 한 묶음만 보내고, 보내는 중이면 다음 주기로 넘긴다.
+ *   전송 스레드는 보내는 중인 구독자 수만큼만 쓰고, 쉬는 스레드는 정리된다.
+ * - 한 묶음을 send-timeout-millis 넘게 보내지 못한 구독자는 끊는다. 느린 구독자 하나가 다른 구독자의 전송을 막지 않는다.
+ * - 이벤트 id 는 내역 id 이다. fromId (또는 재연결 시 Last-Event-ID) 를 주면 그 다음 내역부터 이어서 받는다.
+ *   내역 id 는 모든 파티션에서 한 순서로 매겨지므로(PointHistorySequence) 파티션을 나눠도 이어받을 수 있다.
+ * - 읽을 내역이 이미 덮어써졌으면 fell-behind 이벤트(마지막으로 받은 내역 id)를 보내고 구독을 끝낸다.
+ *   구독자는 /point/{id}/histories 로 빠진 내역을 채운 뒤 다시 구독한다.
+ */
+@Component
+public class PointEventFeed implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PointEventFeed.class);
+
+    private final PointEventRing pointEventRing;
+    private final int batchSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+    private final LongAdder slowDropped = new LongAdder();
+
+    /**
+     * @param batchSize         구독자마다 한번에 보내는 최대 건수
+     * @param timeoutMillis     구독 유지 시간, 지나면 연결을 끊고 구독자가 Last-Event-ID 로 다시 붙는다.
+     * @param sendTimeoutMillis 한 묶음을 이 시간 안에 보내지 못한 구독자는 끊는다.
+     */
+    public PointEventFeed(PointEventRing pointEventRing,
+                          @Value("${point.events.poll-millis:50}") long pollMillis,
+                          @Value("${point.events.batch-size:256}") int batchSize,
+                          @Value("${point.events.timeout-millis:1800000}") long timeoutMillis,
+                          @Value("${point.events.send-timeout-millis:5000}") long sendTimeoutMillis) {
+        if (batchSize <= 0 || sendTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("변경 피드 전송 단위와 전송 대기 시간은 0보다 커야 합니다.");
+        }
+        this.pointEventRing = pointEventRing;
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.scheduler = pointEventRing.capacity() == 0 ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-event-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender = scheduler == null ? null : newSender();
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::pushAll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * fromId 다음 내역부터 받는 구독을 만든다. fromId 가 없으면 지금부터 추가되는 내역만 받는다.
+     */
+    public SseEmitter subscribe(Long fromId) {
+        if (scheduler == null) {
+            throw new IllegalStateException("변경 피드가 꺼져 있습니다.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long sequence = fromId == null ? pointEventRing.head() : pointEventRing.sequenceAfter(fromId);
+        if (sequence == PointEventRing.FELL_BEHIND) {
+            fellBehind(emitter, fromId);
+            return emitter;
+        }
+        Subscription subscription = new Subscription(emitter, sequence, fromId == null ? 0 : fromId);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * 전송이 send-timeout-millis 를 넘겨 끊은 구독자 수
+     */
+    public long slowDroppedCount() {
+        return slowDropped.sum();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            sender.shutdownNow();
+        }
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+    }
+
+    /**
+     * 보내는 중이 아닌 구독자의 새 내역을 읽어 전송 스레드에 넘긴다. 너무 오래 보내는 중인 구독자는 끊는다.
+     */
+    private void pushAll() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.sendingSince;
+            if (sendingSince != 0) {
+                if (now - sendingSince > sendTimeoutNanos && subscriptions.remove(subscription)) {
+                    slowDropped.increment();
+                    log.warn("변경 피드 전송이 밀려 구독을 끊습니다. lastId={}", subscription.lastId);
+                    subscription.sending.cancel(true);
+                    // 끝내기는 막힌 전송이 풀릴 때까지 기다릴 수 있으므로 읽는 스레드에서 하지 않는다.
+                    sender.execute(() -> subscription.emitter.completeWithError(
+                            new TimeoutException("변경 피드 전송 대기 시간을 넘었습니다.")));
+                }
+                continue;
+            }
+            List<PointHistory> pointHistories = new ArrayList<>();
+            long next = pointEventRing.drain(subscription.sequence, batchSize, pointHistories::add);
+            if (next != PointEventRing.FELL_BEHIND && pointHistories.isEmpty()) {
+                continue;
+            }
+            subscription.sendingSince = now;
+            subscription.sending = sender.submit(() -> send(subscription, pointHistories, next));
+        }
+    }
+
+    private void send(Subscription subscription, List<PointHistory> pointHistories, long next) {
+        try {
+            if (next == PointEventRing.FELL_BEHIND) {
+                subscriptions.remove(subscription);
+                fellBehind(subscription.emitter, subscription.lastId);
+                return;
+            }
+            for (PointHistory pointHistory : pointHistories) {
+                if (!subscriptions.contains(subscription)) {
+                    // 전송이 밀려 끊긴 구독
+                    return;
+                }
+                subscription.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(pointHistory.id()))
+                        .name("history")
+                        .data(pointHistory, MediaType.APPLICATION_JSON));
+                subscription.lastId = pointHistory.id();
+            }
+            subscription.sequence = next;
+        } catch (IOException | IllegalStateException e) {
+            // 연결이 끊겼거나 이미 끝난 구독
+            subscriptions.remove(subscription);
+        } catch (RuntimeException e) {
+            log.warn("변경 피드 전송에 실패했습니다.", e);
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        } finally {
+            subscription.sendingSince = 0;
+        }
+    }
+
+    private static ExecutorService newSender() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "point-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void fellBehind(SseEmitter emitter, long lastId) {
+        try {
+            emitter.send(SseEmitter.event().name("fell-behind").data(lastId));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // sequence, lastId 는 보내는 동안 전송 스레드만 바꾸고, sendingSince 를 0 으로 돌려 읽는 스레드에 넘긴다.
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private long sequence;
+        private long lastId;
+        // 지금 보내는 묶음을 넘긴 시각(nanoTime), 보내는 중이 아니면 0
+        private volatile long sendingSince;
+        private volatile Future<?> sending;
+
+        private Subscription(SseEmitter emitter, long sequence, long lastId) {
+            this.emitter = emitter;
+            this.sequence = sequence;
+            this.lastId = lastId;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 새 포인트 내역의 고정 크기 링 버퍼 (change feed)
+ * - 내역마다 0 부터 빠짐없이 늘어나는 순번(sequence)을 받아 (순번 % 크기) 칸에 덮어쓴다. 락 없이 여러 스레드가 쓸 수 있다.
+ *   1. 순번은 부르는 쪽이 매긴다. (PointHistorySequence, 내역 id 에서 계산) 지금까지 받은 가장 큰 순번을 기록한다.
+ *   2. 칸에 한 바퀴 앞선 순번이 다 쓰일 때까지 기다렸다가 칸의 순번을 '쓰는 중'으로 바꾼다. (compare-and-set)
+ *      늦게 쓰는 이전 바퀴의 순번이 새 순번을 덮어써서, 새 순번을 기다리는 구독자가 멈추는 일이 없다.
+ *   3. 내역을 넣은 뒤 칸의 순번을 받은 순번으로 바꾼다.
+ *   순번 순서와 다르게 쓰여도 읽는 쪽은 아직 쓰이지 않은 순번에서 멈추므로 순번 순서대로 받는다.
+ * - 읽는 쪽은 구독자마다 다음에 읽을 순번을 따로 갖고, 칸의 순번이 읽기 전후로 같을 때만 그 내역을 믿는다.
+ *   칸의 순번이 더 크면 이미 덮어써진 것(뒤처짐)이고, 작으면 아직 쓰이지 않은 것이다.
+ * - 쓰는 쪽은 읽는 쪽을 기다리지 않는다. 느린 구독자는 메모리를 붙잡지 않고 뒤처졌다는 결과를 받는다.
+ * - 순번은 내역 id 에서 계산하므로, 파티션 수와 관계없이 순번 순서와 내역 id 순서가 같다.
+ * - 크기가 0 이면 아무것도 보관하지 않는다. (disabled)
+ */
+@Component
+public class PointEventRing {
+
+    private static final int SPIN_ATTEMPTS = 64;
+    // 칸에 내역을 넣는 중
+    private static final long WRITING = -2;
+    // 한번도 쓰이지 않은 칸
+    private static final long EMPTY = -1;
+    // read 결과, 읽으려던 칸이 이미 덮어써졌다.
+    private static final PointHistory OVERWRITTEN = new PointHistory(-1, -1, 0, TransactionType.CHARGE, 0);
+
+    /**
+     * 다음에 읽을 순번의 칸이 이미 덮어써졌다.
+     */
+    public static final long FELL_BEHIND = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<PointHistory> entries;
+    private final AtomicLongArray sequences;
+    // 지금까지 받은 가장 큰 순번 + 1
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * @param capacity 보관할 최근 내역 수, 2 의 거듭제곱으로 올린다. 0 이면 보관하지 않는다.
+     */
+    public PointEventRing(@Value("${point.events.capacity:65536}") int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("이벤트 버퍼 크기는 0 이상이어야 합니다.");
+        }
+        this.capacity = capacity == 0 ? 0 : ceilingPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.entries = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, EMPTY);
+        }
+    }
+
+    public static PointEventRing disabled() {
+        return new PointEventRing(0);
+    }
+
+    /**
+     * sequence 칸에 내역을 넣는다. 순번은 0 부터 빠짐없이 한번씩만 넘겨야 한다.
+     */
+    public void publish(long sequence, PointHistory pointHistory) {
+        if (capacity == 0) {
+            return;
+        }
+        long current = claimed.get();
+        while (current <= sequence && !claimed.compareAndSet(current, sequence + 1)) {
+            current = claimed.get();
+        }
+        int slot = (int) (sequence & mask);
+        long previous = sequence < capacity ? EMPTY : sequence - capacity;
+        for (int attempt = 0; !sequences.compareAndSet(slot, previous, WRITING); attempt++) {
+            // 앞선 순번을 받은 스레드가 CPU 를 받을 수 있도록 잠깐 돌다가 양보한다.
+            if (attempt < SPIN_ATTEMPTS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        entries.set(slot, pointHistory);
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * 지금까지 받은 가장 큰 순번의 다음 순번, 지금부터의 내역만 받으려면 여기서부터 읽는다.
+     * (이보다 앞선 순번 중 아직 쓰이지 않은 것은 지금 추가되는 중인 내역이다)
+     */
+    public long head() {
+        return claimed.get();
+    }
+
+    /**
+     * sequence 부터 쓰기가 끝난 내역을 최대 max 건 순서대로 consumer 에 넘기고 다음에 읽을 순번을 돌려준다.
+     * 아직 쓰는 중인 칸을 만나면 거기서 멈춘다. 읽을 칸이 이미 덮어써졌으면 FELL_BEHIND
+     */
+    public long drain(long sequence, int max, Consumer<PointHistory> consumer) {
+        if (capacity == 0) {
+            return sequence;
+        }
+        long next = sequence;
+        for (int read = 0; read < max; read++) {
+            PointHistory pointHistory = read(next);
+            if (pointHistory == null) {
+                break;
+            }
+            if (pointHistory == OVERWRITTEN) {
+                return FELL_BEHIND;
+            }
+            consumer.accept(pointHistory);
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * 내역 id 가 afterId 보다 큰 첫 내역의 순번 (링에 남은 내역을 이분 탐색한다)
+     * - 남은 내역이 모두 afterId 이하이면 head()
+     * - 남은 가장 오래된 내역이 afterId 바로 다음 id 보다 크면, 그 사이 내역이 이미 덮어써졌거나 재시작 전에 추가된 것이므로 FELL_BEHIND
+     *   (재시작 후 아직 새 내역이 없으면 알 수 없으므로 head() 부터 읽는다)
+     * 내역 id 가 빠짐없이 순번 순서대로 매겨진다고 본다. (PointHistorySequence)
+     */
+    public long sequenceAfter(long afterId) {
+        while (true) {
+            long head = claimed.get();
+            long low = Math.max(0, head - capacity);
+            PointHistory oldest = low < head ? read(low) : null;
+            if (oldest == OVERWRITTEN) {
+                // 찾는 사이에 가장 오래된 칸이 덮어써졌다. 남은 범위를 다시 잡는다.
+                continue;
+            }
+            if (oldest != null && oldest.id() > afterId + 1) {
+                return FELL_BEHIND;
+            }
+            return sequenceAfterFrom(afterId, low, head);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private long sequenceAfterFrom(long afterId, long low, long high) {
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            PointHistory pointHistory = read(middle);
+            if (pointHistory == OVERWRITTEN) {
+                low = middle + 1;
+            } else if (pointHistory == null || pointHistory.id() > afterId) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    // 쓰기가 끝난 내역, 아직이면 null, 이미 덮어써졌으면 OVERWRITTEN
+    private PointHistory read(long sequence) {
+        int slot = (int) (sequence & mask);
+        long before = sequences.get(slot);
+        if (before != sequence) {
+            return before > sequence || claimed.get() - sequence > capacity ? OVERWRITTEN : null;
+        }
+        PointHistory pointHistory = entries.get(slot);
+        return sequences.get(slot) == sequence ? pointHistory : OVERWRITTEN;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int power = Integer.highestOneBit(value);
+        return power == value ? value : power << 1;
+    }
+}
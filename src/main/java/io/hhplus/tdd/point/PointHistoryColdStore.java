@@ -0,0 +1,531 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 오래된 포인트 내역을 보관하는 압축 세그먼트 파일 (cold tier)
+ * - 옮길 때마다 세그먼트 파일을 하나 쓴다. 파일 안의 내역은 (유저 ID, 내역 id) 순서로 정렬되어 있다.
+ * - block-records 건씩 블록으로 묶어 앞 내역과의 차이를 가변 길이로 적고 블록마다 deflate 로 압축한다.
+ *   [count 4][firstUserId 8][lastUserId 8][rawLength 4][compressedLength 4][압축한 내역]
+ * - 블록마다 첫/마지막 유저 ID 와 파일 위치만 메모리에 둔다. (sparse index)
+ *   한 유저의 내역은 세그먼트마다 그 유저가 들어있는 블록만 읽는다.
+ * - 세그먼트는 옮긴 순서대로 쌓이므로, 한 유저의 내역은 세그먼트 순서대로 읽으면 id 순서가 된다.
+ * - 세그먼트가 max-segments 개를 넘으면 가장 최근 세그먼트부터, 합친 크기가 바로 앞 세그먼트 이상이 될 때까지 하나로 합친다.
+ *   세그먼트 크기가 오래된 것부터 줄어드는 순서로 유지되어 내역 하나를 다시 쓰는 횟수는 로그 수준이고,
+ *   한 유저 조회가 읽는 세그먼트 수와 열어두는 파일 수는 max-segments 이하다.
+ * - 합친 세그먼트로 바꾸는 동안에는 조회를 잠깐 막고, 바꾼 뒤 이전 세그먼트를 닫고 지운다.
+ * - 메모리의 색인(PointHistoryIndex)을 줄이기 위한 것으로 원본은 선행 기록 로그와 테이블에 있다.
+ *   시작 시 디렉토리의 세그먼트를 지우고, 복구한 내역은 다음 옮기기에서 다시 쓴다.
+ * - 비활성화(point.history.tier.enabled=false)하면 아무것도 옮기지 않는다.
+ */
+@Component
+public class PointHistoryColdStore implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "cold-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int BLOCK_HEADER_BYTES = 28;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryColdStore.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int blockRecords;
+    private final int maxSegments;
+    // 조회는 읽기 잠금, 세그먼트를 닫고 지우는 것은 쓰기 잠금
+    private final ReadWriteLock readLock = new ReentrantReadWriteLock();
+    private volatile List<Segment> segments = List.of();
+    private long nextSegment;
+
+    @Autowired
+    public PointHistoryColdStore(@Value("${point.history.tier.enabled:false}") boolean enabled,
+                                 @Value("${point.history.tier.directory:data/history-cold}") String directory,
+                                 @Value("${point.history.tier.block-records:4096}") int blockRecords,
+                                 @Value("${point.history.tier.max-segments:8}") int maxSegments) {
+        this(enabled, Path.of(directory), blockRecords, maxSegments);
+    }
+
+    /**
+     * 세그먼트를 최대 8 개 둔다. (테스트, 벤치마크)
+     */
+    public PointHistoryColdStore(boolean enabled, String directory, int blockRecords) {
+        this(enabled, directory, blockRecords, 8);
+    }
+
+    private PointHistoryColdStore(boolean enabled, Path directory, int blockRecords, int maxSegments) {
+        if (blockRecords <= 0 || maxSegments <= 1) {
+            throw new IllegalArgumentException("블록 내역 수는 0보다 크고, 최대 세그먼트 수는 1보다 커야 합니다.");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.blockRecords = blockRecords;
+        this.maxSegments = maxSegments;
+        if (enabled) {
+            clear();
+        }
+    }
+
+    public static PointHistoryColdStore disabled() {
+        return new PointHistoryColdStore(false, Path.of("."), 1, 2);
+    }
+
+    /**
+     * 같은 설정으로 파티션 전용 하위 디렉토리를 쓰는 저장소를 만든다.
+     */
+    public PointHistoryColdStore forPartition(int index) {
+        return enabled ? new PointHistoryColdStore(true, directory.resolve("partition-" + index), blockRecords, maxSegments)
+                : disabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 새 세그먼트를 쓴다. 내역은 (유저 ID, 내역 id) 순서로 넣어야 하고, publish 전에는 읽히지 않는다.
+     * 공개하면서 세그먼트가 max-segments 개를 넘으면 최근 세그먼트를 합친다.
+     */
+    public SegmentWriter newSegment() throws IOException {
+        if (!enabled) {
+            throw new IllegalStateException("내역 보관 계층이 꺼져 있습니다.");
+        }
+        return new SegmentWriter(nextSegmentPath(), List.of());
+    }
+
+    /**
+     * 유저의 내역 중 afterId < id < beforeId 인 내역을 id 순서대로 visitor 에 넘긴다.
+     * visitor 가 false 를 돌려주면 멈추고 false 를 반환한다.
+     */
+    public boolean forEach(long userId, long afterId, long beforeId, Predicate<PointHistory> visitor) {
+        readLock.readLock().lock();
+        try {
+            for (Segment segment : segments) {
+                if (!segment.forEach(userId, afterId, beforeId, visitor)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            readLock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long diskBytes() {
+        return segments.stream().mapToLong(segment -> segment.bytes).sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        readLock.writeLock().lock();
+        try {
+            segments.forEach(Segment::close);
+            segments = List.of();
+        } finally {
+            readLock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : files.filter(Files::isRegularFile).toList()) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path nextSegmentPath() {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+    }
+
+    // 새 세그먼트를 공개한다. 합친 세그먼트면 합친 세그먼트들 자리에 넣는다.
+    private synchronized void publish(Segment segment, List<Segment> replaced) {
+        List<Segment> next = new ArrayList<>(segments);
+        if (replaced.isEmpty()) {
+            next.add(segment);
+            segments = List.copyOf(next);
+            return;
+        }
+        int from = next.indexOf(replaced.get(0));
+        if (from < 0) {
+            // 합치는 사이 닫혔다.
+            segment.close();
+            return;
+        }
+        next.subList(from, from + replaced.size()).clear();
+        next.add(from, segment);
+        readLock.writeLock().lock();
+        try {
+            segments = List.copyOf(next);
+        } finally {
+            readLock.writeLock().unlock();
+        }
+        for (Segment old : replaced) {
+            old.close();
+            try {
+                Files.deleteIfExists(old.path);
+            } catch (IOException e) {
+                log.warn("합친 내역 세그먼트를 지우지 못했습니다. segment={}", old.path, e);
+            }
+        }
+    }
+
+    // 세그먼트가 max-segments 개를 넘으면, 최근 세그먼트부터 합친 크기가 바로 앞 세그먼트 이상이 될 때까지 하나로 합친다.
+    private void compact() throws IOException {
+        List<Segment> current = segments;
+        if (current.size() <= maxSegments) {
+            return;
+        }
+        int from = current.size() - 2;
+        long newer = current.get(from).bytes + current.get(from + 1).bytes;
+        while (from > 0 && current.get(from - 1).bytes <= newer) {
+            from--;
+            newer += current.get(from).bytes;
+        }
+        List<Segment> merging = current.subList(from, current.size());
+        long start = System.nanoTime();
+        try (SegmentWriter writer = new SegmentWriter(nextSegmentPath(), List.copyOf(merging))) {
+            // 한 유저의 내역은 세그먼트 순서대로 id 가 커지므로 (유저 ID, 내역 id) 순서로 합치면 된다.
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator
+                    .comparingLong((Cursor cursor) -> cursor.current.userId())
+                    .thenComparingLong(cursor -> cursor.current.id()));
+            for (Segment segment : merging) {
+                Cursor cursor = new Cursor(segment);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            Cursor cursor;
+            while ((cursor = cursors.poll()) != null) {
+                writer.append(cursor.current);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            writer.publish();
+        }
+        log.info("내역 세그먼트를 합쳤습니다. merged={}, segments={}, elapsed={}ms",
+                merging.size(), segments.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 세그먼트 하나를 쓴다. 임시 파일에 쓰고 디스크에 반영한 뒤 이름을 바꿔 공개한다.
+     */
+    public final class SegmentWriter implements AutoCloseable {
+        private final Path path;
+        // 합치는 중이면 이 세그먼트로 바꿀 세그먼트들
+        private final List<Segment> replaces;
+        private final Path temp;
+        private final FileChannel channel;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final Encoder block = new Encoder();
+        private final List<long[]> entries = new ArrayList<>();
+        private long position;
+        private int count;
+        private long firstUserId;
+        private long lastUserId;
+        private boolean published;
+
+        private SegmentWriter(Path path, List<Segment> replaces) throws IOException {
+            this.path = path;
+            this.replaces = replaces;
+            this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+
+        public void append(PointHistory pointHistory) throws IOException {
+            if (count == 0) {
+                firstUserId = pointHistory.userId();
+            }
+            lastUserId = pointHistory.userId();
+            block.encode(pointHistory);
+            if (++count == blockRecords) {
+                flushBlock();
+            }
+        }
+
+        public void publish() throws IOException {
+            if (count > 0) {
+                flushBlock();
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            published = true;
+            PointHistoryColdStore.this.publish(new Segment(path, FileChannel.open(path, StandardOpenOption.READ),
+                    entries.toArray(long[][]::new), position), replaces);
+            if (replaces.isEmpty()) {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    // 새 세그먼트는 이미 공개됐으므로 합치지 못해도 옮기기는 성공이다. 다음 공개 때 다시 합친다.
+                    log.warn("내역 세그먼트를 합치지 못했습니다. segments={}", segments.size(), e);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!published) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(block.bytes, 0, block.length);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, block.length + block.length / 8 + 64)];
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_BYTES + compressedLength);
+            buffer.putInt(count).putLong(firstUserId).putLong(lastUserId).putInt(block.length).putInt(compressedLength);
+            buffer.put(compressed, 0, compressedLength).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            entries.add(new long[]{firstUserId, lastUserId, position});
+            position += BLOCK_HEADER_BYTES + compressedLength;
+            block.reset();
+            count = 0;
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        // 블록마다 [firstUserId, lastUserId, 파일 위치], 유저 ID 순서
+        private final long[][] entries;
+        private final long bytes;
+
+        private Segment(Path path, FileChannel channel, long[][] entries, long bytes) {
+            this.path = path;
+            this.channel = channel;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        private boolean forEach(long userId, long afterId, long beforeId, Predicate<PointHistory> visitor) {
+            // 마지막 유저 ID 가 userId 이상인 첫 블록
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries[mid][1] < userId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int b = low; b < entries.length && entries[b][0] <= userId; b++) {
+                Decoder decoder = read(entries[b][2]);
+                while (decoder.hasNext()) {
+                    PointHistory pointHistory = decoder.next();
+                    if (pointHistory.userId() > userId) {
+                        return true;
+                    }
+                    if (pointHistory.userId() == userId && pointHistory.id() > afterId && pointHistory.id() < beforeId
+                            && !visitor.test(pointHistory)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("내역 세그먼트를 닫지 못했습니다. segment={}", path, e);
+            }
+        }
+
+        private Decoder read(long position) {
+            try {
+                ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+                readFully(header, position);
+                header.flip();
+                int count = header.getInt();
+                header.getLong();
+                header.getLong();
+                int rawLength = header.getInt();
+                int compressedLength = header.getInt();
+                ByteBuffer compressed = ByteBuffer.allocate(compressedLength);
+                readFully(compressed, position + BLOCK_HEADER_BYTES);
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(compressed.array(), 0, compressedLength);
+                    byte[] raw = new byte[rawLength];
+                    int inflated = 0;
+                    while (inflated < rawLength && !inflater.finished()) {
+                        inflated += inflater.inflate(raw, inflated, rawLength - inflated);
+                    }
+                    return new Decoder(raw, count);
+                } finally {
+                    inflater.end();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("손상된 내역 세그먼트입니다. segment=" + path, e);
+            }
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("내역 세그먼트가 잘렸습니다. segment=" + path);
+                }
+            }
+        }
+    }
+
+    // 세그먼트의 내역을 처음부터 차례로 읽는다. (합치기)
+    private static final class Cursor {
+        private final Segment segment;
+        private int block;
+        private Decoder decoder;
+        private PointHistory current;
+
+        private Cursor(Segment segment) {
+            this.segment = segment;
+        }
+
+        private boolean advance() {
+            while (decoder == null || !decoder.hasNext()) {
+                if (block == segment.entries.length) {
+                    current = null;
+                    return false;
+                }
+                decoder = segment.read(segment.entries[block++][2]);
+            }
+            current = decoder.next();
+            return true;
+        }
+    }
+
+    /**
+     * 블록 안의 내역을 앞 내역과의 차이로 적는다. 음수가 될 수 있는 값은 zigzag 로 바꾼다.
+     * [userId 차이][id 차이][갱신 시각 차이][금액][종류 1]
+     */
+    private static final class Encoder {
+        private byte[] bytes = new byte[1 << 16];
+        private int length;
+        private long userId;
+        private long id;
+        private long millis;
+
+        private void encode(PointHistory pointHistory) {
+            if (bytes.length - length < 64) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            putZigzag(pointHistory.userId() - userId);
+            putZigzag(pointHistory.id() - id);
+            putZigzag(pointHistory.updateMillis() - millis);
+            putZigzag(pointHistory.amount());
+            bytes[length++] = (byte) pointHistory.type().ordinal();
+            userId = pointHistory.userId();
+            id = pointHistory.id();
+            millis = pointHistory.updateMillis();
+        }
+
+        private void putZigzag(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[length++] = (byte) zigzag;
+        }
+
+        private void reset() {
+            length = 0;
+            userId = 0;
+            id = 0;
+            millis = 0;
+        }
+    }
+
+    private static final class Decoder {
+        private final byte[] bytes;
+        private final int count;
+        private int position;
+        private int read;
+        private long userId;
+        private long id;
+        private long millis;
+
+        private Decoder(byte[] bytes, int count) {
+            this.bytes = bytes;
+            this.count = count;
+        }
+
+        private boolean hasNext() {
+            return read < count;
+        }
+
+        private PointHistory next() {
+            userId += getZigzag();
+            id += getZigzag();
+            millis += getZigzag();
+            long amount = getZigzag();
+            TransactionType type = TYPES[bytes[position++]];
+            read++;
+            return new PointHistory(id, userId, amount, type, millis);
+        }
+
+        private long getZigzag() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package io.hhplus.tdd.point;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 유저별 포인트 내역 색인
+ * - 유저마다 내역을 id 순서대로 청크에 이어 붙인다. (append-only)
+ * - 청크는 컬럼별 primitive 배열로 저장한다. (columnar)
+ *   - id, 갱신 시각 : 청크의 첫 값과의 차이(int)
+ *   - 금액 : int, int 를 넘는 금액이 있는 청크만 long 배열을 따로 둔다.
+ *   - 종류 : byte
+ *   - 유저 ID : 색인의 키이므로 저장하지 않는다.
+ *   한 건에 13 바이트 정도로, PointHistory 객체와 참조를 보관하는 것보다 3 배 이상 작다.
+ * - PointHistory 는 조회할 때 필요한 만큼만 만든다.
+ * - 조회 비용은 전체 내역 수가 아니라 해당 유저의 내역 수에 비례한다.
+ * - 추가는 유저 단위로 직렬화되고, 조회는 락 없이 이미 추가된 내역까지만 읽는다.
+ * - 시점 잔액 조회를 위해 청크마다 시작 직전의 누적 잔액(충전은 더하고 사용은 뺀 합)과 최대 갱신 시각을 둔다.
+ *   청크는 이분 탐색하고 청크 안에서는 최대 64 건을 더하므로 내역마다 잔액을 따로 저장하지 않고도 O(log n) 이다.
+ * - tierOut 은 모든 내역이 기준 시각보다 오래된 앞쪽 청크를 압축 세그먼트(PointHistoryColdStore)로 옮기고 메모리에서 뺀다.
+ *   청크는 유저의 전체 내역 중 위치(start)를 그대로 가지므로, 앞쪽이 빠져도 남은 청크의 누적 잔액은 그대로 쓴다.
+ *   1. 유저 락을 잡고 옮길 청크를 evicting 으로 떼어낸다.
+ *   2. 떼어낸 청크를 세그먼트에 쓰고 공개한다.
+ *   3. 옮긴 건수를 더하고 evicting 을 비운다.
+ *   조회는 메모리 청크, evicting, 세그먼트 순서로 읽고, 뒤에 읽은 쪽은 앞쪽의 첫 id 보다 작은 내역만 쓴다.
+ *   어느 단계 사이에 읽어도 빠지거나 겹치는 내역이 없다.
+ * - 최근 내역(커서가 옮긴 내역 뒤에 있는 페이지, 시각이 남은 청크 안의 시점 잔액)은 세그먼트를 읽지 않는다.
+ */
+public class PointHistoryIndex {
+
+    private static final int FIRST_CHUNK_SIZE = 4;
+    private static final int CHUNK_SIZE = 64;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final ConcurrentHashMap<Long, UserHistories> users = new ConcurrentHashMap<>();
+    private final PointHistoryColdStore coldStore;
+
+    public PointHistoryIndex() {
+        this(PointHistoryColdStore.disabled());
+    }
+
+    public PointHistoryIndex(PointHistoryColdStore coldStore) {
+        this.coldStore = coldStore;
+    }
+
+    public void append(PointHistory pointHistory) {
+        users.computeIfAbsent(pointHistory.userId(), userId -> new UserHistories(userId, coldStore)).append(pointHistory);
+    }
+
+    /**
+     * 모든 내역이 cutoffMillis 보다 오래된 청크를 세그먼트 하나로 옮기고 옮긴 내역 수를 반환한다.
+     * 옮기기는 한번에 하나씩 실행된다. 쓰기에 실패하면 떼어낸 청크를 되돌린다.
+     */
+    public synchronized long tierOut(long cutoffMillis) {
+        if (!coldStore.isEnabled()) {
+            return 0;
+        }
+        List<UserHistories> moving = new ArrayList<>();
+        for (UserHistories histories : users.values()) {
+            if (histories.startEvicting(cutoffMillis)) {
+                moving.add(histories);
+            }
+        }
+        if (moving.isEmpty()) {
+            return 0;
+        }
+        moving.sort(Comparator.comparingLong(histories -> histories.userId));
+        long moved = 0;
+        try (PointHistoryColdStore.SegmentWriter writer = coldStore.newSegment()) {
+            for (UserHistories histories : moving) {
+                for (Chunk chunk : histories.evicting) {
+                    for (int i = 0; i < chunk.count; i++) {
+                        writer.append(chunk.get(histories.userId, i));
+                    }
+                }
+            }
+            writer.publish();
+        } catch (IOException | RuntimeException e) {
+            moving.forEach(UserHistories::abortEvicting);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+        for (UserHistories histories : moving) {
+            moved += histories.finishEvicting();
+        }
+        return moved;
+    }
+
+    /**
+     * 호출 시점까지 추가된 내역의 목록, 항목은 읽을 때 만든다.
+     */
+    public List<PointHistory> findAllByUserId(long userId) {
+        UserHistories histories = users.get(userId);
+        return histories == null ? List.of() : histories.view();
+    }
+
+    /**
+     * afterId 보다 큰 id 의 내역을 id 순서대로 visitor 에 넘긴다. visitor 가 false 를 돌려주면 멈춘다.
+     * 목록을 만들지 않고 청크를 바로 읽으므로 내역 수와 관계없이 추가 메모리를 쓰지 않는다.
+     */
+    public void forEach(long userId, long afterId, Predicate<PointHistory> visitor) {
+        UserHistories histories = users.get(userId);
+        if (histories != null) {
+            histories.forEach(afterId, visitor);
+        }
+    }
+
+    /**
+     * atMillis 까지의 내역을 반영한 잔액, 내역이 없는 유저는 null
+     * - 갱신 시각이 거꾸로 간 내역은 앞선 내역 중 가장 늦은 시각에 있었던 것으로 본다.
+     * - updateMillis 는 마지막으로 반영된 내역의 시각, atMillis 이전 내역이 없으면 0 이다.
+     */
+    public UserPoint balanceAt(long userId, long atMillis) {
+        UserHistories histories = users.get(userId);
+        return histories == null ? null : histories.balanceAt(atMillis);
+    }
+
+    /**
+     * 가장 오래 남은 내역 이전의 잔액을 정한다. (로그에서 떼어낸 내역이 있는 경우 복구 시 사용)
+     */
+    public void setBaseBalance(long userId, long baseBalance) {
+        UserHistories histories = users.get(userId);
+        if (histories != null) {
+            histories.baseBalance = baseBalance;
+        }
+    }
+
+    /**
+     * untilId 이하 id 의 내역을 하나씩 다시 더한 잔액(로그에서 떼어낸 이전 잔액 포함)과 건수, 내역이 없는 유저는 null
+     * 청크에 미리 계산해둔 누적 잔액을 쓰지 않으므로 대사(reconciliation)에 쓸 수 있다.
+     */
+    public LedgerSum sumUntil(long userId, long untilId) {
+        UserHistories histories = users.get(userId);
+        return histories == null ? null : histories.sumUntil(untilId);
+    }
+
+    public int countByUserId(long userId) {
+        UserHistories histories = users.get(userId);
+        return histories == null ? 0 : histories.size;
+    }
+
+    /**
+     * 세그먼트로 옮기지 않고 메모리에 남은 내역 수
+     */
+    public long hotCount() {
+        long count = 0;
+        for (UserHistories histories : users.values()) {
+            count += histories.size - histories.coldCount;
+        }
+        return count;
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    /**
+     * 내역이 있는 유저 ID, 순회 중에 추가된 유저는 보일 수도 있고 안 보일 수도 있다.
+     */
+    public Set<Long> userIds() {
+        return Collections.unmodifiableSet(users.keySet());
+    }
+
+    private static final class UserHistories {
+        private final long userId;
+        private final PointHistoryColdStore coldStore;
+        private volatile Chunk[] chunks = new Chunk[0];
+        // 세그먼트로 옮기는 중인 청크, 옮기는 중이 아니면 null
+        private volatile Chunk[] evicting;
+        // 세그먼트로 옮긴 내역 수
+        private volatile int coldCount;
+        // size 를 마지막에 volatile 로 기록해서, 읽는 쪽은 size 이전의 내역을 항상 온전히 본다.
+        private volatile int size;
+        private volatile long baseBalance;
+        // 추가하는 쪽만 읽고 쓴다. 마지막 내역까지의 누적 잔액과 최대 갱신 시각
+        private long balance;
+        private long maxMillis = Long.MIN_VALUE;
+
+        private UserHistories(long userId, PointHistoryColdStore coldStore) {
+            this.userId = userId;
+            this.coldStore = coldStore;
+        }
+
+        private synchronized void append(PointHistory pointHistory) {
+            Chunk[] current = chunks;
+            Chunk last = current.length == 0 ? null : current[current.length - 1];
+            if (last == null || !last.fits(pointHistory)) {
+                // 새 청크를 시작한다. 청크는 작게 시작해서 두 배씩 키우므로 마지막 청크의 빈 칸이 절반을 넘지 않는다.
+                current = Arrays.copyOf(current, current.length + 1);
+                last = new Chunk(pointHistory.id(), pointHistory.updateMillis(), FIRST_CHUNK_SIZE, size, balance, maxMillis);
+                current[current.length - 1] = last;
+                chunks = current;
+            } else if (last.isFull()) {
+                // 다 찬 청크는 두 배로 옮겨서 키운다. 읽는 쪽은 옮기기 전의 청크를 계속 볼 수 있다.
+                current = current.clone();
+                last = last.grow();
+                current[current.length - 1] = last;
+                chunks = current;
+            }
+            last.add(pointHistory);
+            balance += signedAmount(pointHistory.type(), pointHistory.amount());
+            maxMillis = Math.max(maxMillis, pointHistory.updateMillis());
+            size++;
+        }
+
+        private UserPoint balanceAt(long atMillis) {
+            int count = size;
+            Chunk[] current = chunks;
+            // 보이는 내역이 있는 청크 중 첫 내역(까지의 최대 시각)이 atMillis 이하인 마지막 청크
+            int low = 0;
+            int high = current.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Chunk chunk = current[mid];
+                if (chunk.start < count && Math.max(chunk.startMaxMillis, chunk.baseMillis) <= atMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == 0) {
+                // 남은 청크보다 앞선 시점은 옮긴 내역부터 다시 더한다.
+                return coldCount > 0 || evicting != null ? balanceAtAllTiers(atMillis) : new UserPoint(userId, baseBalance, 0);
+            }
+            Chunk chunk = current[low - 1];
+            long point = chunk.startBalance;
+            long maxSeen = chunk.startMaxMillis;
+            long updateMillis = 0;
+            int rows = Math.min(chunk.count, count - chunk.start);
+            for (int i = 0; i < rows; i++) {
+                long millis = chunk.millis(i);
+                maxSeen = Math.max(maxSeen, millis);
+                if (maxSeen > atMillis) {
+                    break;
+                }
+                point += signedAmount(TYPES[chunk.types[i]], chunk.amount(i));
+                updateMillis = millis;
+            }
+            return new UserPoint(userId, baseBalance + point, updateMillis);
+        }
+
+        private UserPoint balanceAtAllTiers(long atMillis) {
+            long[] state = {baseBalance, Long.MIN_VALUE, 0};
+            forEach(0, pointHistory -> {
+                state[1] = Math.max(state[1], pointHistory.updateMillis());
+                if (state[1] > atMillis) {
+                    return false;
+                }
+                state[0] += signedAmount(pointHistory.type(), pointHistory.amount());
+                state[2] = pointHistory.updateMillis();
+                return true;
+            });
+            return new UserPoint(userId, state[0], state[2]);
+        }
+
+        private LedgerSum sumUntil(long untilId) {
+            int count = size;
+            Chunk[] current = chunks;
+            long[] point = {baseBalance};
+            int[] rows = {0};
+            boolean changedAfter = !forEachOlder(0, firstId(current, count), pointHistory -> {
+                if (pointHistory.id() > untilId) {
+                    return false;
+                }
+                point[0] += signedAmount(pointHistory.type(), pointHistory.amount());
+                rows[0]++;
+                return true;
+            });
+            for (int c = 0; c < current.length && !changedAfter; c++) {
+                Chunk chunk = current[c];
+                int visible = Math.min(chunk.count, count - chunk.start);
+                for (int i = 0; i < visible; i++) {
+                    if (chunk.id(i) > untilId) {
+                        changedAfter = true;
+                        break;
+                    }
+                    point[0] += signedAmount(TYPES[chunk.types[i]], chunk.amount(i));
+                    rows[0]++;
+                }
+            }
+            return new LedgerSum(point[0], rows[0], changedAfter);
+        }
+
+        private List<PointHistory> view() {
+            int count = size;
+            Chunk[] current = chunks;
+            if (coldCount > 0 || evicting != null) {
+                List<PointHistory> all = new ArrayList<>(count);
+                forEach(0, all::add);
+                return Collections.unmodifiableList(all);
+            }
+            int offset = current.length == 0 ? count : current[0].start;
+            int[] starts = new int[current.length];
+            for (int c = 0; c < current.length; c++) {
+                starts[c] = current[c].start - offset;
+            }
+            return new HistoryView(userId, current, starts, count - offset);
+        }
+
+        private void forEach(long afterId, Predicate<PointHistory> visitor) {
+            int count = size;
+            Chunk[] current = chunks;
+            if (!forEachOlder(afterId, firstId(current, count), visitor)) {
+                return;
+            }
+            for (int c = firstChunkAfter(current, afterId); c < current.length; c++) {
+                Chunk chunk = current[c];
+                int visible = Math.min(chunk.count, count - chunk.start);
+                for (int i = chunk.firstIndexAfter(afterId, visible); i < visible; i++) {
+                    if (!visitor.test(chunk.get(userId, i))) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        // 메모리 청크 앞의 내역(evicting, 세그먼트) 중 afterId < id < beforeId 인 내역, visitor 가 멈추면 false
+        private boolean forEachOlder(long afterId, long beforeId, Predicate<PointHistory> visitor) {
+            Chunk[] moving = evicting;
+            int cold = coldCount;
+            long movingFirstId = moving == null || moving.length == 0 ? beforeId : Math.min(beforeId, moving[0].baseId);
+            if (cold > 0 && afterId + 1 < movingFirstId && !coldStore.forEach(userId, afterId, movingFirstId, visitor)) {
+                return false;
+            }
+            if (moving != null) {
+                for (Chunk chunk : moving) {
+                    for (int i = chunk.firstIndexAfter(afterId, chunk.count); i < chunk.count; i++) {
+                        PointHistory pointHistory = chunk.get(userId, i);
+                        if (pointHistory.id() >= beforeId) {
+                            return true;
+                        }
+                        if (!visitor.test(pointHistory)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        // 보이는 메모리 청크의 첫 id, 없으면 Long.MAX_VALUE
+        private static long firstId(Chunk[] current, int count) {
+            return current.length == 0 || current[0].start >= count ? Long.MAX_VALUE : current[0].baseId;
+        }
+
+        private synchronized boolean startEvicting(long cutoffMillis) {
+            Chunk[] current = chunks;
+            int moving = 0;
+            while (moving < current.length && current[moving].maxMillis() < cutoffMillis) {
+                moving++;
+            }
+            if (moving == 0) {
+                return false;
+            }
+            evicting = Arrays.copyOf(current, moving);
+            chunks = Arrays.copyOfRange(current, moving, current.length);
+            return true;
+        }
+
+        private synchronized int finishEvicting() {
+            int moved = 0;
+            for (Chunk chunk : evicting) {
+                moved += chunk.count;
+            }
+            // 세그먼트가 공개된 뒤이므로 건수를 먼저 알리고 evicting 을 비운다.
+            coldCount += moved;
+            evicting = null;
+            return moved;
+        }
+
+        private synchronized void abortEvicting() {
+            Chunk[] restored = Arrays.copyOf(evicting, evicting.length + chunks.length);
+            System.arraycopy(chunks, 0, restored, evicting.length, chunks.length);
+            chunks = restored;
+            evicting = null;
+        }
+
+        // 청크의 첫 id 는 오름차순이므로 afterId 보다 큰 내역이 있을 수 있는 첫 청크를 이분 탐색한다.
+        private static int firstChunkAfter(Chunk[] current, long afterId) {
+            int low = 0;
+            int high = current.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (current[mid].baseId <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return Math.max(0, low - 1);
+        }
+    }
+
+    /**
+     * 내역 묶음, 컬럼마다 primitive 배열 하나
+     * id 나 갱신 시각의 차이가 int 를 넘는 내역은 다음 청크에서 시작한다.
+     * start, startBalance, startMaxMillis 는 이 청크 앞의 내역 수, 누적 잔액, 최대 갱신 시각
+     */
+    private static final class Chunk {
+        private final long baseId;
+        private final long baseMillis;
+        private final int start;
+        private final long startBalance;
+        private final long startMaxMillis;
+        private final int[] ids;
+        private final int[] millis;
+        private final int[] amounts;
+        private final byte[] types;
+        private long[] wideAmounts;
+        private int count;
+
+        private Chunk(long baseId, long baseMillis, int capacity, int start, long startBalance, long startMaxMillis) {
+            this.baseId = baseId;
+            this.baseMillis = baseMillis;
+            this.start = start;
+            this.startBalance = startBalance;
+            this.startMaxMillis = startMaxMillis;
+            this.ids = new int[capacity];
+            this.millis = new int[capacity];
+            this.amounts = new int[capacity];
+            this.types = new byte[capacity];
+        }
+
+        private boolean fits(PointHistory pointHistory) {
+            long idDelta = pointHistory.id() - baseId;
+            long millisDelta = pointHistory.updateMillis() - baseMillis;
+            return count < CHUNK_SIZE && idDelta == (int) idDelta && millisDelta == (int) millisDelta;
+        }
+
+        private boolean isFull() {
+            return count == ids.length;
+        }
+
+        private long maxMillis() {
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, millis(i));
+            }
+            return max;
+        }
+
+        private Chunk grow() {
+            Chunk grown = new Chunk(baseId, baseMillis, Math.min(CHUNK_SIZE, ids.length * 2), start, startBalance, startMaxMillis);
+            System.arraycopy(ids, 0, grown.ids, 0, count);
+            System.arraycopy(millis, 0, grown.millis, 0, count);
+            System.arraycopy(amounts, 0, grown.amounts, 0, count);
+            System.arraycopy(types, 0, grown.types, 0, count);
+            if (wideAmounts != null) {
+                grown.wideAmounts = Arrays.copyOf(wideAmounts, grown.ids.length);
+            }
+            grown.count = count;
+            return grown;
+        }
+
+        private void add(PointHistory pointHistory) {
+            int index = count;
+            ids[index] = (int) (pointHistory.id() - baseId);
+            millis[index] = (int) (pointHistory.updateMillis() - baseMillis);
+            types[index] = (byte) pointHistory.type().ordinal();
+            long amount = pointHistory.amount();
+            amounts[index] = (int) amount;
+            if (amount != (int) amount || wideAmounts != null) {
+                if (wideAmounts == null) {
+                    long[] wide = new long[ids.length];
+                    for (int i = 0; i < index; i++) {
+                        wide[i] = amounts[i];
+                    }
+                    wideAmounts = wide;
+                }
+                wideAmounts[index] = amount;
+            }
+            count = index + 1;
+        }
+
+        private long id(int index) {
+            return baseId + ids[index];
+        }
+
+        private long millis(int index) {
+            return baseMillis + millis[index];
+        }
+
+        private long amount(int index) {
+            return wideAmounts != null ? wideAmounts[index] : amounts[index];
+        }
+
+        private PointHistory get(long userId, int index) {
+            return new PointHistory(id(index), userId, amount(index), TYPES[types[index]], millis(index));
+        }
+
+        private int firstIndexAfter(long afterId, int count) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (id(mid) <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * 유저 한 명의 내역 합계
+     *
+     * @param point        더한 잔액 (충전은 더하고 사용은 뺀다)
+     * @param count        더한 내역 수
+     * @param changedAfter untilId 보다 큰 id 의 내역이 이미 있다.
+     */
+    public record LedgerSum(long point, int count, boolean changedAfter) {
+    }
+
+    private static long signedAmount(TransactionType type, long amount) {
+        return type == TransactionType.CHARGE ? amount : -amount;
+    }
+
+    /**
+     * 만든 시점의 내역까지만 보이는 읽기 전용 목록
+     */
+    private static final class HistoryView extends AbstractList<PointHistory> implements RandomAccess {
+        private final long userId;
+        private final Chunk[] chunks;
+        private final int[] starts;
+        private final int size;
+
+        private HistoryView(long userId, Chunk[] chunks, int[] starts, int size) {
+            this.userId = userId;
+            this.chunks = chunks;
+            this.starts = starts;
+            this.size = size;
+        }
+
+        @Override
+        public PointHistory get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int chunk = Arrays.binarySearch(starts, index);
+            if (chunk < 0) {
+                chunk = -chunk - 2;
+            }
+            // 크기가 0 인 청크는 없으므로 시작 위치가 같은 청크도 없다.
+            return chunks[chunk].get(userId, index - starts[chunk]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 포인트 내역 페이지
+ * - nextCursor 가 null 이면 마지막 페이지
+ */
+public record PointHistoryPage(
+        List<PointHistory> items,
+        Long nextCursor
+) {
+}
@@ -0,0 +1,26 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 내역 조회 조건
+ * - afterId 보다 큰 id 의 내역만 조회한다. (커서)
+ * - type, fromMillis, toMillis 가 null 이면 해당 조건은 적용하지 않는다.
+ * - fromMillis 는 포함, toMillis 는 제외한다.
+ */
+public record PointHistoryQuery(
+        long afterId,
+        TransactionType type,
+        Long fromMillis,
+        Long toMillis
+) {
+
+    public static PointHistoryQuery all() {
+        return new PointHistoryQuery(0, null, null, null);
+    }
+
+    public boolean matches(PointHistory pointHistory) {
+        return pointHistory.id() > afterId
+                && (type == null || pointHistory.type() == type)
+                && (fromMillis == null || pointHistory.updateMillis() >= fromMillis)
+                && (toMillis == null || pointHistory.updateMillis() < toMillis);
+    }
+}
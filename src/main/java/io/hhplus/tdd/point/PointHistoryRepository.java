@@ -0,0 +1,187 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 포인트 내역 저장소
+ * - 내역 id 를 부여해 유저별 색인에 바로 추가하고, 테이블 기록은 PointHistoryWriter 에 맡긴다.
+ *   id 는 모든 파티션이 함께 쓰는 PointHistorySequence 에서 받으므로, 한 저장소의 id 는 늘어나지만 건너뛸 수 있다.
+ * - 색인에 먼저 추가하므로 테이블 기록이 끝나기 전에도 같은 유저의 내역 조회에 바로 보인다.
+ * - id 부여와 기록 요청을 한 구간에서 처리해서, 테이블이 매기는 id 와 같은 순서가 되도록 한다.
+ * - 선행 기록 로그(PointWriteAheadLog)가 켜져 있으면 같은 구간에서 로그에도 덧붙인다.
+ *   로그에 덧붙이지 못한 내역은 id 를 소비하지 않고 실패한다. 로그에 덧붙인 뒤에는 실패하지 않으므로,
+ *   save 가 예외를 던지면 어디에도 남지 않은 것이고 돌아오면 내역에 반영된 것이다.
+ * - 추가된 내역은 유저별 집계(PointHistorySummaries)에도 더한다. 집계는 구간 밖에서 유저 단위로 갱신한다.
+ * - 추가된 내역은 id 를 받을 때 변경 피드 링 버퍼(PointEventRing)에도 들어간다. 복구한 내역은 넣지 않는다.
+ * - 오래된 내역은 tierOut 으로 색인에서 압축 세그먼트(PointHistoryColdStore)로 옮긴다. 조회는 두 곳을 합쳐 돌려준다.
+ */
+@Component
+public class PointHistoryRepository {
+
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointWriteAheadLog pointWriteAheadLog;
+    private final PointHistorySequence pointHistorySequence;
+    private final PointHistoryIndex pointHistoryIndex;
+    private final PointHistorySummaries pointHistorySummaries = new PointHistorySummaries();
+    private final Object sequenceLock = new Object();
+    // 이 저장소에 마지막으로 추가한 내역 id
+    private long lastId;
+
+    @Autowired
+    public PointHistoryRepository(PointHistoryWriter pointHistoryWriter, PointWriteAheadLog pointWriteAheadLog,
+                                  PointHistorySequence pointHistorySequence, PointHistoryColdStore pointHistoryColdStore) {
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.pointWriteAheadLog = pointWriteAheadLog;
+        this.pointHistorySequence = pointHistorySequence;
+        this.pointHistoryIndex = new PointHistoryIndex(pointHistoryColdStore);
+    }
+
+    /**
+     * 혼자 쓰는 id 발급기로, 변경 피드와 세그먼트 보관 없이 만든다. (테스트, 벤치마크)
+     */
+    public PointHistoryRepository(PointHistoryWriter pointHistoryWriter, PointWriteAheadLog pointWriteAheadLog) {
+        this(pointHistoryWriter, pointWriteAheadLog, PointHistorySequence.standalone(), PointHistoryColdStore.disabled());
+    }
+
+    public PointHistory save(long userId, long amount, TransactionType type, long updateMillis) {
+        PointHistory pointHistory;
+        synchronized (sequenceLock) {
+            pointHistory = pointHistorySequence.issue(userId, amount, type, updateMillis, pointWriteAheadLog);
+            lastId = pointHistory.id();
+            pointHistoryIndex.append(pointHistory);
+            pointHistoryWriter.write(pointHistory);
+        }
+        pointHistorySummaries.add(pointHistory);
+        return pointHistory;
+    }
+
+    /**
+     * 주어진 id 까지의 내역이 선행 기록 로그의 fsync 정책에 따라 디스크에 반영될 때까지 기다린다.
+     */
+    public void sync(long historyId) {
+        pointWriteAheadLog.sync(historyId);
+    }
+
+    /**
+     * 로그에서 복구한 내역을 색인에 되살린다. 테이블과 로그에는 다시 기록하지 않는다.
+     */
+    public void restore(PointHistory pointHistory) {
+        synchronized (sequenceLock) {
+            pointHistorySequence.restore(pointHistory.id());
+            pointHistoryIndex.append(pointHistory);
+            this.lastId = Math.max(this.lastId, pointHistory.id());
+        }
+        pointHistorySummaries.add(pointHistory);
+    }
+
+    /**
+     * 로그에서 떼어낸 내역까지 포함해 lastId 이후부터 id 를 매긴다.
+     */
+    public void restoreCursor(long lastId) {
+        synchronized (sequenceLock) {
+            this.lastId = Math.max(this.lastId, lastId);
+            pointHistorySequence.restore(lastId);
+        }
+    }
+
+    /**
+     * 모든 내역이 cutoffMillis 보다 오래된 색인 청크를 세그먼트로 옮기고 옮긴 내역 수를 반환한다.
+     */
+    public long tierOut(long cutoffMillis) {
+        return pointHistoryIndex.tierOut(cutoffMillis);
+    }
+
+    /**
+     * 색인 메모리에 남은 내역 수
+     */
+    public long hotCount() {
+        return pointHistoryIndex.hotCount();
+    }
+
+    /**
+     * 이 저장소에 마지막으로 추가한 내역 id, 이 저장소의 내역 중 이 id 까지는 모두 색인에 추가되어 있다.
+     */
+    public long lastId() {
+        synchronized (sequenceLock) {
+            return lastId;
+        }
+    }
+
+    /**
+     * untilId 까지의 내역을 다시 더한 잔액, 내역이 없는 유저는 null
+     */
+    public PointHistoryIndex.LedgerSum sumUntil(long userId, long untilId) {
+        return pointHistoryIndex.sumUntil(userId, untilId);
+    }
+
+    /**
+     * 로그에서 떼어낸 내역이 있는 유저의, 가장 오래 남은 내역 이전 잔액을 정한다.
+     */
+    public void restoreBaseBalance(long userId, long baseBalance) {
+        pointHistoryIndex.setBaseBalance(userId, baseBalance);
+    }
+
+    /**
+     * atMillis 까지의 내역을 반영한 잔액, 내역이 없는 유저는 null
+     */
+    public UserPoint balanceAt(long userId, long atMillis) {
+        return pointHistoryIndex.balanceAt(userId, atMillis);
+    }
+
+    /**
+     * 유저의 누적/구간별 충전·사용 집계, 내역을 다시 읽지 않는다.
+     */
+    public PointSummary summarize(long userId, long nowMillis) {
+        return pointHistorySummaries.summarize(userId, nowMillis);
+    }
+
+    /**
+     * 내역이 있는 유저 ID (파티션 재분배 시 옮길 유저를 찾는 데 쓴다)
+     */
+    public Set<Long> userIds() {
+        return pointHistoryIndex.userIds();
+    }
+
+    public List<PointHistory> findAllByUserId(long userId) {
+        return pointHistoryIndex.findAllByUserId(userId);
+    }
+
+    /**
+     * 조건에 맞는 내역을 커서 이후로 최대 size 건 조회한다.
+     */
+    public PointHistoryPage findPage(long userId, PointHistoryQuery query, int size) {
+        List<PointHistory> items = new ArrayList<>(size);
+        boolean[] hasNext = {false};
+        pointHistoryIndex.forEach(userId, query.afterId(), pointHistory -> {
+            if (!query.matches(pointHistory)) {
+                return true;
+            }
+            if (items.size() == size) {
+                hasNext[0] = true;
+                return false;
+            }
+            items.add(pointHistory);
+            return true;
+        });
+        Long nextCursor = hasNext[0] ? items.get(items.size() - 1).id() : null;
+        return new PointHistoryPage(items, nextCursor);
+    }
+
+    /**
+     * 조건에 맞는 내역을 목록으로 모으지 않고 한 건씩 consumer 에 넘긴다.
+     */
+    public void forEach(long userId, PointHistoryQuery query, Consumer<PointHistory> consumer) {
+        pointHistoryIndex.forEach(userId, query.afterId(), pointHistory -> {
+            if (query.matches(pointHistory)) {
+                consumer.accept(pointHistory);
+            }
+            return true;
+        });
+    }
+}
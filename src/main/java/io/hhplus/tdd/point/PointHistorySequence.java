@@ -0,0 +1,80 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 포인트 내역 id 발급
+ * - 모든 파티션의 내역 저장소(PointHistoryRepository)가 함께 쓴다. 파티션을 나눠도 내역 id 는 겹치지 않는다.
+ * - id 는 락 없이 하나씩 늘려서 매긴다. (getAndIncrement) 파티션끼리 함께 쓰는 것은 이 카운터와 변경 피드 링의 칸뿐이다.
+ * - 변경 피드 링 버퍼(PointEventRing)의 순번은 (id - 처음 매긴 id) 로 정해서, 파티션마다 넣는 순서가 달라도
+ *   링의 순번 순서와 내역 id 순서가 같다. 변경 피드는 파티션 수와 관계없이 내역 id 로 이어받을 수 있다.
+ * - 선행 기록 로그가 있는 저장소는 로그에 덧붙인 뒤에 id 를 넘긴다. 덧붙이지 못하면 id 를 소비하지 않아
+ *   링에 빈 순번이 생기지 않는다. 이 경우만 하나씩 실행하며, 로그는 파티션이 하나일 때만 쓸 수 있다. (PointPartitions)
+ * - 색인 추가와 테이블 기록 요청은 저장소가 자기 구간에서 한다.
+ */
+@Component
+public class PointHistorySequence {
+
+    private final PointEventRing pointEventRing;
+    private final AtomicLong next = new AtomicLong(1);
+    // 링 순번 0 에 해당하는 id
+    private volatile long firstId = 1;
+
+    public PointHistorySequence(PointEventRing pointEventRing) {
+        this.pointEventRing = pointEventRing;
+    }
+
+    /**
+     * 변경 피드 없이 만든다. (테스트, 벤치마크)
+     */
+    public static PointHistorySequence standalone() {
+        return new PointHistorySequence(PointEventRing.disabled());
+    }
+
+    /**
+     * 다음 id 로 내역을 만들어 로그에 덧붙이고 변경 피드에 넣는다.
+     */
+    public PointHistory issue(long userId, long amount, TransactionType type, long updateMillis,
+                              PointWriteAheadLog pointWriteAheadLog) {
+        PointHistory pointHistory;
+        if (pointWriteAheadLog.isEnabled()) {
+            synchronized (this) {
+                long id = next.get();
+                pointHistory = new PointHistory(id, userId, amount, type, updateMillis);
+                pointWriteAheadLog.append(pointHistory);
+                if (!next.compareAndSet(id, id + 1)) {
+                    throw new IllegalStateException("선행 기록 로그는 파티션이 하나일 때만 사용할 수 있습니다.");
+                }
+            }
+        } else {
+            pointHistory = new PointHistory(next.getAndIncrement(), userId, amount, type, updateMillis);
+        }
+        pointEventRing.publish(pointHistory.id() - firstId, pointHistory);
+        return pointHistory;
+    }
+
+    /**
+     * 복구했거나 옮겨온 내역까지 포함해 lastId 이후부터 id 를 매긴다.
+     * 새 id 를 매기기 시작한 뒤에는 이미 매긴 id 보다 큰 id 로 옮길 수 없다. (링에 빈 순번이 생긴다)
+     */
+    public synchronized void restore(long lastId) {
+        long current = next.get();
+        if (lastId < current) {
+            return;
+        }
+        if (current != firstId) {
+            throw new IllegalStateException("내역 id 를 매기기 시작한 뒤에는 복구할 수 없습니다.");
+        }
+        firstId = lastId + 1;
+        next.set(lastId + 1);
+    }
+
+    /**
+     * 지금까지 매긴 마지막 내역 id
+     */
+    public long lastId() {
+        return next.get() - 1;
+    }
+}
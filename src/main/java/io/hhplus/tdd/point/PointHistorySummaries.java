@@ -0,0 +1,170 @@
+package io.hhplus.tdd.point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유저별 포인트 내역 집계
+ * - 내역이 추가될 때마다 누적 합계와 시간/일 구간 합계를 갱신해서, 조회할 때 내역을 다시 읽지 않는다.
+ * - 누적 합계는 O(1), 구간 합계는 구간 수에 비례해서 조회한다.
+ * - 구간은 내역이 있는 것만 시작 시각 순서로 보관하고, 가장 최근 구간에서 창(window) 밖으로 밀려난 구간은 버린다.
+ *   그보다 오래된 내역이 늦게 들어오면 누적 합계에만 더한다.
+ */
+public class PointHistorySummaries {
+
+    static final int HOURLY_BUCKETS = 48;
+    static final int DAILY_BUCKETS = 30;
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final ConcurrentHashMap<Long, UserSummary> users = new ConcurrentHashMap<>();
+
+    public void add(PointHistory pointHistory) {
+        users.computeIfAbsent(pointHistory.userId(), id -> new UserSummary()).add(pointHistory);
+    }
+
+    /**
+     * nowMillis 기준 최근 구간까지의 집계
+     */
+    public PointSummary summarize(long userId, long nowMillis) {
+        UserSummary summary = users.get(userId);
+        return summary == null ? PointSummary.empty(userId) : summary.snapshot(userId, nowMillis);
+    }
+
+    private static final class UserSummary {
+        private long chargedAmount;
+        private long chargedCount;
+        private long usedAmount;
+        private long usedCount;
+        private final Buckets hourly = new Buckets(HOUR_MILLIS, HOURLY_BUCKETS);
+        private final Buckets daily = new Buckets(DAY_MILLIS, DAILY_BUCKETS);
+
+        private synchronized void add(PointHistory pointHistory) {
+            boolean charge = pointHistory.type() == TransactionType.CHARGE;
+            if (charge) {
+                chargedAmount += pointHistory.amount();
+                chargedCount++;
+            } else {
+                usedAmount += pointHistory.amount();
+                usedCount++;
+            }
+            hourly.add(pointHistory.updateMillis(), charge, pointHistory.amount());
+            daily.add(pointHistory.updateMillis(), charge, pointHistory.amount());
+        }
+
+        private synchronized PointSummary snapshot(long userId, long nowMillis) {
+            return new PointSummary(userId, chargedAmount, chargedCount, usedAmount, usedCount,
+                    hourly.snapshot(nowMillis), daily.snapshot(nowMillis));
+        }
+    }
+
+    /**
+     * 폭이 width 인 구간들, 구간 번호(시각 / width) 오름차순으로 붙여서 보관한다.
+     * 최대 window 개이므로 중간 삽입과 앞쪽 제거는 배열을 밀어서 처리한다.
+     */
+    private static final class Buckets {
+        private final long width;
+        private final int window;
+        private long[] keys = new long[2];
+        private long[] chargedAmounts = new long[2];
+        private long[] chargedCounts = new long[2];
+        private long[] usedAmounts = new long[2];
+        private long[] usedCounts = new long[2];
+        private int size;
+
+        private Buckets(long width, int window) {
+            this.width = width;
+            this.window = window;
+        }
+
+        private void add(long millis, boolean charge, long amount) {
+            long key = Math.floorDiv(millis, width);
+            if (size > 0 && key <= keys[size - 1] - window) {
+                return;
+            }
+            int index = indexOf(key);
+            if (index < 0) {
+                index = insert(-index - 1, key);
+            }
+            if (charge) {
+                chargedAmounts[index] += amount;
+                chargedCounts[index]++;
+            } else {
+                usedAmounts[index] += amount;
+                usedCounts[index]++;
+            }
+        }
+
+        private List<PointSummary.Bucket> snapshot(long nowMillis) {
+            long oldest = Math.floorDiv(nowMillis, width) - window;
+            List<PointSummary.Bucket> buckets = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (keys[i] > oldest) {
+                    buckets.add(new PointSummary.Bucket(keys[i] * width, chargedAmounts[i], chargedCounts[i], usedAmounts[i], usedCounts[i]));
+                }
+            }
+            return buckets;
+        }
+
+        private int indexOf(long key) {
+            // 대부분 가장 최근 구간에 더해진다.
+            if (size > 0 && keys[size - 1] == key) {
+                return size - 1;
+            }
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else if (keys[mid] > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private int insert(int index, long key) {
+            long newest = Math.max(key, size > 0 ? keys[size - 1] : key);
+            int expired = 0;
+            while (expired < size && keys[expired] <= newest - window) {
+                expired++;
+            }
+            if (expired > 0) {
+                shift(expired, 0, size - expired);
+                size -= expired;
+                index -= expired;
+            }
+            if (size == keys.length) {
+                int capacity = Math.min(window, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                chargedAmounts = Arrays.copyOf(chargedAmounts, capacity);
+                chargedCounts = Arrays.copyOf(chargedCounts, capacity);
+                usedAmounts = Arrays.copyOf(usedAmounts, capacity);
+                usedCounts = Arrays.copyOf(usedCounts, capacity);
+            }
+            shift(index, index + 1, size - index);
+            keys[index] = key;
+            chargedAmounts[index] = 0;
+            chargedCounts[index] = 0;
+            usedAmounts[index] = 0;
+            usedCounts[index] = 0;
+            size++;
+            return index;
+        }
+
+        private void shift(int from, int to, int length) {
+            System.arraycopy(keys, from, keys, to, length);
+            System.arraycopy(chargedAmounts, from, chargedAmounts, to, length);
+            System.arraycopy(chargedCounts, from, chargedCounts, to, length);
+            System.arraycopy(usedAmounts, from, usedAmounts, to, length);
+            System.arraycopy(usedCounts, from, usedCounts, to, length);
+        }
+    }
+}
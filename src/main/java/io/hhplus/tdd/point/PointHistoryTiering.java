@@ -0,0 +1,104 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 오래된 포인트 내역 옮기기 (point.history.tier)
+ * - interval-minutes 마다 모든 파티션에서 hot-days 보다 오래된 내역을 색인에서 압축 세그먼트로 옮긴다.
+ *   옮긴 만큼 색인(PointHistoryIndex)의 청크 메모리가 준다.
+ * - 청크(최대 64 건) 단위로 옮기므로 청크 안에 최근 내역이 하나라도 있으면 그 청크는 남는다.
+ * - 테이블(PointHistoryTable)은 바꿀 수 없는 외부 API 이므로 옮기지 않는다. 조회는 색인과 세그먼트만 읽는다.
+ * - 모든 내역은 여전히 테이블에 insert 되고 테이블은 내역을 지우지 않는다.
+ *   옮기기를 켜도 힙 사용량은 최근 hot-days 가 아니라 전체 내역 수에 비례하며, 줄어드는 것은 색인 몫뿐이다.
+ */
+@Component
+public class PointHistoryTiering implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryTiering.class);
+
+    private final PointPartitions pointPartitions;
+    private final Duration hotWindow;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder moved = new LongAdder();
+
+    public PointHistoryTiering(PointPartitions pointPartitions, PointHistoryColdStore pointHistoryColdStore,
+                               @Value("${point.history.tier.hot-days:28}") long hotDays,
+                               @Value("${point.history.tier.interval-minutes:10}") long intervalMinutes) {
+        if (hotDays < 0) {
+            throw new IllegalArgumentException("최근 내역 보관 기간은 0 이상이어야 합니다.");
+        }
+        this.pointPartitions = pointPartitions;
+        this.hotWindow = Duration.ofDays(hotDays);
+        this.scheduler = pointHistoryColdStore.isEnabled() ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-history-tiering");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::tierOutQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 지금 기준으로 hot-days 보다 오래된 내역을 옮기고 옮긴 내역 수를 반환한다.
+     */
+    public long tierOut() {
+        return tierOut(System.currentTimeMillis() - hotWindow.toMillis());
+    }
+
+    /**
+     * 모든 내역이 cutoffMillis 보다 오래된 청크를 옮기고 옮긴 내역 수를 반환한다.
+     */
+    public long tierOut(long cutoffMillis) {
+        long start = System.nanoTime();
+        long count = 0;
+        for (PointPartition partition : pointPartitions.partitions()) {
+            count += partition.historyRepository().tierOut(cutoffMillis);
+        }
+        moved.add(count);
+        if (count > 0) {
+            log.info("오래된 포인트 내역을 세그먼트로 옮겼습니다. cutoffMillis={}, moved={}, elapsed={}ms",
+                    cutoffMillis, count, (System.nanoTime() - start) / 1_000_000);
+        }
+        return count;
+    }
+
+    /**
+     * 색인 메모리에 남은 내역 수 (모든 파티션)
+     */
+    public long hotCount() {
+        long count = 0;
+        for (PointPartition partition : pointPartitions.partitions()) {
+            count += partition.historyRepository().hotCount();
+        }
+        return count;
+    }
+
+    public long movedCount() {
+        return moved.sum();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void tierOutQuietly() {
+        try {
+            tierOut();
+        } catch (RuntimeException e) {
+            log.warn("포인트 내역을 세그먼트로 옮기지 못했습니다.", e);
+        }
+    }
+}
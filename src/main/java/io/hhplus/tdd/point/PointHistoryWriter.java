@@ -0,0 +1,203 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 내역 기록기
+ * - 비동기 모드에서는 내역을 고정 크기 버퍼에 넣고 바로 돌아가며, 백그라운드 스레드 하나가 묶음 단위로 테이블에 기록한다.
+ * - 버퍼에서 꺼내 기록하는 것은 한번에 하나씩만 한다. (drainLock) 기록 스레드와, 종료 중에 남은 내역을 직접 기록하는
+ *   요청 스레드/close 가 겹쳐도 버퍼에 들어간 순서(유저별 순서 포함)대로 기록된다.
+ * - 버퍼가 가득 차면 자리가 날 때까지 요청 스레드가 기다린다. (backpressure)
+ * - 종료 시 버퍼에 남은 내역을 모두 기록한 뒤 멈춘다.
+ * - 동기 모드에서는 호출한 스레드에서 바로 테이블에 기록한다.
+ * - PointHistoryTable.insert 는 예외를 던지지 않지만(지연 중 인터럽트도 삼킨다), 던지는 테이블이 들어오더라도 기록 스레드가
+ *   멈추지 않도록 그 내역만 버리고 센다. (point.history.dropped) 다시 기록하지 않으므로 테이블 id 와의 차이도 어긋나지 않는다.
+ */
+@Component
+public class PointHistoryWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryWriter.class);
+
+    private final PointHistoryTable pointHistoryTable;
+    private final PointMetrics pointMetrics;
+    private final BlockingQueue<PointHistory> buffer;
+    private final int batchSize;
+    private final Thread worker;
+    // 버퍼에서 꺼내 테이블에 기록하는 구간
+    private final Object drainLock = new Object();
+
+    private volatile boolean running;
+    // 로그에서 복구하거나 다른 파티션에서 옮겨온 내역은 테이블에 다시 넣지 않으므로, 테이블이 매기는 id 는 그만큼 뒤처진다.
+    // (내역 id - 테이블 id) 는 줄어들지 않아야 한다. pointHistoryTable 락을 잡고 읽고 쓴다.
+    private long idOffset;
+    private long enqueued;
+    private long written;
+
+    public PointHistoryWriter(PointHistoryTable pointHistoryTable, PointMetrics pointMetrics,
+                              @Value("${point.history.async:true}") boolean async,
+                              @Value("${point.history.buffer-size:4096}") int bufferSize,
+                              @Value("${point.history.batch-size:256}") int batchSize) {
+        this.pointHistoryTable = pointHistoryTable;
+        this.pointMetrics = pointMetrics;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.running = async;
+        this.worker = async ? new Thread(this::drainLoop, "point-history-writer") : null;
+        if (worker != null) {
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * 내역 기록을 요청한다. 같은 스레드에서 요청한 내역은 요청한 순서대로 기록된다.
+     * 기록 실패는 기록하는 쪽에서 처리하므로 예외를 던지지 않는다.
+     */
+    public void write(PointHistory pointHistory) {
+        if (worker == null) {
+            insert(pointHistory);
+            return;
+        }
+        if (!running) {
+            // 종료 뒤에는 버퍼에 남은 내역을 먼저 기록한 뒤 직접 기록한다.
+            synchronized (drainLock) {
+                drainRemaining();
+                insert(pointHistory);
+            }
+            return;
+        }
+        synchronized (this) {
+            enqueued++;
+        }
+        // 로그와 색인에는 이미 들어간 내역이므로, 인터럽트가 와도 버리지 않고 버퍼에 넣은 뒤 인터럽트 상태를 되살린다.
+        boolean interrupted = false;
+        while (true) {
+            try {
+                buffer.put(pointHistory);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!running) {
+            // 종료 중에 들어온 내역은 기록 스레드가 이미 멈췄을 수 있으므로 직접 기록한다.
+            synchronized (drainLock) {
+                drainRemaining();
+            }
+        }
+    }
+
+    /**
+     * 지금까지 요청된 내역이 모두 테이블에 기록될 때까지 기다린다.
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = enqueued;
+        while (written < target) {
+            wait();
+        }
+    }
+
+    /**
+     * 로그에서 lastId 까지의 내역을 복구했음을 알린다.
+     */
+    public void restored(long lastId) {
+        synchronized (pointHistoryTable) {
+            idOffset = Math.max(idOffset, lastId);
+        }
+    }
+
+    public int pendingCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (worker == null || !running) {
+            return;
+        }
+        running = false;
+        worker.join();
+        // 종료 직전에 들어온 내역까지 남김없이 기록한다.
+        synchronized (drainLock) {
+            drainRemaining();
+        }
+    }
+
+    // drainLock 을 잡고 부른다.
+    private void drainRemaining() {
+        List<PointHistory> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        remaining.forEach(this::insert);
+        markWritten(remaining.size());
+    }
+
+    private void drainLoop() {
+        List<PointHistory> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            // 꺼내는 것부터 락 안에서 해야, 꺼낸 묶음보다 뒤의 내역을 다른 스레드가 먼저 기록하지 않는다.
+            try {
+                synchronized (drainLock) {
+                    PointHistory first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    batch.forEach(this::insert);
+                    markWritten(batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 실패하면 그 내역만 버리고 센다.
+    private void insert(PointHistory pointHistory) {
+        try {
+            insertOnce(pointHistory);
+        } catch (RuntimeException e) {
+            pointMetrics.recordHistoryDropped();
+            log.error("포인트 내역을 테이블에 기록하지 못해 버립니다. history={}", pointHistory, e);
+        }
+    }
+
+    private void insertOnce(PointHistory pointHistory) {
+        // PointHistoryTable 은 동시 insert 에 안전하지 않다.
+        synchronized (pointHistoryTable) {
+            PointHistory inserted = pointMetrics.recordTableCall(PointMetrics.TableCall.POINT_HISTORY_INSERT, () -> pointHistoryTable.insert(
+                    pointHistory.userId(), pointHistory.amount(), pointHistory.type(), pointHistory.updateMillis()));
+            if (inserted == null) {
+                return;
+            }
+            // 옮겨온 내역만큼 id 가 건너뛴 것은 허용하고, 앞선 내역보다 차이가 줄면(순서가 바뀌면) 경고한다.
+            long offset = pointHistory.id() - inserted.id();
+            if (offset < idOffset) {
+                log.warn("테이블에 기록된 내역 id 가 다릅니다. expected={}, actual={}", pointHistory.id(), inserted.id() + idOffset);
+            } else {
+                idOffset = offset;
+            }
+        }
+    }
+
+    private synchronized void markWritten(int count) {
+        written += count;
+        notifyAll();
+    }
+}
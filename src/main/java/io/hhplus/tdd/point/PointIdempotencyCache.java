@@ -0,0 +1,175 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 충전/사용 재시도 중복 제거 (Idempotency-Key)
+ * - 유저, 종류, 키가 같은 요청은 처음 한번만 실행하고, 이후 요청은 저장해둔 결과를 테이블을 거치지 않고 돌려준다.
+ * - 처음 요청이 진행 중이면 같은 키의 요청은 새로 실행하지 않고 그 결과를 기다린다.
+ * - 같은 키로 금액이 다른 요청을 보내면 거절한다.
+ * - 잔액에 반영되기 전에 실패한 요청은 결과를 남기지 않는다. 기다리던 요청은 같은 예외로 실패하고, 이후 재시도는 새로 실행한다.
+ * - 잔액에 반영된 뒤 실패한 요청(PointCommitException)은 처음 요청에는 그 예외를 돌려주고,
+ *   반영된 포인트를 결과로 남겨서 기다리던 요청과 이후 재시도는 다시 반영하지 않고 그 포인트를 받는다.
+ * - 끝난 결과는 ttl-millis 동안 최대 max-size 건 보관한다. 끝난 순서대로 큐에 넣고 오래된 것부터 지운다.
+ * - 적중(hit) / 진행 중 요청 대기(wait) / 실행(miss) / 제거 횟수를 기록한다.
+ */
+@Component
+public class PointIdempotencyCache {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // 끝난 결과, 끝난 순서 (만료 시각 순서와 같다)
+    private final Queue<Map.Entry<Key, Entry>> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PointIdempotencyCache(@Value("${point.idempotency.max-size:100000}") int maximumSize,
+                                 @Value("${point.idempotency.ttl-millis:3600000}") long ttlMillis) {
+        if (maximumSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("멱등 키 보관 개수와 시간은 0보다 커야 합니다.");
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * idempotencyKey 가 없으면 action 을 그대로 실행한다.
+     * 있으면 같은 키로 끝난 결과나 진행 중인 실행의 결과를 돌려주고, 둘 다 없을 때만 action 을 실행한다.
+     */
+    public UserPoint execute(long userId, TransactionType type, long amount, String idempotencyKey,
+                             Supplier<UserPoint> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key 는 1 자 이상 255 자 이하여야 합니다.");
+        }
+        Key key = new Key(userId, type, idempotencyKey);
+        Entry entry = new Entry(amount);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.nanoTime())) {
+                // 만료된 결과는 새 실행으로 바꾼다. 그 사이 다른 요청이 먼저 바꿨으면 다시 읽는다.
+                if (entries.replace(key, existing, entry)) {
+                    break;
+                }
+                continue;
+            }
+            if (existing.amount != amount) {
+                throw new IllegalArgumentException("같은 Idempotency-Key 로 금액이 다른 요청을 보낼 수 없습니다.");
+            }
+            (existing.result.isDone() ? hits : waits).increment();
+            return await(existing.result);
+        }
+
+        misses.increment();
+        UserPoint userPoint;
+        try {
+            userPoint = action.get();
+        } catch (PointCommitException e) {
+            complete(key, entry, e.getApplied());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        complete(key, entry, userPoint);
+        return userPoint;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long waitCount() {
+        return waits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void complete(Key key, Entry entry, UserPoint userPoint) {
+        entry.expiresAt = System.nanoTime() + ttlNanos;
+        entry.result.complete(userPoint);
+        completed.add(Map.entry(key, entry));
+        completedCount.incrementAndGet();
+        evict();
+    }
+
+    // 개수를 넘었거나 만료된 결과를 오래된 것부터 지운다.
+    private void evict() {
+        long now = System.nanoTime();
+        Map.Entry<Key, Entry> eldest;
+        while ((eldest = completed.peek()) != null
+                && (completedCount.get() > maximumSize || eldest.getValue().isExpired(now))) {
+            if (!completed.remove(eldest)) {
+                continue;
+            }
+            completedCount.decrementAndGet();
+            // 만료되어 새 실행으로 바뀐 키는 이미 지워진 것으로 본다.
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static UserPoint await(CompletableFuture<UserPoint> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(long userId, TransactionType type, String idempotencyKey) {
+    }
+
+    private static final class Entry {
+        private final long amount;
+        private final CompletableFuture<UserPoint> result = new CompletableFuture<>();
+        // 결과가 끝난 뒤에 정해진다. 진행 중에는 만료되지 않는다.
+        private volatile long expiresAt;
+
+        private Entry(long amount) {
+            this.amount = amount;
+        }
+
+        private boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.database.UserPointTableStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 잔액 대사 (reconciliation)
+ * - 유저마다 잔액 저장소의 잔액이 그 유저의 충전 합계 - 사용 합계와 같은지 확인한다.
+ * - 내역은 유저별 색인(PointHistoryIndex)을 유저 단위로 나눠 fork/join 으로 동시에 더한다.
+ *   내역마다 한번씩만 읽으므로 전체 내역 수에 비례하고, 유저마다 내역 전체를 훑지 않는다.
+ * - 충전/사용을 멈추지 않는다. 시작할 때의 마지막 내역 id 로 자르고(cut) 그 id 까지의 내역만 더한다.
+ *   잘린 뒤 내역이 더 생긴 유저와 잔액이 다른 유저는 끝난 뒤 다시 확인한다.
+ *   잔액 저장과 내역 추가 사이에 읽었을 수 있으므로, 내역 수가 바뀌지 않은 채 recheck-attempts 번 모두 다를 때만 불일치로 본다.
+ *   다시 확인하는 동안에도 내역이 계속 늘어난 유저는 판단하지 못한 유저(unsettled)로 센다.
+ * - 잔액은 캐시를 거치지 않고 파티션의 잔액 저장소에서 읽는다. 다른 파티션으로 옮겨간 유저는 지금 맡은 파티션에서만 확인한다.
+ *   저장소 조회는 기다림이 있을 수 있으므로 내역 합계(fork/join, CPU 수)와 따로 read-parallelism 개의 스레드에서 나눠 읽는다.
+ * - 테이블 저장소(point.store.type=table)는 테이블 호출을 하나씩 실행하고 조회마다 최대 200ms 를 기다리므로
+ *   유저 100만 명이면 read-parallelism 과 관계없이 하루 가까이 걸리고, 그동안 충전/사용도 테이블을 기다린다.
+ *   그래서 주기 대사(enabled=true)는 memory / primitive 저장소에서만 켤 수 있고, 테이블 저장소면 시작하지 않는다.
+ * - 내역이 하나도 없는 유저(스냅샷으로 내역이 모두 떼어진 유저 포함)는 확인하지 않는다.
+ */
+@Component
+public class PointLedgerReconciler implements AutoCloseable {
+
+    // fork/join 작업 하나가 직접 더하는 최대 유저 수, 잔액 조회 작업 하나가 읽는 최대 유저 수
+    private static final int USERS_PER_TASK = 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(PointLedgerReconciler.class);
+
+    private final PointPartitions pointPartitions;
+    private final ForkJoinPool pool;
+    private final ExecutorService readPool;
+    private final int readParallelism;
+    private final int recheckAttempts;
+    private final long recheckMillis;
+    private final int reportLimit;
+    private final ScheduledExecutorService scheduler;
+    private volatile PointReconciliationReport lastReport;
+
+    /**
+     * @param parallelism     내역을 동시에 더하는 스레드 수, 0 이면 CPU 수
+     * @param readParallelism 잔액 저장소를 동시에 읽는 스레드 수
+     */
+    @Autowired
+    public PointLedgerReconciler(PointPartitions pointPartitions,
+                                 @Value("${point.reconcile.enabled:false}") boolean enabled,
+                                 @Value("${point.reconcile.interval-seconds:3600}") long intervalSeconds,
+                                 @Value("${point.reconcile.parallelism:0}") int parallelism,
+                                 @Value("${point.reconcile.read-parallelism:64}") int readParallelism,
+                                 @Value("${point.reconcile.recheck-attempts:3}") int recheckAttempts,
+                                 @Value("${point.reconcile.recheck-millis:500}") long recheckMillis,
+                                 @Value("${point.reconcile.report-limit:100}") int reportLimit) {
+        if (parallelism < 0 || readParallelism <= 0 || recheckAttempts <= 0) {
+            throw new IllegalArgumentException("대사 스레드 수는 0 이상, 잔액 조회 스레드 수와 재확인 횟수는 0보다 커야 합니다.");
+        }
+        if (enabled && pointPartitions.partitions().stream()
+                .anyMatch(partition -> partition.userPointStore() instanceof UserPointTableStore)) {
+            throw new IllegalArgumentException("잔액 대사는 테이블 저장소(point.store.type=table)에서 켤 수 없습니다.");
+        }
+        this.pointPartitions = pointPartitions;
+        this.pool = new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism);
+        this.readParallelism = readParallelism;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.readPool = Executors.newFixedThreadPool(readParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "point-reconciler-read-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.recheckAttempts = recheckAttempts;
+        this.recheckMillis = recheckMillis;
+        this.reportLimit = reportLimit;
+        this.scheduler = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::reconcileQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 잔액 조회 스레드 64 개로 만든다. (테스트, 벤치마크)
+     */
+    public PointLedgerReconciler(PointPartitions pointPartitions, boolean enabled, long intervalSeconds, int parallelism,
+                                 int recheckAttempts, long recheckMillis, int reportLimit) {
+        this(pointPartitions, enabled, intervalSeconds, parallelism, 64, recheckAttempts, recheckMillis, reportLimit);
+    }
+
+    /**
+     * 모든 파티션을 대사한다. 대사는 한번에 하나씩 실행된다.
+     */
+    public synchronized PointReconciliationReport reconcile() throws InterruptedException {
+        long start = System.nanoTime();
+        long cutId = 0;
+        Tally tally = new Tally();
+        for (PointPartition partition : pointPartitions.partitions()) {
+            long partitionCut = partition.historyRepository().lastId();
+            cutId = Math.max(cutId, partitionCut);
+            long[] userIds = partition.userIds().stream()
+                    .filter(userId -> pointPartitions.partitionOf(userId) == partition.index())
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            PointHistoryIndex.LedgerSum[] sums = new PointHistoryIndex.LedgerSum[userIds.length];
+            pool.invoke(new SumTask(partition.historyRepository(), partitionCut, userIds, sums, 0, userIds.length));
+            long[] points = readBalances(partition.userPointStore(), userIds, sums);
+            tally.merge(compare(partition, userIds, sums, points));
+        }
+
+        List<PointReconciliationReport.Mismatch> mismatches = new ArrayList<>();
+        int unsettled = recheck(tally.suspects, mismatches);
+        PointReconciliationReport report = new PointReconciliationReport(cutId, tally.users, tally.histories,
+                mismatches.size(), List.copyOf(mismatches.subList(0, Math.min(reportLimit, mismatches.size()))),
+                unsettled, (System.nanoTime() - start) / 1_000_000);
+        lastReport = report;
+        if (report.mismatchCount() > 0) {
+            log.warn("잔액이 내역 합계와 다른 유저가 있습니다. cutId={}, users={}, mismatches={}, unsettled={}, sample={}",
+                    cutId, report.users(), report.mismatchCount(), unsettled, report.mismatches());
+        } else {
+            log.info("잔액 대사를 마쳤습니다. cutId={}, users={}, histories={}, unsettled={}, elapsed={}ms",
+                    cutId, report.users(), report.histories(), unsettled, report.elapsedMillis());
+        }
+        return report;
+    }
+
+    /**
+     * 마지막 대사 결과, 아직 대사하지 않았으면 null
+     */
+    public PointReconciliationReport lastReport() {
+        return lastReport;
+    }
+
+    public int lastMismatchCount() {
+        PointReconciliationReport report = lastReport;
+        return report == null ? 0 : report.mismatchCount();
+    }
+
+    public int lastUnsettledCount() {
+        PointReconciliationReport report = lastReport;
+        return report == null ? 0 : report.unsettled();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pool.shutdownNow();
+        readPool.shutdownNow();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("잔액 대사에 실패했습니다.", e);
+        }
+    }
+
+    // 내역이 있는 유저의 잔액을 나눠서 동시에 읽는다. 내역이 없는 유저는 읽지 않는다.
+    private long[] readBalances(UserPointStore userPointStore, long[] userIds, PointHistoryIndex.LedgerSum[] sums)
+            throws InterruptedException {
+        long[] points = new long[userIds.length];
+        int chunk = Math.max(1, Math.min(USERS_PER_TASK, (userIds.length + readParallelism - 1) / readParallelism));
+        List<Future<?>> reads = new ArrayList<>();
+        for (int from = 0; from < userIds.length; from += chunk) {
+            int start = from;
+            int end = Math.min(userIds.length, from + chunk);
+            reads.add(readPool.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    if (sums[i] != null) {
+                        points[i] = userPointStore.selectById(userIds[i]).point();
+                    }
+                }
+            }));
+        }
+        for (Future<?> read : reads) {
+            try {
+                read.get();
+            } catch (ExecutionException e) {
+                reads.forEach(pending -> pending.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return points;
+    }
+
+    private static Tally compare(PointPartition partition, long[] userIds, PointHistoryIndex.LedgerSum[] sums, long[] points) {
+        Tally tally = new Tally();
+        for (int i = 0; i < userIds.length; i++) {
+            PointHistoryIndex.LedgerSum sum = sums[i];
+            if (sum == null) {
+                continue;
+            }
+            tally.users++;
+            tally.histories += sum.count();
+            // 잘린 뒤 내역이 더 생긴 유저는 잔액이 이미 그 내역까지 반영했을 수 있다.
+            if (sum.changedAfter() || points[i] != sum.point()) {
+                tally.suspects.add(new Suspect(partition, userIds[i]));
+            }
+        }
+        return tally;
+    }
+
+    // 의심 유저를 recheckAttempts 번까지 다시 확인하고, 판단하지 못한 유저 수를 반환한다.
+    private int recheck(List<Suspect> suspects, List<PointReconciliationReport.Mismatch> mismatches)
+            throws InterruptedException {
+        List<Suspect> remaining = suspects;
+        for (int attempt = 0; attempt < recheckAttempts && !remaining.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                TimeUnit.MILLISECONDS.sleep(recheckMillis);
+            }
+            List<Suspect> next = new ArrayList<>();
+            for (Suspect suspect : remaining) {
+                if (!suspect.recheck()) {
+                    next.add(suspect);
+                }
+            }
+            remaining = next;
+        }
+        int unsettled = 0;
+        for (Suspect suspect : remaining) {
+            if (suspect.stable) {
+                mismatches.add(new PointReconciliationReport.Mismatch(suspect.userId, suspect.point, suspect.expected));
+            } else {
+                unsettled++;
+            }
+        }
+        return unsettled;
+    }
+
+    // 유저마다 cutId 까지의 내역 합계를 sums 의 같은 자리에 채운다. 내역이 없는 유저는 null
+    private static final class SumTask extends RecursiveAction {
+        private final PointHistoryRepository pointHistoryRepository;
+        private final long cutId;
+        private final long[] userIds;
+        private final PointHistoryIndex.LedgerSum[] sums;
+        private final int from;
+        private final int to;
+
+        private SumTask(PointHistoryRepository pointHistoryRepository, long cutId, long[] userIds,
+                        PointHistoryIndex.LedgerSum[] sums, int from, int to) {
+            this.pointHistoryRepository = pointHistoryRepository;
+            this.cutId = cutId;
+            this.userIds = userIds;
+            this.sums = sums;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > USERS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SumTask(pointHistoryRepository, cutId, userIds, sums, from, middle),
+                        new SumTask(pointHistoryRepository, cutId, userIds, sums, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                sums[i] = pointHistoryRepository.sumUntil(userIds[i], cutId);
+            }
+        }
+    }
+
+    private static final class Tally {
+        private int users;
+        private long histories;
+        private List<Suspect> suspects = new ArrayList<>();
+
+        private Tally merge(Tally other) {
+            users += other.users;
+            histories += other.histories;
+            if (suspects.isEmpty()) {
+                suspects = other.suspects;
+            } else {
+                suspects.addAll(other.suspects);
+            }
+            return this;
+        }
+    }
+
+    private static final class Suspect {
+        private final PointPartition partition;
+        private final long userId;
+        // 마지막 확인에서 내역 수가 바뀌지 않았는지와 그때의 잔액, 내역 합계
+        private boolean stable;
+        private long point;
+        private long expected;
+
+        private Suspect(PointPartition partition, long userId) {
+            this.partition = partition;
+            this.userId = userId;
+        }
+
+        // 지금까지의 모든 내역 합계와 잔액이 같으면 true
+        private boolean recheck() {
+            PointHistoryRepository pointHistoryRepository = partition.historyRepository();
+            PointHistoryIndex.LedgerSum before = pointHistoryRepository.sumUntil(userId, Long.MAX_VALUE);
+            point = partition.userPointStore().selectById(userId).point();
+            PointHistoryIndex.LedgerSum after = pointHistoryRepository.sumUntil(userId, Long.MAX_VALUE);
+            stable = before.count() == after.count();
+            expected = after.point();
+            return stable && point == expected;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 시작 시 스냅샷과 선행 기록 로그로 포인트 내역과 잔액을 되살린다.
+ * - 가장 최근 스냅샷의 잔액을 그대로 저장소에 넣는다.
+ * - 로그에 남은 내역(replay-archive 를 켜면 보관 디렉토리로 옮긴 세그먼트도)은 id 순서대로 내역 색인에 넣고,
+ *   스냅샷 이후의 내역만 유저별로 충전은 더하고 사용은 빼서 잔액에 반영한다.
+ * - 로그 잔액은 모든 내역을 본 뒤 유저마다 한번씩만 저장소에 쓴다.
+ * - 스냅샷으로 떼어내 다시 읽지 않은 내역이 있으면, 남은 내역 이전의 잔액을 색인에 알려 시점 잔액 조회가 맞도록 한다.
+ * - 스프링 빈이 모두 만들어진 뒤 웹 서버가 요청을 받기 전에 끝난다.
+ */
+@Component
+public class PointLedgerRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(PointLedgerRecovery.class);
+
+    private final long snapshotId;
+    private final long lastId;
+    private final int userCount;
+
+    public PointLedgerRecovery(PointWriteAheadLog pointWriteAheadLog, PointSnapshotter pointSnapshotter,
+                               PointHistoryRepository pointHistoryRepository, PointHistoryWriter pointHistoryWriter,
+                               UserPointStore userPointStore) {
+        if (!pointWriteAheadLog.isEnabled()) {
+            this.snapshotId = 0;
+            this.lastId = 0;
+            this.userCount = 0;
+            return;
+        }
+        long start = System.nanoTime();
+        this.snapshotId = pointSnapshotter.load(userPointStore::restore);
+
+        // 스냅샷 이후 바뀐 유저의 [잔액 변화, 마지막 갱신 시각]
+        Map<Long, long[]> changes = new HashMap<>();
+        // 로그에 남아 있지만 스냅샷에 이미 반영된 내역의 유저별 잔액 변화
+        Map<Long, Long> covered = new HashMap<>();
+        Consumer<PointHistory> replay = pointHistory -> {
+            pointHistoryRepository.restore(pointHistory);
+            if (pointHistory.id() <= snapshotId) {
+                covered.merge(pointHistory.userId(), signedAmount(pointHistory), Long::sum);
+                return;
+            }
+            long[] change = changes.computeIfAbsent(pointHistory.userId(), id -> new long[2]);
+            change[0] += signedAmount(pointHistory);
+            change[1] = pointHistory.updateMillis();
+        };
+        long archivedId = pointSnapshotter.replayArchived(replay);
+        long replayedId = pointWriteAheadLog.replay(replay);
+        if (snapshotId > 0) {
+            // 내역 색인의 누적 잔액이 0 이 아니라 떼어낸 내역까지의 잔액에서 시작하도록 맞춘다.
+            covered.forEach((userId, amount) ->
+                    pointHistoryRepository.restoreBaseBalance(userId, userPointStore.selectById(userId).point() - amount));
+            changes.keySet().stream().filter(userId -> !covered.containsKey(userId)).forEach(userId ->
+                    pointHistoryRepository.restoreBaseBalance(userId, userPointStore.selectById(userId).point()));
+        }
+        changes.forEach((userId, change) -> {
+            long base = snapshotId > 0 ? userPointStore.selectById(userId).point() : 0;
+            userPointStore.restore(userId, base + change[0], change[1]);
+        });
+
+        this.lastId = Math.max(snapshotId, Math.max(archivedId, replayedId));
+        pointHistoryRepository.restoreCursor(lastId);
+        pointHistoryWriter.restored(lastId);
+        this.userCount = changes.size();
+        log.info("포인트 내역 로그로 복구했습니다. snapshotId={}, archivedId={}, lastId={}, users={}, elapsed={}ms",
+                snapshotId, archivedId, lastId, userCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static long signedAmount(PointHistory pointHistory) {
+        return pointHistory.type() == TransactionType.CHARGE ? pointHistory.amount() : -pointHistory.amount();
+    }
+
+    public long snapshotId() {
+        return snapshotId;
+    }
+
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * 스냅샷 이후 로그로 잔액을 다시 계산한 유저 수
+     */
+    public int userCount() {
+        return userCount;
+    }
+}
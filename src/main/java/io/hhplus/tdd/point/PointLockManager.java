@@ -0,0 +1,82 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 유저별 락 관리
+ * - 같은 유저의 요청은 공정(fair) 락으로 도착한 순서대로 하나씩 처리한다.
+ * - 다른 유저의 요청은 서로 다른 락을 사용하므로 병렬로 처리된다.
+ * - 락을 점유하거나 기다리는 요청이 없어지면 해당 유저의 락은 맵에서 제거된다.
+ */
+@Component
+public class PointLockManager {
+
+    private final ConcurrentHashMap<Long, LockEntry> locks = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final PointMetrics pointMetrics;
+
+    /**
+     * @param timeoutMillis 락 획득 대기 시간(ms), 0 이하이면 무한정 대기
+     */
+    public PointLockManager(@Value("${point.lock.timeout-millis:0}") long timeoutMillis, PointMetrics pointMetrics) {
+        this.timeoutMillis = timeoutMillis;
+        this.pointMetrics = pointMetrics;
+    }
+
+    /**
+     * 유저 락을 잡은 상태에서 action 을 실행한다.
+     */
+    public <T> T executeWithLock(long userId, Supplier<T> action) {
+        LockEntry entry = locks.compute(userId, (id, current) -> {
+            LockEntry lockEntry = current == null ? new LockEntry() : current;
+            lockEntry.references++;
+            return lockEntry;
+        });
+        try {
+            long waitStart = System.nanoTime();
+            acquire(entry.lock);
+            pointMetrics.recordLockWait(userId, System.nanoTime() - waitStart);
+            try {
+                return action.get();
+            } finally {
+                entry.lock.unlock();
+            }
+        } finally {
+            locks.computeIfPresent(userId, (id, current) -> --current.references == 0 ? null : current);
+        }
+    }
+
+    /**
+     * 현재 락을 점유 중이거나 기다리는 유저 수
+     */
+    public int lockedUserCount() {
+        return locks.size();
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (timeoutMillis <= 0) {
+                lock.lockInterruptibly();
+                return;
+            }
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("처리 중인 요청이 많습니다. 잠시 후 다시 시도해주세요.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("포인트 처리가 중단되었습니다.", e);
+        }
+    }
+
+    private static final class LockEntry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // locks.compute 안에서만 변경된다.
+        private int references;
+    }
+}
@@ -0,0 +1,171 @@
+package io.hhplus.tdd.point;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 서비스 지표
+ * - point.operation : 기능별 처리 시간 (op)
+ * - point.table : 테이블 호출 시간 (table, method)
+ * - point.lock.wait : 유저 락 대기 시간, 유저 ID 를 구간(stripe)으로 묶어 기록
+ * - point.rejections : 거절 건수 (reason)
+ * - point.inflight : 처리 중인 요청 수
+ * - point.read.loads / point.read.coalesced : 캐시에 없는 잔액 조회 중 직접 읽은 건수 / 진행 중인 조회에 합쳐진 건수
+ *   (합쳐진 비율 = coalesced / (loads + coalesced))
+ * - point.optimistic.conflicts / point.optimistic.exhausted : optimistic 모드의 버전 충돌 횟수 / 재시도를 다 써서 실패한 건수
+ * - point.history.dropped : 다시 시도해도 테이블에 기록하지 못해 버린 내역 건수
+ * - point.hot.user.id / point.hot.user.requests : 요청이 많은 유저 상위 K 명 (rank)
+ * 지표 객체는 미리 만들어두고 요청 경로에서는 기록만 한다.
+ */
+@Component
+public class PointMetrics {
+
+    public enum Operation {
+        CHARGE, USE, POINT, HISTORY, SUMMARY
+    }
+
+    public enum TableCall {
+        USER_POINT_SELECT("user_point", "selectById"),
+        USER_POINT_UPSERT("user_point", "insertOrUpdate"),
+        POINT_HISTORY_INSERT("point_history", "insert");
+
+        private final String table;
+        private final String method;
+
+        TableCall(String table, String method) {
+            this.table = table;
+            this.method = method;
+        }
+    }
+
+    private static final int LOCK_STRIPES = 16;
+    private static final int HOT_USERS = 10;
+
+    private final Map<Operation, Timer> operationTimers = new EnumMap<>(Operation.class);
+    private final Map<TableCall, Timer> tableTimers = new EnumMap<>(TableCall.class);
+    private final Map<PointRejectedException.Reason, Counter> rejectionCounters = new EnumMap<>(PointRejectedException.Reason.class);
+    private final Timer[] lockWaitTimers = new Timer[LOCK_STRIPES];
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter readLoads;
+    private final Counter readCoalesced;
+    private final Counter optimisticConflicts;
+    private final Counter optimisticExhausted;
+    private final Counter historyDropped;
+    private final HotUserSketch hotUsers = new HotUserSketch(HOT_USERS * 4, 16);
+
+    public PointMetrics(MeterRegistry meterRegistry) {
+        for (Operation operation : Operation.values()) {
+            operationTimers.put(operation, Timer.builder("point.operation")
+                    .tag("op", operation.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (TableCall call : TableCall.values()) {
+            tableTimers.put(call, Timer.builder("point.table")
+                    .tag("table", call.table)
+                    .tag("method", call.method)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (PointRejectedException.Reason reason : PointRejectedException.Reason.values()) {
+            rejectionCounters.put(reason, Counter.builder("point.rejections")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            lockWaitTimers[stripe] = Timer.builder("point.lock.wait")
+                    .tag("stripe", String.valueOf(stripe))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        Gauge.builder("point.inflight", inflight, AtomicInteger::get).register(meterRegistry);
+        readLoads = Counter.builder("point.read.loads").register(meterRegistry);
+        readCoalesced = Counter.builder("point.read.coalesced").register(meterRegistry);
+        optimisticConflicts = Counter.builder("point.optimistic.conflicts").register(meterRegistry);
+        optimisticExhausted = Counter.builder("point.optimistic.exhausted").register(meterRegistry);
+        historyDropped = Counter.builder("point.history.dropped").register(meterRegistry);
+        for (int rank = 0; rank < HOT_USERS; rank++) {
+            int index = rank;
+            Gauge.builder("point.hot.user.id", hotUsers, sketch -> hotUserValue(sketch, index, 0))
+                    .tag("rank", String.valueOf(rank + 1))
+                    .register(meterRegistry);
+            Gauge.builder("point.hot.user.requests", hotUsers, sketch -> hotUserValue(sketch, index, 1))
+                    .tag("rank", String.valueOf(rank + 1))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 기능 처리 시간을 기록하고, 거절되면 사유별로 센다.
+     */
+    public <T> T recordOperation(Operation operation, long userId, Supplier<T> action) {
+        inflight.incrementAndGet();
+        hotUsers.offer(userId);
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } catch (PointRejectedException e) {
+            rejectionCounters.get(e.getReason()).increment();
+            throw e;
+        } finally {
+            operationTimers.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            inflight.decrementAndGet();
+        }
+    }
+
+    public <T> T recordTableCall(TableCall call, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            tableTimers.get(call).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordLockWait(long userId, long waitNanos) {
+        int stripe = (int) ((userId * 0x9E3779B97F4A7C15L) >>> 60);
+        lockWaitTimers[stripe].record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordReadLoad() {
+        readLoads.increment();
+    }
+
+    public void recordReadCoalesced() {
+        readCoalesced.increment();
+    }
+
+    public void recordOptimisticConflict() {
+        optimisticConflicts.increment();
+    }
+
+    public void recordOptimisticExhausted() {
+        optimisticExhausted.increment();
+    }
+
+    public void recordHistoryDropped() {
+        historyDropped.increment();
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public long[][] hotUsers(int k) {
+        return hotUsers.top(k);
+    }
+
+    private static double hotUserValue(HotUserSketch sketch, int rank, int field) {
+        long[][] top = sketch.top(rank + 1);
+        return top.length > rank ? top[rank][field] : Double.NaN;
+    }
+}
@@ -0,0 +1,32 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 처리 한도를 넘어 바로 거절된 요청 (429)
+ * - USER : 같은 유저의 처리 대기 요청이 한도를 넘음
+ * - GLOBAL : 전체 동시 처리 요청이 한도를 넘음
+ */
+public class PointOverloadedException extends IllegalStateException {
+
+    public enum Scope {
+        USER, GLOBAL
+    }
+
+    private final Scope scope;
+    private final long retryAfterSeconds;
+
+    public PointOverloadedException(Scope scope, long retryAfterSeconds) {
+        super(scope == Scope.USER
+                ? "같은 유저의 요청이 너무 많습니다. 잠시 후 다시 시도해주세요."
+                : "처리 중인 요청이 많습니다. 잠시 후 다시 시도해주세요.");
+        this.scope = scope;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
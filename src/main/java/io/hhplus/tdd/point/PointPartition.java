@@ -0,0 +1,117 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointStore;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 파티션 하나
+ * - 잔액 저장소, 캐시, 잔액 변경(락 포함), 내역 저장소와 기록 스레드를 파티션마다 따로 가진다.
+ *   다른 파티션과 공유하는 상태가 없어서 파티션끼리는 서로 기다리지 않는다.
+ * - executor 가 있으면 충전/사용을 파티션 전용 스레드에서 실행해서, 한 파티션이 느려도 다른 파티션의 스레드를 쓰지 않는다.
+ *   executor 가 없으면 호출한 스레드에서 바로 실행한다.
+ * - 조회는 락 없이 색인과 캐시를 읽으므로 항상 호출한 스레드에서 실행한다.
+ */
+public class PointPartition implements AutoCloseable {
+
+    private final int index;
+    private final PointBalanceUpdater pointBalanceUpdater;
+    private final PointHistoryRepository pointHistoryRepository;
+    private final UserPointStore userPointStore;
+    private final UserPointCache userPointCache;
+    private final ExecutorService executor;
+    private final PointHistoryWriter pointHistoryWriter;
+
+    /**
+     * @param executor           충전/사용을 실행할 스레드 풀, null 이면 호출한 스레드에서 실행
+     * @param pointHistoryWriter 파티션이 닫힐 때 함께 닫을 내역 기록기, 스프링 빈을 그대로 쓰는 경우 null
+     */
+    public PointPartition(int index, PointBalanceUpdater pointBalanceUpdater, PointHistoryRepository pointHistoryRepository,
+                          UserPointStore userPointStore, UserPointCache userPointCache,
+                          ExecutorService executor, PointHistoryWriter pointHistoryWriter) {
+        this.index = index;
+        this.pointBalanceUpdater = pointBalanceUpdater;
+        this.pointHistoryRepository = pointHistoryRepository;
+        this.userPointStore = userPointStore;
+        this.userPointCache = userPointCache;
+        this.executor = executor;
+        this.pointHistoryWriter = pointHistoryWriter;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public PointBalanceUpdater balanceUpdater() {
+        return pointBalanceUpdater;
+    }
+
+    public PointHistoryRepository historyRepository() {
+        return pointHistoryRepository;
+    }
+
+    /**
+     * 캐시를 거치지 않는 잔액 저장소 (대사)
+     */
+    public UserPointStore userPointStore() {
+        return userPointStore;
+    }
+
+    /**
+     * 파티션 스레드에서 실행하고 끝날 때까지 기다린다. 실행 중 발생한 예외는 그대로 던진다.
+     */
+    public <T> T execute(Supplier<T> action) {
+        if (executor == null) {
+            return action.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(action, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 유저의 잔액과 내역을 target 파티션으로 복사한다.
+     * 호출하는 쪽에서 그 유저의 다른 요청이 두 파티션 어디에서도 실행 중이지 않음을 보장해야 한다.
+     * - 내역은 id 를 유지한 채 옮기고, target 은 이후 그보다 큰 id 를 매긴다.
+     * - 원래 파티션의 데이터는 지우지 않는다. 라우팅이 바뀐 뒤에는 조회되지 않는다.
+     */
+    public void moveTo(long userId, PointPartition target) {
+        UserPoint userPoint = pointBalanceUpdater.current(userId);
+        List<PointHistory> histories = pointHistoryRepository.findAllByUserId(userId);
+        target.userPointStore.restore(userId, userPoint.point(), userPoint.updateMillis());
+        target.userPointCache.invalidate(userId);
+        histories.forEach(target.pointHistoryRepository::restore);
+    }
+
+    /**
+     * 내역이 있는 유저 ID, 다른 파티션으로 옮겨간 유저도 포함된다.
+     */
+    public Set<Long> userIds() {
+        return pointHistoryRepository.userIds();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        if (pointHistoryWriter != null) {
+            pointHistoryWriter.close();
+        }
+    }
+}
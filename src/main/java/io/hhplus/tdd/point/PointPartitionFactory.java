@@ -0,0 +1,149 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.InMemoryUserPointStore;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PrimitiveUserPointStore;
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.database.UserPointTableStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 새 파티션 조립
+ * - 파티션마다 잔액 저장소와 PointHistoryTable 을 새로 만들고, 그 위에 스프링 빈과 같은 설정으로 하위 컴포넌트를 만든다.
+ *   잔액 저장소는 point.store.type 에 따라 고른다. (table / memory / primitive, primitive 는 파티션마다 같은 처음 크기)
+ * - 잔액 변경 방식(point.concurrency.mode)도 스프링 빈과 같게 고른다.
+ * - 지표(PointMetrics)와 내역 id 발급기(PointHistorySequence, 변경 피드 포함)만 모든 파티션이 함께 쓴다.
+ *   내역 id 는 파티션 사이에서 겹치지 않는다.
+ *   내역 세그먼트(PointHistoryColdStore)는 같은 설정으로 파티션마다 하위 디렉토리를 따로 쓴다.
+ */
+@Component
+public class PointPartitionFactory {
+
+    private final PointMetrics pointMetrics;
+    private final PointHistorySequence pointHistorySequence;
+    private final PointHistoryColdStore pointHistoryColdStore;
+    private final String storeType;
+    private final int storeInitialCapacity;
+    private final boolean storeOffHeap;
+    private final int poolSize;
+    private final boolean optimistic;
+    private final int maxRetries;
+    private final long maxBackoffMicros;
+    private final long idleMillis;
+    private final long retryAfterSeconds;
+    private final long lockTimeoutMillis;
+    private final int cacheSize;
+    private final boolean historyAsync;
+    private final int historyBufferSize;
+    private final int historyBatchSize;
+
+    /**
+     * @param poolSize 파티션마다 충전/사용을 실행할 스레드 수, 0 이면 호출한 스레드에서 실행
+     */
+    @Autowired
+    public PointPartitionFactory(PointMetrics pointMetrics, PointHistorySequence pointHistorySequence,
+                                 PointHistoryColdStore pointHistoryColdStore,
+                                 @Value("${point.store.type:table}") String storeType,
+                                 @Value("${point.store.initial-capacity:1048576}") int storeInitialCapacity,
+                                 @Value("${point.store.off-heap:false}") boolean storeOffHeap,
+                                 @Value("${point.partition.pool-size:8}") int poolSize,
+                                 @Value("${point.concurrency.mode:lock}") String concurrencyMode,
+                                 @Value("${point.concurrency.max-retries:64}") int maxRetries,
+                                 @Value("${point.concurrency.max-backoff-micros:1000}") long maxBackoffMicros,
+                                 @Value("${point.concurrency.idle-millis:60000}") long idleMillis,
+                                 @Value("${point.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                                 @Value("${point.lock.timeout-millis:0}") long lockTimeoutMillis,
+                                 @Value("${point.cache.max-size:10000}") int cacheSize,
+                                 @Value("${point.history.async:true}") boolean historyAsync,
+                                 @Value("${point.history.buffer-size:4096}") int historyBufferSize,
+                                 @Value("${point.history.batch-size:256}") int historyBatchSize) {
+        if (poolSize < 0) {
+            throw new IllegalArgumentException("파티션 스레드 수는 0 이상이어야 합니다.");
+        }
+        if (!List.of("table", "memory", "primitive").contains(storeType)) {
+            throw new IllegalArgumentException("알 수 없는 잔액 저장소입니다. point.store.type=" + storeType);
+        }
+        this.pointMetrics = pointMetrics;
+        this.pointHistorySequence = pointHistorySequence;
+        this.pointHistoryColdStore = pointHistoryColdStore;
+        this.storeType = storeType;
+        this.storeInitialCapacity = storeInitialCapacity;
+        this.storeOffHeap = storeOffHeap;
+        this.poolSize = poolSize;
+        this.optimistic = "optimistic".equals(concurrencyMode);
+        this.maxRetries = maxRetries;
+        this.maxBackoffMicros = maxBackoffMicros;
+        this.idleMillis = idleMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.cacheSize = cacheSize;
+        this.historyAsync = historyAsync;
+        this.historyBufferSize = historyBufferSize;
+        this.historyBatchSize = historyBatchSize;
+    }
+
+    /**
+     * 세그먼트 보관 없이 테이블 저장소로 만든다. 내역 id 는 파티션 0 의 저장소와 같은 발급기에서 받는다. (테스트, 벤치마크)
+     */
+    public PointPartitionFactory(PointMetrics pointMetrics, PointHistorySequence pointHistorySequence, int poolSize,
+                                 String concurrencyMode, int maxRetries, long maxBackoffMicros, long lockTimeoutMillis,
+                                 int cacheSize, boolean historyAsync, int historyBufferSize, int historyBatchSize) {
+        this(pointMetrics, pointHistorySequence, PointHistoryColdStore.disabled(), "table", 0, false, poolSize, concurrencyMode,
+                maxRetries, maxBackoffMicros, 60_000, 1, lockTimeoutMillis, cacheSize, historyAsync, historyBufferSize, historyBatchSize);
+    }
+
+    public PointPartition create(int index) {
+        return create(index, newUserPointStore(), new PointHistoryTable());
+    }
+
+    /**
+     * 주어진 테이블로 파티션을 만든다. (테스트, 벤치마크에서 지연 방식을 바꾼 테이블을 넣는다)
+     */
+    public PointPartition create(int index, UserPointTable userPointTable, PointHistoryTable pointHistoryTable) {
+        return create(index, new UserPointTableStore(userPointTable), pointHistoryTable);
+    }
+
+    private PointPartition create(int index, UserPointStore userPointStore, PointHistoryTable pointHistoryTable) {
+        UserPointCache userPointCache = new UserPointCache(cacheSize);
+        UserPointRepository userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics);
+        PointHistoryWriter pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, pointMetrics,
+                historyAsync, historyBufferSize, historyBatchSize);
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(pointHistoryWriter, PointWriteAheadLog.disabled(),
+                pointHistorySequence, pointHistoryColdStore.forPartition(index));
+        PointBalanceUpdater pointBalanceUpdater = optimistic
+                ? new OptimisticPointUpdater(userPointRepository, pointHistoryRepository, pointMetrics, maxRetries, maxBackoffMicros,
+                        idleMillis, retryAfterSeconds)
+                : new PointCommandQueue(userPointRepository, pointHistoryRepository,
+                        new PointLockManager(lockTimeoutMillis, pointMetrics), new PointReadCoalescer(pointMetrics));
+        return new PointPartition(index, pointBalanceUpdater, pointHistoryRepository, userPointStore, userPointCache,
+                newExecutor(index), pointHistoryWriter);
+    }
+
+    private UserPointStore newUserPointStore() {
+        return switch (storeType) {
+            case "memory" -> new InMemoryUserPointStore();
+            case "primitive" -> new PrimitiveUserPointStore(storeInitialCapacity, storeOffHeap);
+            default -> new UserPointTableStore(new UserPointTable());
+        };
+    }
+
+    private ExecutorService newExecutor(int index) {
+        if (poolSize == 0) {
+            return null;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "point-partition-" + index + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
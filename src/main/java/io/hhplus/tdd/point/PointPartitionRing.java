@@ -0,0 +1,83 @@
+package io.hhplus.tdd.point;
+
+import java.util.Arrays;
+
+/**
+ * 유저 ID -> 파티션 번호 (consistent hashing)
+ * - 파티션마다 virtualNodes 개의 점을 해시 링 위에 두고, 유저 ID 의 해시 이후 처음 만나는 점의 파티션이 맡는다.
+ * - 점의 위치는 (파티션 번호, 점 번호)로만 정해지므로, 파티션을 하나 더하면 새 파티션의 점 앞 구간의 유저만 옮겨지고
+ *   나머지 유저의 파티션은 그대로다. (옮겨지는 유저는 전체의 1/(n+1) 정도)
+ * - 만든 뒤에는 바뀌지 않는다. 락 없이 여러 스레드에서 조회한다.
+ */
+public final class PointPartitionRing {
+
+    private final int partitionCount;
+    private final int virtualNodes;
+    // 해시 순서로 정렬된 점의 위치와, 같은 자리의 파티션 번호
+    private final long[] points;
+    private final int[] owners;
+
+    public PointPartitionRing(int partitionCount, int virtualNodes) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("파티션 수는 1 이상이어야 합니다.");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("파티션별 가상 노드 수는 1 이상이어야 합니다.");
+        }
+        this.partitionCount = partitionCount;
+        this.virtualNodes = virtualNodes;
+        int size = partitionCount * virtualNodes;
+        long[] entries = new long[size];
+        for (int partition = 0; partition < partitionCount; partition++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[partition * virtualNodes + node] = nodeHash(partition, node);
+            }
+        }
+        // 위치가 같은 점이 있어도 항상 같은 순서가 되도록 (위치, 파티션)으로 정렬한다.
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> entries[a] != entries[b] ? Long.compare(entries[a], entries[b]) : Integer.compare(a, b));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    /**
+     * 파티션을 하나 더한 링, 새 파티션의 번호는 partitionCount() 이다.
+     */
+    public PointPartitionRing withPartition() {
+        return new PointPartitionRing(partitionCount + 1, virtualNodes);
+    }
+
+    public int partitionOf(long userId) {
+        long hash = mix(userId);
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // 마지막 점 이후는 처음 점이 맡는다.
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int partitionCount() {
+        return partitionCount;
+    }
+
+    // 한번만 섞으면 작은 유저 ID 가 0 번 파티션의 점과 같은 자리에 놓이므로 한번 더 섞는다.
+    private static long nodeHash(int partition, int node) {
+        return mix(mix(((long) partition << 32) | node));
+    }
+
+    // SplitMix64 마무리 함수, 연속된 유저 ID 도 링 전체에 고르게 흩어진다.
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
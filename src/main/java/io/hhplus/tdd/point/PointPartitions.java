@@ -0,0 +1,244 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * 파티션 라우팅 (point.partition.count)
+ * - 유저 ID 를 consistent hashing(PointPartitionRing)으로 파티션 하나에 배정하고, 그 유저의 모든 요청을 그 파티션에서 처리한다.
+ * - 파티션이 1 개(기본값)이면 스프링 빈(잔액 변경, 내역 저장소)을 그대로 쓰는 파티션 하나만 두고 호출한 스레드에서 실행한다.
+ * - 2 개 이상이면 파티션마다 테이블과 하위 컴포넌트를 새로 만든다. (PointPartitionFactory)
+ *   선행 기록 로그는 스프링 빈의 내역 저장소에만 연결되어 있으므로 함께 켤 수 없다.
+ * - 재분배(addPartition)는 파티션을 하나 더하고, 새 파티션이 맡게 된 구간의 유저만 옮긴다. 서비스는 멈추지 않는다.
+ *   1. 이동 중 라우팅으로 바꾸고, 이전 라우팅으로 시작한 요청이 모두 끝나기를 기다린다.
+ *   2. 옮길 유저를 하나씩 새 파티션으로 복사한다. 그 사이 옮길 유저에게 온 요청은 먼저 그 유저를 옮긴 뒤 새 파티션에서 처리한다.
+ *      (1 이 끝날 때까지는 기다린다) 옮기지 않는 유저의 요청은 그대로 처리된다.
+ *   3. 새 링으로 라우팅을 바꾼다.
+ * - 라우팅은 volatile 참조 하나로, 요청마다 락 없이 읽는다. 진행 중인 요청 수는 라우팅마다 LongAdder 로 센다.
+ */
+@Component
+public class PointPartitions implements AutoCloseable {
+
+    // 유저 이동을 직렬화하는 락 개수, 2 의 거듭제곱
+    private static final int MOVE_STRIPES = 64;
+
+    private final PointWriteAheadLog pointWriteAheadLog;
+    private final PointPartitionFactory pointPartitionFactory;
+    private volatile Routing routing;
+
+    @Autowired
+    public PointPartitions(PointBalanceUpdater pointBalanceUpdater, PointHistoryRepository pointHistoryRepository,
+                           UserPointStore userPointStore, UserPointCache userPointCache,
+                           PointWriteAheadLog pointWriteAheadLog, PointPartitionFactory pointPartitionFactory,
+                           @Value("${point.partition.count:1}") int count,
+                           @Value("${point.partition.virtual-nodes:128}") int virtualNodes) {
+        this.pointWriteAheadLog = pointWriteAheadLog;
+        this.pointPartitionFactory = pointPartitionFactory;
+        List<PointPartition> partitions = new ArrayList<>();
+        if (count == 1) {
+            partitions.add(new PointPartition(0, pointBalanceUpdater, pointHistoryRepository, userPointStore, userPointCache,
+                    null, null));
+        } else {
+            if (pointWriteAheadLog.isEnabled()) {
+                throw new IllegalStateException("파티션을 나누면 선행 기록 로그를 사용할 수 없습니다.");
+            }
+            for (int i = 0; i < count; i++) {
+                partitions.add(pointPartitionFactory.create(i));
+            }
+        }
+        this.routing = new Routing(new PointPartitionRing(count, virtualNodes), List.copyOf(partitions), null);
+    }
+
+    /**
+     * 주어진 파티션들로 만든다. (테스트, 벤치마크)
+     */
+    public PointPartitions(List<PointPartition> partitions, PointPartitionFactory pointPartitionFactory, int virtualNodes) {
+        this.pointPartitionFactory = pointPartitionFactory;
+        this.pointWriteAheadLog = PointWriteAheadLog.disabled();
+        this.routing = new Routing(new PointPartitionRing(partitions.size(), virtualNodes), List.copyOf(partitions), null);
+    }
+
+    /**
+     * 유저의 파티션에서 충전/사용을 실행한다. (파티션 스레드)
+     */
+    public <T> T execute(long userId, Function<PointPartition, T> action) {
+        return route(userId, partition -> partition.execute(() -> action.apply(partition)));
+    }
+
+    /**
+     * 유저의 파티션에서 조회를 실행한다. (호출한 스레드)
+     */
+    public <T> T read(long userId, Function<PointPartition, T> action) {
+        return route(userId, action);
+    }
+
+    /**
+     * 지금 라우팅의 파티션 목록
+     */
+    public List<PointPartition> partitions() {
+        return routing.partitions;
+    }
+
+    public int partitionCount() {
+        return routing.partitions.size();
+    }
+
+    public int partitionOf(long userId) {
+        return routing.ring.partitionOf(userId);
+    }
+
+    /**
+     * 파티션을 하나 더하고 새 파티션이 맡을 유저를 옮긴다. 재분배는 한번에 하나씩 실행된다.
+     */
+    public synchronized Rebalance addPartition() {
+        if (pointWriteAheadLog.isEnabled()) {
+            throw new IllegalStateException("선행 기록 로그를 사용하는 중에는 파티션을 나눌 수 없습니다.");
+        }
+        long startedAt = System.nanoTime();
+        Routing current = routing;
+        PointPartition added = pointPartitionFactory.create(current.partitions.size());
+        List<PointPartition> partitions = new ArrayList<>(current.partitions);
+        partitions.add(added);
+        Migration migration = new Migration(current.ring, current.ring.withPartition(), List.copyOf(partitions));
+        Routing migrating = new Routing(current.ring, migration.partitions, migration);
+
+        routing = migrating;
+        awaitCompletion(current);
+        migration.ready.countDown();
+
+        for (PointPartition source : current.partitions) {
+            for (Long userId : source.userIds()) {
+                // 이전 재분배에서 다른 파티션으로 옮겨간 유저는 건너뛴다.
+                if (current.ring.partitionOf(userId) == source.index() && migration.moving(userId)) {
+                    migration.move(userId);
+                }
+            }
+        }
+        routing = new Routing(migration.next, migration.partitions, null);
+        return new Rebalance(added.index(), migration.moved.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (PointPartition partition : routing.partitions) {
+            partition.close();
+        }
+    }
+
+    private <T> T route(long userId, Function<PointPartition, T> action) {
+        while (true) {
+            Routing current = routing;
+            current.active.increment();
+            try {
+                // 카운트를 올리기 전에 라우팅이 바뀌었으면, 재분배가 이 요청을 기다리지 않았을 수 있으므로 다시 읽는다.
+                if (routing != current) {
+                    continue;
+                }
+                Migration migration = current.migration;
+                if (migration == null || !migration.moving(userId)) {
+                    return action.apply(current.partitions.get(current.ring.partitionOf(userId)));
+                }
+                migration.move(userId);
+                return action.apply(current.partitions.get(migration.next.partitionOf(userId)));
+            } finally {
+                current.active.decrement();
+            }
+        }
+    }
+
+    // 이 라우팅으로 시작한 요청이 모두 끝날 때까지 기다린다. 새 요청은 이미 다음 라우팅을 읽는다.
+    private static void awaitCompletion(Routing routing) {
+        while (routing.active.sum() > 0) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * 재분배 결과
+     *
+     * @param partition    새로 더한 파티션 번호
+     * @param movedUsers   옮긴 유저 수
+     * @param elapsedMillis 걸린 시간(ms)
+     */
+    public record Rebalance(int partition, int movedUsers, long elapsedMillis) {
+    }
+
+    private static final class Routing {
+        private final PointPartitionRing ring;
+        private final List<PointPartition> partitions;
+        private final Migration migration;
+        private final LongAdder active = new LongAdder();
+
+        private Routing(PointPartitionRing ring, List<PointPartition> partitions, Migration migration) {
+            this.ring = ring;
+            this.partitions = partitions;
+            this.migration = migration;
+        }
+    }
+
+    private static final class Migration {
+        private final PointPartitionRing previous;
+        private final PointPartitionRing next;
+        private final List<PointPartition> partitions;
+        private final Set<Long> moved = ConcurrentHashMap.newKeySet();
+        private final Object[] stripes = new Object[MOVE_STRIPES];
+        // 이전 라우팅으로 시작한 요청이 모두 끝나면 열린다.
+        private final CountDownLatch ready = new CountDownLatch(1);
+
+        private Migration(PointPartitionRing previous, PointPartitionRing next, List<PointPartition> partitions) {
+            this.previous = previous;
+            this.next = next;
+            this.partitions = partitions;
+            for (int i = 0; i < MOVE_STRIPES; i++) {
+                stripes[i] = new Object();
+            }
+        }
+
+        private boolean moving(long userId) {
+            return previous.partitionOf(userId) != next.partitionOf(userId);
+        }
+
+        /**
+         * 아직 옮기지 않은 유저면 옮긴다. 유저마다 한번만 옮기고, 옮기는 동안 같은 유저의 요청은 기다린다.
+         */
+        private void move(long userId) {
+            if (moved.contains(userId)) {
+                return;
+            }
+            awaitReady();
+            synchronized (stripes[Long.hashCode(userId) & (MOVE_STRIPES - 1)]) {
+                if (moved.contains(userId)) {
+                    return;
+                }
+                partitions.get(previous.partitionOf(userId)).moveTo(userId, partitions.get(next.partitionOf(userId)));
+                moved.add(userId);
+            }
+        }
+
+        private void awaitReady() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    ready.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 같은 유저의 동시 잔액 조회 합치기 (single-flight)
+ * - 유저마다 진행 중인 조회를 하나만 두고, 그 사이 들어온 조회는 새로 읽지 않고 같은 결과를 받는다.
+ * - 조회는 실제로 읽기 직전(유저 락을 잡은 뒤)에 목록에서 빠진다. 그 뒤에 들어온 조회는 새로 읽으므로,
+ *   합쳐진 조회도 자신이 도착하기 전에 끝난 충전/사용보다 과거 값을 받지 않는다.
+ * - 읽기에 실패하면 합쳐진 조회도 같은 예외로 실패한다.
+ */
+@Component
+public class PointReadCoalescer {
+
+    private final PointMetrics pointMetrics;
+    private final ConcurrentHashMap<Long, CompletableFuture<UserPoint>> flights = new ConcurrentHashMap<>();
+
+    public PointReadCoalescer(PointMetrics pointMetrics) {
+        this.pointMetrics = pointMetrics;
+    }
+
+    /**
+     * 진행 중인 조회가 있으면 그 결과를 기다리고, 없으면 loader 로 직접 읽는다.
+     * loader 는 읽기 직전에 넘겨받은 Runnable 을 실행해서 이후 조회가 합쳐지지 않게 해야 한다.
+     */
+    public UserPoint load(long userId, Function<Runnable, UserPoint> loader) {
+        CompletableFuture<UserPoint> flight = new CompletableFuture<>();
+        CompletableFuture<UserPoint> existing = flights.putIfAbsent(userId, flight);
+        if (existing != null) {
+            pointMetrics.recordReadCoalesced();
+            return await(existing);
+        }
+        pointMetrics.recordReadLoad();
+        try {
+            UserPoint userPoint = loader.apply(() -> flights.remove(userId, flight));
+            flight.complete(userPoint);
+            return userPoint;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(userId, flight);
+        }
+    }
+
+    /**
+     * 읽기를 기다리는 중인 유저 수
+     */
+    public int pendingCount() {
+        return flights.size();
+    }
+
+    private static UserPoint await(CompletableFuture<UserPoint> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 잔액 대사 결과
+ *
+ * @param cutId          대사한 마지막 내역 id, 이 id 까지의 내역을 더했다.
+ * @param users          대사한 유저 수
+ * @param histories      더한 내역 수
+ * @param mismatchCount  잔액이 내역 합계와 다른 유저 수
+ * @param mismatches     다른 유저 중 앞의 일부 (point.reconcile.report-limit)
+ * @param unsettled      다시 확인하는 동안에도 충전/사용이 이어져 판단하지 못한 유저 수
+ * @param elapsedMillis  걸린 시간(ms)
+ */
+public record PointReconciliationReport(
+        long cutId,
+        int users,
+        long histories,
+        int mismatchCount,
+        List<Mismatch> mismatches,
+        int unsettled,
+        long elapsedMillis
+) {
+
+    /**
+     * 잔액이 내역 합계와 다른 유저
+     *
+     * @param point    잔액 저장소의 잔액
+     * @param expected 내역 합계
+     */
+    public record Mismatch(
+            long userId,
+            long point,
+            long expected
+    ) {
+    }
+}
@@ -0,0 +1,28 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 규칙 위반으로 거절된 요청
+ * - 거절 사유별로 집계할 수 있도록 사유를 함께 담는다.
+ */
+public class PointRejectedException extends IllegalArgumentException {
+
+    public enum Reason {
+        /** 충전 한도 초과 */
+        OVER_CAP,
+        /** 잔액 부족 */
+        INSUFFICIENT_BALANCE,
+        /** 잘못된 금액 */
+        INVALID_AMOUNT
+    }
+
+    private final Reason reason;
+
+    public PointRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,116 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 컨트롤러 요청 실행기
+ * - 비동기 모드(point.async.enabled=true)에서는 테이블 호출처럼 오래 걸리는 작업을 전용 스레드 풀에서 실행하고,
+ *   톰캣 스레드는 CompletableFuture 를 돌려준 뒤 바로 반환된다.
+ * - 동기 모드에서는 호출한 스레드에서 바로 실행한다.
+ * - 큐 대기 시간, 처리/거절 건수를 기록한다.
+ */
+@Component
+public class PointRequestExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public PointRequestExecutor(@Value("${point.async.enabled:false}") boolean enabled,
+                                @Value("${point.async.pool-size:64}") int poolSize,
+                                @Value("${point.async.queue-capacity:10000}") int queueCapacity) {
+        this.executor = enabled ? newExecutor(poolSize, queueCapacity) : null;
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (executor == null) {
+            T result = task.get();
+            completed.increment();
+            return CompletableFuture.completedFuture(result);
+        }
+        long submittedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            long waited = System.nanoTime() - submittedAt;
+            queueWaitNanos.add(waited);
+            maxQueueWaitNanos.accumulate(waited);
+            try {
+                return task.get();
+            } finally {
+                completed.increment();
+            }
+        }, executor);
+    }
+
+    public int activeCount() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    public int queuedCount() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public int poolSize() {
+        return executor == null ? 0 : executor.getMaximumPoolSize();
+    }
+
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    public long rejectedCount() {
+        return executor == null ? 0 : ((CountingAbortPolicy) executor.getRejectedExecutionHandler()).rejected.sum();
+    }
+
+    public long totalQueueWaitNanos() {
+        return queueWaitNanos.sum();
+    }
+
+    public long maxQueueWaitNanos() {
+        return maxQueueWaitNanos.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int poolSize, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "point-request-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new CountingAbortPolicy());
+    }
+
+    private static final class CountingAbortPolicy extends ThreadPoolExecutor.AbortPolicy {
+        private final LongAdder rejected = new LongAdder();
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            super.rejectedExecution(runnable, executor);
+        }
+    }
+}
@@ -1,45 +1,38 @@
 package io.hhplus.tdd.point;
 
-import io.hhplus.tdd.database.UserPointTable;
-import io.hhplus.tdd.database.PointHistoryTable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class PointService {
 
-    private final UserPointTable userPointTable;
-    private final PointHistoryTable pointHistoryTable;
+    private static final int MAX_HISTORY_PAGE_SIZE = 1000;
 
-    public PointService(UserPointTable userPointTable, PointHistoryTable pointHistoryTable) {
-        this.userPointTable = userPointTable;
-        this.pointHistoryTable = pointHistoryTable;
+    private final PointPartitions pointPartitions;
+    private final PointMetrics pointMetrics;
+
+    public PointService(PointPartitions pointPartitions, PointMetrics pointMetrics) {
+        this.pointPartitions = pointPartitions;
+        this.pointMetrics = pointMetrics;
     }
 
     /**
      * 포인트 충전
      */
     public UserPoint charge(long id, long amount) {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("충전금액은 0보다 커야 합니다.");
-        }
-        if (amount > 100000) {
-            throw new IllegalArgumentException("충전금액은 100,000을 넘을 수 없습니다.");
-        }
-
-        UserPoint userPoint = userPointTable.selectById(id);
-
-        long newBalance = userPoint.point() + amount;
-        if (newBalance > 100000) {
-            throw new IllegalArgumentException("충전한도는 100,000 까지 입니다. 충전에 실패하였습니다.");
-        }
-
-        userPoint = userPointTable.insertOrUpdate(id, newBalance);
-
-        pointHistoryTable.insert(id, amount, TransactionType.CHARGE, System.currentTimeMillis());
-
-        return userPoint;  // 업데이트된 포인트 정보 반환
+        return pointMetrics.recordOperation(PointMetrics.Operation.CHARGE, id, () -> {
+            if (amount <= 0) {
+                throw new PointRejectedException(PointRejectedException.Reason.INVALID_AMOUNT, "충전금액은 0보다 커야 합니다.");
+            }
+            if (amount > 100000) {
+                throw new PointRejectedException(PointRejectedException.Reason.OVER_CAP, "충전금액은 100,000을 넘을 수 없습니다.");
+            }
+
+            return pointPartitions.execute(id, partition ->
+                    partition.balanceUpdater().execute(id, TransactionType.CHARGE, amount));  // 업데이트된 포인트 정보 반환
+        });
     }
 
 
@@ -47,36 +40,64 @@ public class PointService {
     /**
      * 포인트 사용
      */
-    public synchronized UserPoint use(long id, long amount) {
-        UserPoint userPoint = userPointTable.selectById(id);
-
-        if (userPoint == null) {
-            throw new IllegalArgumentException("유저 정보가 존재하지 않습니다.");
-        }
-
-        if (userPoint.point() < amount) {
-            throw new IllegalArgumentException("포인트가 부족합니다.");
-        }
-
-        long newBalance = userPoint.point() - amount;
-        userPoint = userPointTable.insertOrUpdate(id, newBalance);
-
-        pointHistoryTable.insert(id, amount, TransactionType.USE, System.currentTimeMillis());
-
-        return userPoint;  // 사용 후 업데이트된 포인트 정보 반환
+    public UserPoint use(long id, long amount) {
+        return pointMetrics.recordOperation(PointMetrics.Operation.USE, id,
+                () -> pointPartitions.execute(id, partition ->
+                        partition.balanceUpdater().execute(id, TransactionType.USE, amount)));  // 사용 후 업데이트된 포인트 정보 반환
     }
 
     /**
      * 포인트 조회
      */
     public UserPoint point(long id) {
-        return userPointTable.selectById(id);
+        return pointMetrics.recordOperation(PointMetrics.Operation.POINT, id,
+                () -> pointPartitions.read(id, partition -> partition.balanceUpdater().current(id)));
+    }
+
+    /**
+     * 특정 시점의 포인트 조회
+     * 내역 색인의 누적 잔액으로 답하고, 남은 내역이 없는 유저는 그 사이 잔액이 바뀌지 않았으므로 현재 포인트를 돌려준다.
+     */
+    public UserPoint pointAt(long id, long atMillis) {
+        return pointMetrics.recordOperation(PointMetrics.Operation.POINT, id, () -> pointPartitions.read(id, partition -> {
+            UserPoint userPoint = partition.historyRepository().balanceAt(id, atMillis);
+            return userPoint != null ? userPoint : partition.balanceUpdater().current(id);
+        }));
     }
 
     /**
      * 포인트 사용/충전 내역 조회
      */
     public List<PointHistory> history(long id) {
-        return pointHistoryTable.selectAllByUserId(id);
+        return pointMetrics.recordOperation(PointMetrics.Operation.HISTORY, id,
+                () -> pointPartitions.read(id, partition -> partition.historyRepository().findAllByUserId(id)));
+    }
+
+    /**
+     * 포인트 사용/충전 집계 조회
+     */
+    public PointSummary summary(long id) {
+        return pointMetrics.recordOperation(PointMetrics.Operation.SUMMARY, id,
+                () -> pointPartitions.read(id, partition -> partition.historyRepository().summarize(id, System.currentTimeMillis())));
+    }
+
+    /**
+     * 포인트 사용/충전 내역 페이지 조회
+     */
+    public PointHistoryPage historyPage(long id, PointHistoryQuery query, int size) {
+        if (size <= 0 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("페이지 크기는 1 이상 1,000 이하여야 합니다.");
+        }
+        return pointPartitions.read(id, partition -> partition.historyRepository().findPage(id, query, size));
+    }
+
+    /**
+     * 포인트 사용/충전 내역을 한 건씩 consumer 에 넘긴다.
+     */
+    public void streamHistory(long id, PointHistoryQuery query, Consumer<PointHistory> consumer) {
+        // 응답을 쓰는 동안 재분배가 기다리지 않도록 저장소만 골라두고 라우팅 밖에서 읽는다.
+        // 그 사이 유저가 옮겨져도 원래 파티션의 내역은 지워지지 않으므로 시작 시점까지의 내역은 온전하다.
+        PointHistoryRepository pointHistoryRepository = pointPartitions.read(id, PointPartition::historyRepository);
+        pointHistoryRepository.forEach(id, query, consumer);
     }
 }
@@ -0,0 +1,413 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 유저 잔액 스냅샷과 로그 정리
+ * - 주기적으로 다 채워진 로그 세그먼트를 직전 스냅샷에 접어 새 스냅샷을 만든다.
+ *   살아있는 잔액 저장소를 읽지 않으므로 충전/사용을 멈추지 않고도 특정 내역 id 시점의 잔액이 된다.
+ * - 스냅샷 파일은 유저 ID 순서로 정렬되어 있어, 직전 스냅샷을 한번 읽으면서 바뀐 유저만 합쳐 쓴다.
+ *   [magic 4][version 4][lastId 8] + 유저마다 [userId 8][point 8][updateMillis 8] + [count 8][crc32c 4]
+ * - 임시 파일에 쓰고 디스크에 반영한 뒤 이름을 바꾸므로, 쓰다가 죽어도 직전 스냅샷이 남는다.
+ * - 스냅샷에 포함된 세그먼트는 compaction 설정에 따라 보관 디렉토리로 옮기거나(ARCHIVE) 지운다(DELETE).
+ *   스냅샷에 포함된 내역은 재시작 뒤의 내역 조회에서 빠지고 시점 잔액은 스냅샷 잔액에서 시작한다.
+ *   그래서 시작 시간은 전체 내역 수가 아니라 스냅샷 이후의 로그 길이에 비례한다.
+ * - replay-archive 를 켜면 재시작 시 보관한 세그먼트를 모두 다시 읽어 내역 조회(목록, 페이지, 시점 잔액, 요약, 대사)에 되살린다.
+ *   (replayArchived) 그 대신 시작 시간과 색인 메모리가 다시 전체 내역 수에 비례하므로 기본값은 꺼져 있다.
+ * - 시작 시에는 가장 최근의 온전한 스냅샷을 읽고 그 뒤의 로그만 다시 적용한다. (PointLedgerRecovery)
+ */
+@Component
+public class PointSnapshotter implements AutoCloseable {
+
+    public enum Compaction {
+        NONE, ARCHIVE, DELETE
+    }
+
+    /**
+     * 스냅샷에서 읽은 유저 잔액을 받는다.
+     */
+    @FunctionalInterface
+    public interface BalanceConsumer {
+        void accept(long userId, long point, long updateMillis);
+    }
+
+    private static final int MAGIC = 0x50534E50;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 24;
+    private static final int TRAILER_BYTES = 12;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private static final Logger log = LoggerFactory.getLogger(PointSnapshotter.class);
+
+    private final PointWriteAheadLog pointWriteAheadLog;
+    private final Path directory;
+    private final Compaction compaction;
+    private final Path archiveDirectory;
+    private final boolean replayArchive;
+    private final int retain;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public PointSnapshotter(PointWriteAheadLog pointWriteAheadLog,
+                            @Value("${point.snapshot.enabled:false}") boolean enabled,
+                            @Value("${point.snapshot.directory:data/snapshot}") String directory,
+                            @Value("${point.snapshot.interval-seconds:60}") long intervalSeconds,
+                            @Value("${point.snapshot.compaction:ARCHIVE}") Compaction compaction,
+                            @Value("${point.snapshot.archive-directory:data/wal-archive}") String archiveDirectory,
+                            @Value("${point.snapshot.replay-archive:false}") boolean replayArchive,
+                            @Value("${point.snapshot.retain:2}") int retain) {
+        this.pointWriteAheadLog = pointWriteAheadLog;
+        this.directory = Path.of(directory);
+        this.compaction = compaction;
+        this.archiveDirectory = Path.of(archiveDirectory);
+        this.replayArchive = replayArchive;
+        this.retain = Math.max(1, retain);
+        this.scheduler = enabled && pointWriteAheadLog.isEnabled() ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 보관한 세그먼트를 다시 읽지 않는다. (테스트, 벤치마크)
+     */
+    public PointSnapshotter(PointWriteAheadLog pointWriteAheadLog, boolean enabled, String directory, long intervalSeconds,
+                            Compaction compaction, String archiveDirectory, int retain) {
+        this(pointWriteAheadLog, enabled, directory, intervalSeconds, compaction, archiveDirectory, false, retain);
+    }
+
+    /**
+     * 가장 최근의 온전한 스냅샷을 읽어 유저마다 consumer 에 넘기고, 스냅샷의 마지막 내역 id 를 반환한다.
+     * 스냅샷이 없으면 0 을 반환한다.
+     */
+    public long load(BalanceConsumer consumer) {
+        if (!pointWriteAheadLog.isEnabled()) {
+            return 0;
+        }
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            long start = System.nanoTime();
+            try (SnapshotReader reader = new SnapshotReader(path)) {
+                // crc 를 확인한 뒤에 넘겨야 하므로, 한번 검사하고 다시 읽는다.
+                reader.verify();
+            } catch (IOException | IllegalStateException e) {
+                log.warn("손상된 스냅샷을 건너뜁니다. snapshot={}", path, e);
+                continue;
+            }
+            try (SnapshotReader reader = new SnapshotReader(path)) {
+                while (reader.next()) {
+                    consumer.accept(reader.userId, reader.point, reader.updateMillis);
+                }
+                log.info("스냅샷을 읽었습니다. snapshot={}, users={}, elapsed={}ms",
+                        path, reader.count, (System.nanoTime() - start) / 1_000_000);
+                return reader.lastId;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * replay-archive 가 켜져 있으면 보관 디렉토리로 옮긴 세그먼트의 내역을 id 순서대로 consumer 에 넘기고,
+     * 마지막 내역 id 를 반환한다. compaction 설정을 바꾸기 전에 보관한 세그먼트도 읽는다. 꺼져 있으면 0 을 반환한다.
+     */
+    public long replayArchived(Consumer<PointHistory> consumer) {
+        return replayArchive ? pointWriteAheadLog.replayArchive(archiveDirectory, consumer) : 0;
+    }
+
+    /**
+     * 다 채워진 세그먼트까지 스냅샷을 만들고 스냅샷에 포함된 세그먼트를 정리한다.
+     * 새로 만든(또는 이미 최신인) 스냅샷의 마지막 내역 id 를 반환한다.
+     */
+    public synchronized long snapshot() throws IOException {
+        List<Path> snapshots = snapshots();
+        Path previous = snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+        long baseId = previous == null ? 0 : snapshotId(previous);
+        if (pointWriteAheadLog.sealedLastId() <= baseId) {
+            return baseId;
+        }
+
+        long start = System.nanoTime();
+        if (previous != null) {
+            // 손상된 스냅샷에 이어 쓰지 않는다.
+            try (SnapshotReader reader = new SnapshotReader(previous)) {
+                reader.verify();
+            }
+        }
+        // 직전 스냅샷 이후 바뀐 유저만 [잔액 변화, 마지막 갱신 시각] 으로 모은다.
+        Map<Long, long[]> changes = new HashMap<>();
+        long lastId = pointWriteAheadLog.replaySealed(baseId, pointHistory -> {
+            long[] change = changes.computeIfAbsent(pointHistory.userId(), id -> new long[2]);
+            change[0] += pointHistory.type() == TransactionType.CHARGE ? pointHistory.amount() : -pointHistory.amount();
+            change[1] = pointHistory.updateMillis();
+        });
+        long[] changedUsers = changes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(lastId));
+        Path temp = directory.resolve(fileName(lastId) + ".tmp");
+        long count = 0;
+        try (SnapshotWriter writer = new SnapshotWriter(temp, lastId);
+             SnapshotReader reader = previous == null ? null : new SnapshotReader(previous)) {
+            boolean hasPrevious = reader != null && reader.next();
+            int i = 0;
+            while (hasPrevious || i < changedUsers.length) {
+                if (i == changedUsers.length || (hasPrevious && reader.userId < changedUsers[i])) {
+                    writer.write(reader.userId, reader.point, reader.updateMillis);
+                    hasPrevious = reader.next();
+                } else {
+                    long userId = changedUsers[i++];
+                    long[] change = changes.get(userId);
+                    long point = change[0];
+                    if (hasPrevious && reader.userId == userId) {
+                        point += reader.point;
+                        hasPrevious = reader.next();
+                    }
+                    writer.write(userId, point, change[1]);
+                }
+                count++;
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        fsyncDirectory(directory);
+
+        int released = compaction == Compaction.NONE ? 0 : pointWriteAheadLog.release(lastId, this::dispose);
+        deleteOldSnapshots();
+        log.info("스냅샷을 만들었습니다. snapshot={}, users={}, changedUsers={}, releasedSegments={}, elapsed={}ms",
+                target, count, changedUsers.length, released, (System.nanoTime() - start) / 1_000_000);
+        return lastId;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("스냅샷을 만들지 못했습니다.", e);
+        }
+    }
+
+    private void dispose(Path segment) {
+        try {
+            if (compaction == Compaction.DELETE) {
+                Files.delete(segment);
+                return;
+            }
+            Files.createDirectories(archiveDirectory);
+            Files.move(segment, archiveDirectory.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (Path path : snapshots.subList(0, Math.max(0, snapshots.size() - retain))) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private List<Path> snapshots() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileName(long lastId) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, lastId, SNAPSHOT_SUFFIX);
+    }
+
+    private static long snapshotId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private static void fsyncDirectory(Path directory) {
+        // 디렉토리를 열 수 없는 플랫폼에서는 이름 변경의 반영을 OS 에 맡긴다.
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+
+        }
+    }
+
+    private static final class SnapshotWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+        private long count;
+
+        private SnapshotWriter(Path path, long lastId) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(lastId);
+        }
+
+        private void write(long userId, long point, long updateMillis) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putLong(userId).putLong(point).putLong(updateMillis);
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                if (buffer.remaining() < TRAILER_BYTES) {
+                    flush();
+                }
+                buffer.putLong(count);
+                crc.update(buffer.array(), 0, buffer.position());
+                buffer.putInt((int) crc.getValue());
+                buffer.flip();
+                writeFully();
+                channel.force(true);
+            }
+        }
+
+        private void flush() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            writeFully();
+            buffer.clear();
+        }
+
+        private void writeFully() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static final class SnapshotReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final long lastId;
+        private final long count;
+        private long read;
+        private long userId;
+        private long point;
+        private long updateMillis;
+
+        private SnapshotReader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            long body = channel.size() - HEADER_BYTES - TRAILER_BYTES;
+            if (body < 0 || body % RECORD_BYTES != 0) {
+                channel.close();
+                throw new IllegalStateException("스냅샷 크기가 맞지 않습니다. snapshot=" + path);
+            }
+            buffer.limit(0);
+            fill(HEADER_BYTES);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                channel.close();
+                throw new IllegalStateException("스냅샷 형식이 아닙니다. snapshot=" + path);
+            }
+            this.lastId = buffer.getLong();
+            this.count = body / RECORD_BYTES;
+        }
+
+        private boolean next() throws IOException {
+            if (read == count) {
+                return false;
+            }
+            fill(RECORD_BYTES);
+            userId = buffer.getLong();
+            point = buffer.getLong();
+            updateMillis = buffer.getLong();
+            read++;
+            return true;
+        }
+
+        /**
+         * 파일 전체의 crc 를 계산해 끝에 붙은 건수, crc 와 비교한다.
+         */
+        private void verify() throws IOException {
+            CRC32C crc = new CRC32C();
+            long length = channel.size() - Integer.BYTES;
+            ByteBuffer chunk = ByteBuffer.allocate(BUFFER_BYTES);
+            for (long position = 0; position < length; ) {
+                chunk.clear().limit((int) Math.min(chunk.capacity(), length - position));
+                int bytes = channel.read(chunk, position);
+                if (bytes < 0) {
+                    throw new IllegalStateException("스냅샷이 끝까지 기록되지 않았습니다.");
+                }
+                crc.update(chunk.array(), 0, chunk.position());
+                position += bytes;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            channel.read(trailer, length - Long.BYTES);
+            if (trailer.getLong(0) != count) {
+                throw new IllegalStateException("스냅샷 건수가 맞지 않습니다.");
+            }
+            if (trailer.getInt(Long.BYTES) != (int) crc.getValue()) {
+                throw new IllegalStateException("스냅샷 crc 가 맞지 않습니다.");
+            }
+        }
+
+        /**
+         * 버퍼에 최소 bytes 만큼 읽혀 있도록 채운다.
+         */
+        private void fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IllegalStateException("스냅샷이 끝까지 기록되지 않았습니다.");
+                }
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
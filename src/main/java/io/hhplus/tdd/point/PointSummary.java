@@ -0,0 +1,36 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 유저별 포인트 내역 집계
+ * - 누적 충전/사용 금액과 건수
+ * - hourly / daily : 조회 시점 기준 최근 구간(시간 단위 48 개, 일 단위 30 개, UTC 기준)의 구간별 집계
+ *   내역이 있는 구간만 시작 시각 순서대로 담는다.
+ */
+public record PointSummary(
+        long userId,
+        long chargedAmount,
+        long chargedCount,
+        long usedAmount,
+        long usedCount,
+        List<Bucket> hourly,
+        List<Bucket> daily
+) {
+
+    /**
+     * 한 구간의 집계, startMillis 는 구간 시작 시각
+     */
+    public record Bucket(
+            long startMillis,
+            long chargedAmount,
+            long chargedCount,
+            long usedAmount,
+            long usedCount
+    ) {
+    }
+
+    public static PointSummary empty(long userId) {
+        return new PointSummary(userId, 0, 0, 0, 0, List.of(), List.of());
+    }
+}
@@ -0,0 +1,27 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 포인트 API 웹 설정
+ * - 유저 단위 요청에 요청 수용 제어를 건다.
+ *   오래 열려 있는 스트리밍 응답, 변경 피드와 일괄 처리는 응답 시간이 한도 조정을 흐리므로 제외한다.
+ */
+@Configuration
+public class PointWebConfig implements WebMvcConfigurer {
+
+    private final PointAdmissionInterceptor pointAdmissionInterceptor;
+
+    public PointWebConfig(PointAdmissionInterceptor pointAdmissionInterceptor) {
+        this.pointAdmissionInterceptor = pointAdmissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(pointAdmissionInterceptor)
+                .addPathPatterns("/point/*", "/point/*/**")
+                .excludePathPatterns("/point/batch", "/point/events", "/point/*/histories/stream");
+    }
+}
@@ -0,0 +1,536 @@
+package io.hhplus.tdd.point;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 포인트 내역 선행 기록 로그 (write-ahead log)
+ * - 내역 한 건을 40 바이트 고정 크기 레코드로 미리 크기를 잡아둔 세그먼트 파일(memory-mapped)에 덧붙인다.
+ *   [id 8][userId 8][amount 8][updateMillis 8][type 1][padding 3][crc32c 4]
+ * - 세그먼트가 가득 차면 디스크에 반영한 뒤 다음 세그먼트로 넘어간다. 파일 이름은 첫 내역 id 이다.
+ * - fsync 정책
+ *   - ALWAYS : sync 를 호출한 스레드가 바로 디스크에 반영한다. 동시에 기다리던 요청은 한번의 반영으로 함께 끝난다.
+ *   - GROUP : 백그라운드 스레드가 group-commit-millis 마다 반영하고, sync 는 그때까지 기다린다.
+ *   - OS : 반영 시점을 OS 에 맡긴다. 프로세스가 죽어도 남지만 장비가 죽으면 마지막 내역을 잃을 수 있다.
+ * - 다 채워진 세그먼트는 바뀌지 않으므로 덧붙이기와 동시에 읽을 수 있고, 스냅샷에 포함된 뒤에는 로그에서 떼어낼 수 있다.
+ *   보관 디렉토리로 옮긴 세그먼트는 시작 시 내역 조회를 되살리도록 다시 읽을 수 있다. (replayArchive)
+ * - 시작 시 세그먼트를 검사해 crc 가 맞지 않거나 id 가 거꾸로 가는 레코드부터는 버리고 그 자리부터 이어 쓴다.
+ * - 비활성화(point.wal.enabled=false)하면 아무것도 기록하지 않는다.
+ */
+@Component
+public class PointWriteAheadLog implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        ALWAYS, GROUP, OS
+    }
+
+    static final int RECORD_BYTES = 40;
+    private static final int CRC_OFFSET = 36;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final Logger log = LoggerFactory.getLogger(PointWriteAheadLog.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final FsyncPolicy fsyncPolicy;
+    private final long groupCommitMillis;
+    private final Thread flusher;
+
+    private final List<Segment> sealed = new ArrayList<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    // 디스크 반영은 한 스레드씩, 반영하는 동안에도 덧붙이기는 계속된다.
+    private final Object forceLock = new Object();
+
+    private Segment active;
+    private long lastAppendedId;
+    private long durableId;
+    private volatile boolean running;
+
+    public PointWriteAheadLog(@Value("${point.wal.enabled:false}") boolean enabled,
+                              @Value("${point.wal.directory:data/wal}") String directory,
+                              @Value("${point.wal.segment-bytes:67108864}") int segmentBytes,
+                              @Value("${point.wal.fsync:GROUP}") FsyncPolicy fsyncPolicy,
+                              @Value("${point.wal.group-commit-millis:5}") long groupCommitMillis) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.recordsPerSegment = Math.max(1, segmentBytes / RECORD_BYTES);
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitMillis = Math.max(1, groupCommitMillis);
+        if (enabled) {
+            open();
+        }
+        this.running = enabled;
+        this.flusher = enabled && fsyncPolicy == FsyncPolicy.GROUP ? new Thread(this::flushLoop, "point-wal-flusher") : null;
+        if (flusher != null) {
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * 아무것도 기록하지 않는 로그
+     */
+    public static PointWriteAheadLog disabled() {
+        return new PointWriteAheadLog(false, "", RECORD_BYTES, FsyncPolicy.OS, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 내역을 로그 끝에 덧붙인다. id 는 앞서 덧붙인 내역보다 커야 한다.
+     * 디스크 반영을 기다리지 않으므로, 응답 전에 sync 를 호출한다.
+     */
+    public void append(PointHistory pointHistory) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (!running) {
+                throw new IllegalStateException("포인트 내역 로그가 닫혔습니다.");
+            }
+            if (pointHistory.id() <= lastAppendedId) {
+                throw new IllegalArgumentException("내역 id 는 앞선 내역보다 커야 합니다. id=" + pointHistory.id());
+            }
+            if (active == null || active.position == active.capacity) {
+                roll(pointHistory.id());
+            }
+            encode(pointHistory);
+            active.buffer.put(active.position * RECORD_BYTES, record.array());
+            active.position++;
+            active.lastId = pointHistory.id();
+            lastAppendedId = pointHistory.id();
+        }
+    }
+
+    /**
+     * 주어진 id 까지의 내역이 fsync 정책에 따라 디스크에 반영될 때까지 기다린다.
+     */
+    public void sync(long historyId) {
+        if (!enabled || fsyncPolicy == FsyncPolicy.OS) {
+            return;
+        }
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            synchronized (this) {
+                while (durableId < historyId && running) {
+                    try {
+                        wait(groupCommitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("포인트 내역 로그 반영을 기다리다 중단되었습니다.", e);
+                    }
+                }
+            }
+        }
+        // ALWAYS 이거나 반영 스레드가 멈춘 경우 직접 반영한다.
+        if (durableId() < historyId) {
+            force();
+        }
+    }
+
+    /**
+     * 로그에 남은 내역을 id 순서대로 consumer 에 넘기고, 마지막 내역 id 를 반환한다.
+     */
+    public long replay(Consumer<PointHistory> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        List<Segment> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(sealed);
+            if (active != null) {
+                segments.add(active);
+            }
+        }
+        return replay(segments, 0, consumer);
+    }
+
+    /**
+     * 다 채워진 세그먼트에서 afterId 보다 큰 내역을 id 순서대로 consumer 에 넘기고, 마지막 내역 id 를 반환한다.
+     * 덧붙이기와 동시에 호출할 수 있다.
+     */
+    public long replaySealed(long afterId, Consumer<PointHistory> consumer) {
+        List<Segment> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(sealed);
+        }
+        return replay(segments, afterId, consumer);
+    }
+
+    /**
+     * 스냅샷으로 떼어내 archiveDirectory 에 옮긴 세그먼트의 내역을 id 순서대로 consumer 에 넘기고, 마지막 내역 id 를 반환한다.
+     * 로그에 남은 첫 내역부터는 넘기지 않는다. crc 가 맞지 않거나 id 가 거꾸로 가는 레코드부터는 그 세그먼트에서 버린다.
+     * 시작 시 로그를 다시 적용하기 전에 호출한다.
+     */
+    public long replayArchive(Path archiveDirectory, Consumer<PointHistory> consumer) {
+        if (!enabled || !Files.isDirectory(archiveDirectory)) {
+            return 0;
+        }
+        long firstLiveId = firstId();
+        CRC32C checksum = new CRC32C();
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_BYTES * 1024);
+        List<Path> paths;
+        try {
+            paths = segmentPaths(archiveDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long lastId = 0;
+        for (Path path : paths) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long position = 0;
+                boolean valid = true;
+                while (valid) {
+                    chunk.clear();
+                    if (channel.read(chunk, position) <= 0) {
+                        break;
+                    }
+                    int records = chunk.position() / RECORD_BYTES;
+                    if (records == 0) {
+                        break;
+                    }
+                    for (int i = 0; i < records && valid; i++) {
+                        int offset = i * RECORD_BYTES;
+                        long id = chunk.getLong(offset);
+                        checksum.reset();
+                        checksum.update(chunk.slice(offset, CRC_OFFSET));
+                        if (id == 0 || id >= firstLiveId) {
+                            valid = false;
+                        } else if ((int) checksum.getValue() != chunk.getInt(offset + CRC_OFFSET) || id <= lastId) {
+                            log.warn("보관된 포인트 내역 로그의 손상된 레코드부터 버립니다. segment={}, id={}", path, id);
+                            valid = false;
+                        } else {
+                            consumer.accept(decode(chunk, offset));
+                            lastId = id;
+                        }
+                    }
+                    position += (long) records * RECORD_BYTES;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lastId;
+    }
+
+    /**
+     * 다 채워진 세그먼트의 마지막 내역 id, 없으면 0
+     */
+    public synchronized long sealedLastId() {
+        return sealed.isEmpty() ? 0 : sealed.get(sealed.size() - 1).lastId;
+    }
+
+    /**
+     * upToId 까지의 내역만 담긴 세그먼트를 로그에서 떼어내 disposer 에 넘기고, 떼어낸 개수를 반환한다.
+     * disposer 는 파일을 보관 디렉토리로 옮기거나 지운다.
+     */
+    public int release(long upToId, Consumer<Path> disposer) {
+        List<Segment> released = new ArrayList<>();
+        synchronized (this) {
+            while (!sealed.isEmpty() && sealed.get(0).lastId <= upToId) {
+                released.add(sealed.remove(0));
+            }
+        }
+        for (Segment segment : released) {
+            segment.close();
+            disposer.accept(segment.path);
+        }
+        return released.size();
+    }
+
+    public synchronized long lastAppendedId() {
+        return lastAppendedId;
+    }
+
+    public synchronized long durableId() {
+        return durableId;
+    }
+
+    public synchronized int segmentCount() {
+        return sealed.size() + (active == null ? 0 : 1);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            notifyAll();
+        }
+        if (flusher != null) {
+            flusher.join();
+        }
+        force();
+        synchronized (this) {
+            for (Segment segment : sealed) {
+                segment.close();
+            }
+            if (active != null) {
+                active.close();
+            }
+        }
+    }
+
+    private long replay(List<Segment> segments, long afterId, Consumer<PointHistory> consumer) {
+        int[] counts;
+        synchronized (this) {
+            counts = segments.stream().mapToInt(segment -> segment.position).toArray();
+        }
+        long lastId = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            for (int i = 0; i < counts[s]; i++) {
+                PointHistory pointHistory = decode(segment.buffer, i * RECORD_BYTES);
+                if (pointHistory.id() > afterId) {
+                    consumer.accept(pointHistory);
+                    lastId = pointHistory.id();
+                }
+            }
+        }
+        return lastId;
+    }
+
+    private void force() {
+        synchronized (forceLock) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            synchronized (this) {
+                segment = active;
+                target = lastAppendedId;
+                if (segment == null || durableId >= target) {
+                    return;
+                }
+                from = segment.flushed;
+                to = segment.position;
+            }
+            if (to > from) {
+                segment.buffer.force(from * RECORD_BYTES, (to - from) * RECORD_BYTES);
+            }
+            synchronized (this) {
+                segment.flushed = Math.max(segment.flushed, to);
+                durableId = Math.max(durableId, target);
+                notifyAll();
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(groupCommitMillis);
+                force();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("포인트 내역 로그를 디스크에 반영하지 못했습니다.", e);
+            }
+        }
+    }
+
+    /**
+     * 현재 세그먼트를 디스크에 반영해 닫고, firstId 로 시작하는 새 세그먼트를 만든다. (this 를 잡은 상태에서 호출)
+     */
+    private void roll(long firstId) {
+        if (active != null) {
+            active.buffer.force();
+            active.flushed = active.position;
+            durableId = Math.max(durableId, lastAppendedId);
+            sealed.add(active);
+            notifyAll();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstId, SEGMENT_SUFFIX));
+        active = Segment.map(path, (long) recordsPerSegment * RECORD_BYTES);
+    }
+
+    /**
+     * 로그에 남은 첫 내역 id, 없으면 Long.MAX_VALUE
+     */
+    private synchronized long firstId() {
+        for (Segment segment : sealed) {
+            if (segment.position > 0) {
+                return segment.buffer.getLong(0);
+            }
+        }
+        return active != null && active.position > 0 ? active.buffer.getLong(0) : Long.MAX_VALUE;
+    }
+
+    /**
+     * 세그먼트를 이름 순서로 열어 마지막으로 온전한 레코드 다음 자리를 찾는다.
+     */
+    private void open() {
+        List<Path> paths;
+        try {
+            Files.createDirectories(directory);
+            paths = segmentPaths(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (int i = 0; i < paths.size(); i++) {
+            Segment segment = Segment.map(paths.get(i), 0);
+            segment.position = validRecords(segment);
+            segment.flushed = segment.position;
+            if (segment.position > 0) {
+                lastAppendedId = decode(segment.buffer, (segment.position - 1) * RECORD_BYTES).id();
+                segment.lastId = lastAppendedId;
+            }
+            boolean last = i == paths.size() - 1;
+            if (segment.position < segment.capacity && !last) {
+                // 중간 세그먼트가 끊겼다면 그 뒤의 세그먼트는 이어붙일 수 없으므로 따로 옮겨둔다.
+                log.error("포인트 내역 로그가 중간에 손상되었습니다. segment={}, records={}", paths.get(i), segment.position);
+                paths.subList(i + 1, paths.size()).forEach(PointWriteAheadLog::quarantine);
+                last = true;
+            }
+            if (last) {
+                clearTail(segment);
+                active = segment;
+                break;
+            }
+            sealed.add(segment);
+        }
+        durableId = lastAppendedId;
+        log.info("포인트 내역 로그를 열었습니다. directory={}, segments={}, lastId={}, fsync={}",
+                directory, sealed.size() + (active == null ? 0 : 1), lastAppendedId, fsyncPolicy);
+    }
+
+    private static List<Path> segmentPaths(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private int validRecords(Segment segment) {
+        long previousId = lastAppendedId;
+        for (int i = 0; i < segment.capacity; i++) {
+            int offset = i * RECORD_BYTES;
+            long id = segment.buffer.getLong(offset);
+            if (id == 0) {
+                return i;
+            }
+            crc.reset();
+            crc.update(segment.buffer.slice(offset, CRC_OFFSET));
+            if ((int) crc.getValue() != segment.buffer.getInt(offset + CRC_OFFSET) || id <= previousId) {
+                log.warn("포인트 내역 로그 끝의 손상된 레코드를 버립니다. segment={}, index={}", segment.path, i);
+                return i;
+            }
+            previousId = id;
+        }
+        return segment.capacity;
+    }
+
+    /**
+     * 이어 쓸 자리 뒤에 남은 바이트를 지운다.
+     * 순서와 다르게 디스크에 반영된 레코드가 남아 있으면, 새로 쓴 레코드 뒤에 이어지는 것처럼 보일 수 있다.
+     */
+    private static void clearTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        boolean dirty = false;
+        for (int offset = segment.position * RECORD_BYTES; offset + Long.BYTES <= buffer.capacity(); offset += Long.BYTES) {
+            if (buffer.getLong(offset) != 0) {
+                buffer.putLong(offset, 0);
+                dirty = true;
+            }
+        }
+        if (dirty) {
+            buffer.force();
+        }
+    }
+
+    private static void quarantine(Path path) {
+        try {
+            Files.move(path, path.resolveSibling(path.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void encode(PointHistory pointHistory) {
+        record.clear();
+        record.putLong(pointHistory.id())
+                .putLong(pointHistory.userId())
+                .putLong(pointHistory.amount())
+                .putLong(pointHistory.updateMillis())
+                .put((byte) pointHistory.type().ordinal())
+                .put((byte) 0).put((byte) 0).put((byte) 0);
+        crc.reset();
+        crc.update(record.array(), 0, CRC_OFFSET);
+        record.putInt((int) crc.getValue());
+    }
+
+    private static PointHistory decode(ByteBuffer buffer, int offset) {
+        return new PointHistory(
+                buffer.getLong(offset),
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                TransactionType.values()[buffer.get(offset + 32)],
+                buffer.getLong(offset + 24));
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int position;
+        private int flushed;
+        private long lastId;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity() / RECORD_BYTES;
+        }
+
+        /**
+         * 세그먼트 파일을 연다. size 가 0 보다 크면 그 크기로 새로 만든다.
+         */
+        private static Segment map(Path path, long size) {
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                long length = size > 0 ? size : channel.size();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length - length % RECORD_BYTES);
+                return new Segment(path, channel, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("포인트 내역 로그 세그먼트를 닫지 못했습니다. segment={}", path, e);
+            }
+        }
+    }
+}
@@ -6,7 +6,33 @@ public record UserPoint(
         long updateMillis
 ) {
 
+    /**
+     * 유저가 보유할 수 있는 최대 포인트
+     */
+    public static final long MAX_POINT = 100_000L;
+
     public static UserPoint empty(long id) {
         return new UserPoint(id, 0, System.currentTimeMillis());
     }
+
+    /**
+     * 충전 후의 포인트, 한도를 넘으면 예외
+     */
+    public UserPoint charge(long amount, long updateMillis) {
+        long newBalance = point + amount;
+        if (newBalance > MAX_POINT) {
+            throw new PointRejectedException(PointRejectedException.Reason.OVER_CAP, "충전한도는 100,000 까지 입니다. 충전에 실패하였습니다.");
+        }
+        return new UserPoint(id, newBalance, updateMillis);
+    }
+
+    /**
+     * 사용 후의 포인트, 잔액이 부족하면 예외
+     */
+    public UserPoint use(long amount, long updateMillis) {
+        if (point < amount) {
+            throw new PointRejectedException(PointRejectedException.Reason.INSUFFICIENT_BALANCE, "포인트가 부족합니다.");
+        }
+        return new UserPoint(id, point - amount, updateMillis);
+    }
 }
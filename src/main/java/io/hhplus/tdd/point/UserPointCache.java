@@ -0,0 +1,135 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 유저 포인트 캐시
+ * - 최대 개수를 넘으면 가장 오래 사용되지 않은 유저부터 제거한다. (LRU)
+ * - 락 경합을 줄이기 위해 유저 ID 로 구간(segment)을 나눠 구간마다 따로 잠근다.
+ * - 적중/실패/제거 횟수를 기록한다.
+ */
+@Component
+public class UserPointCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserPointCache(@Value("${point.cache.max-size:10000}") int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("캐시 크기는 0보다 커야 합니다.");
+        }
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize));
+        int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * 캐시된 포인트, 없으면 null
+     */
+    public UserPoint get(long id) {
+        Segment segment = segmentFor(id);
+        UserPoint userPoint;
+        segment.lock.lock();
+        try {
+            userPoint = segment.entries.get(id);
+        } finally {
+            segment.lock.unlock();
+        }
+        (userPoint == null ? misses : hits).increment();
+        return userPoint;
+    }
+
+    /**
+     * 캐시된 포인트, 없으면 null. 적중/실패로 세지 않는다. (이미 get 으로 센 조회를 다시 확인할 때 쓴다)
+     */
+    public UserPoint peek(long id) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            return segment.entries.get(id);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(UserPoint userPoint) {
+        Segment segment = segmentFor(userPoint.id());
+        segment.lock.lock();
+        try {
+            segment.entries.put(userPoint.id(), userPoint);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(long id) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(id);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return segments[(int) (hash >>> 32) & (segments.length - 1)];
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, UserPoint> entries;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.UserPointStore;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 유저 포인트 저장소
+ * - 조회 시 캐시에 없으면 잔액 저장소(UserPointStore)에서 읽어 캐시에 채운다. (read-through)
+ * - 저장 시 저장소와 캐시를 함께 갱신한다. (write-through)
+ * - findById, save 는 해당 유저의 락을 잡은 상태에서 호출해야 캐시가 저장소보다 과거 값을 갖지 않는다.
+ */
+@Component
+public class UserPointRepository {
+
+    private final UserPointStore userPointStore;
+    private final UserPointCache userPointCache;
+    private final PointMetrics pointMetrics;
+
+    public UserPointRepository(UserPointStore userPointStore, UserPointCache userPointCache, PointMetrics pointMetrics) {
+        this.userPointStore = userPointStore;
+        this.userPointCache = userPointCache;
+        this.pointMetrics = pointMetrics;
+    }
+
+    /**
+     * 캐시에 있는 경우에만 반환, 락 없이 호출할 수 있다.
+     */
+    public Optional<UserPoint> findCached(long id) {
+        return Optional.ofNullable(userPointCache.get(id));
+    }
+
+    public UserPoint findById(long id) {
+        UserPoint cached = userPointCache.get(id);
+        return cached != null ? cached : load(id);
+    }
+
+    /**
+     * findCached 로 캐시 실패를 이미 센 조회를 락을 잡고 다시 읽는다. 캐시 적중/실패를 다시 세지 않는다.
+     */
+    public UserPoint findByIdAfterMiss(long id) {
+        UserPoint cached = userPointCache.peek(id);
+        return cached != null ? cached : load(id);
+    }
+
+    public UserPoint save(long id, long point) {
+        UserPoint userPoint;
+        try {
+            userPoint = pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_UPSERT,
+                    () -> userPointStore.insertOrUpdate(id, point));
+        } catch (RuntimeException e) {
+            // 저장소에 반영되었는지 알 수 없으므로 다음 조회는 저장소에서 다시 읽는다.
+            userPointCache.invalidate(id);
+            throw e;
+        }
+        if (userPoint != null) {
+            userPointCache.put(userPoint);
+        } else {
+            userPointCache.invalidate(id);
+        }
+        return userPoint;
+    }
+
+    private UserPoint load(long id) {
+        UserPoint userPoint = pointMetrics.recordTableCall(PointMetrics.TableCall.USER_POINT_SELECT,
+                () -> userPointStore.selectById(id));
+        if (userPoint != null) {
+            userPointCache.put(userPoint);
+        }
+        return userPoint;
+    }
+}
@@ -0,0 +1,71 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.InMemoryUserPointStore;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointCommandQueue;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointLedgerRecovery;
+import io.hhplus.tdd.point.PointLockManager;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointPartitions;
+import io.hhplus.tdd.point.PointReadCoalescer;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointSnapshotter;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.UserPointCache;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+
+/**
+ * 테스트용 영속 포인트 컴포넌트 조립
+ * - 주어진 디렉토리의 로그와 스냅샷, 메모리 잔액 저장소로 PointService 를 만들고, 만들 때 복구한다.
+ * - 같은 디렉토리로 다시 만들면 재시작과 같다.
+ */
+class DurablePointTestContext implements AutoCloseable {
+
+    final PointWriteAheadLog pointWriteAheadLog;
+    final PointSnapshotter pointSnapshotter;
+    final InMemoryUserPointStore userPointStore;
+    final PointHistoryWriter pointHistoryWriter;
+    final PointHistoryRepository pointHistoryRepository;
+    final PointLedgerRecovery pointLedgerRecovery;
+    final PointService pointService;
+
+    DurablePointTestContext(Path directory, PointWriteAheadLog.FsyncPolicy fsyncPolicy, int segmentBytes,
+                            PointSnapshotter.Compaction compaction) {
+        this(directory, fsyncPolicy, segmentBytes, compaction, false);
+    }
+
+    DurablePointTestContext(Path directory, PointWriteAheadLog.FsyncPolicy fsyncPolicy, int segmentBytes,
+                            PointSnapshotter.Compaction compaction, boolean replayArchive) {
+        this.pointWriteAheadLog = new PointWriteAheadLog(true, directory.resolve("wal").toString(), segmentBytes, fsyncPolicy, 1);
+        this.pointSnapshotter = new PointSnapshotter(pointWriteAheadLog, false, directory.resolve("snapshot").toString(), 60,
+                compaction, directory.resolve("archive").toString(), replayArchive, 2);
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        PointLockManager pointLockManager = new PointLockManager(0, pointMetrics);
+        this.userPointStore = new InMemoryUserPointStore();
+        UserPointCache userPointCache = new UserPointCache(100);
+        UserPointRepository userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics);
+        // 내역 테이블은 지연이 있으므로 백그라운드에서 기록한다.
+        this.pointHistoryWriter = new PointHistoryWriter(new PointHistoryTable(), pointMetrics, true, 64, 8);
+        this.pointHistoryRepository = new PointHistoryRepository(pointHistoryWriter, pointWriteAheadLog);
+        this.pointLedgerRecovery = new PointLedgerRecovery(pointWriteAheadLog, pointSnapshotter, pointHistoryRepository,
+                pointHistoryWriter, userPointStore);
+        PointCommandQueue pointCommandQueue = new PointCommandQueue(userPointRepository, pointHistoryRepository, pointLockManager,
+                new PointReadCoalescer(pointMetrics));
+        // 로그를 쓰므로 파티션은 하나만 둔다.
+        PointPartitions pointPartitions = new PointPartitions(pointCommandQueue, pointHistoryRepository, userPointStore,
+                userPointCache, pointWriteAheadLog, null, 1, 128);
+        this.pointService = new PointService(pointPartitions, pointMetrics);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        pointSnapshotter.close();
+        pointHistoryWriter.close();
+        pointWriteAheadLog.close();
+    }
+}
@@ -0,0 +1,71 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.database.UserPointTableStore;
+import io.hhplus.tdd.point.PointCommandQueue;
+import io.hhplus.tdd.point.PointHistoryColdStore;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistorySequence;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointLockManager;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointPartitionFactory;
+import io.hhplus.tdd.point.PointPartitions;
+import io.hhplus.tdd.point.PointReadCoalescer;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.UserPointCache;
+import io.hhplus.tdd.point.UserPointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 테스트용 포인트 컴포넌트 조립
+ * - 주어진 테이블(실제 객체, mock, spy)로 스프링 없이 PointService 와 하위 컴포넌트를 만든다.
+ */
+class PointTestContext {
+
+    final UserPointTable userPointTable;
+    final PointHistoryTable pointHistoryTable;
+    final SimpleMeterRegistry meterRegistry;
+    final PointMetrics pointMetrics;
+    final PointLockManager pointLockManager;
+    final UserPointCache userPointCache;
+    final UserPointRepository userPointRepository;
+    final PointHistoryWriter pointHistoryWriter;
+    final PointHistorySequence pointHistorySequence;
+    final PointHistoryRepository pointHistoryRepository;
+    final PointReadCoalescer pointReadCoalescer;
+    final PointCommandQueue pointCommandQueue;
+    final PointPartitionFactory pointPartitionFactory;
+    final PointPartitions pointPartitions;
+    final PointService pointService;
+
+    PointTestContext() {
+        this(new UserPointTable(), new PointHistoryTable());
+    }
+
+    PointTestContext(UserPointTable userPointTable, PointHistoryTable pointHistoryTable) {
+        this.userPointTable = userPointTable;
+        this.pointHistoryTable = pointHistoryTable;
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.pointMetrics = new PointMetrics(meterRegistry);
+        this.pointLockManager = new PointLockManager(0, pointMetrics);
+        this.userPointCache = new UserPointCache(1000);
+        UserPointTableStore userPointStore = new UserPointTableStore(userPointTable);
+        this.userPointRepository = new UserPointRepository(userPointStore, userPointCache, pointMetrics);
+        // 테이블 호출을 바로 검증할 수 있도록 내역은 동기로 기록한다.
+        this.pointHistoryWriter = new PointHistoryWriter(pointHistoryTable, pointMetrics, false, 16, 16);
+        this.pointHistorySequence = PointHistorySequence.standalone();
+        this.pointHistoryRepository = new PointHistoryRepository(pointHistoryWriter, PointWriteAheadLog.disabled(),
+                pointHistorySequence, PointHistoryColdStore.disabled());
+        this.pointReadCoalescer = new PointReadCoalescer(pointMetrics);
+        this.pointCommandQueue = new PointCommandQueue(userPointRepository, pointHistoryRepository, pointLockManager, pointReadCoalescer);
+        // 재분배로 더하는 파티션도 호출한 스레드에서 실행하고 내역을 동기로 기록한다.
+        this.pointPartitionFactory = new PointPartitionFactory(pointMetrics, pointHistorySequence, 0, "lock", 64, 1000, 0, 1000,
+                false, 16, 16);
+        this.pointPartitions = new PointPartitions(pointCommandQueue, pointHistoryRepository, userPointStore, userPointCache,
+                PointWriteAheadLog.disabled(), pointPartitionFactory, 1, 128);
+        this.pointService = new PointService(pointPartitions, pointMetrics);
+    }
+}
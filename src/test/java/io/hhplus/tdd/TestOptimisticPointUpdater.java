@@ -0,0 +1,164 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.OptimisticPointUpdater;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointOverloadedException;
+import io.hhplus.tdd.point.PointRejectedException;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 락 없는 잔액 변경(optimistic) 검증
+ * - 동시에 충전해도 충돌한 요청이 다시 시도해서 모든 충전이 한번씩 반영되고, 저장소에는 마지막 잔액이 남는다.
+ * - 한도 초과, 잔액 부족은 읽은 잔액으로 검증해서 해당 요청만 실패하고 내역을 남기지 않는다.
+ * - 재시도를 다 쓴 요청은 반영되지 않고 429 로 거절되며, 실패 건수가 지표로 남는다.
+ * - 내역을 남기지 못한 변경은 잔액에서 되돌려진다.
+ * - 오래 쓰이지 않은 잔액은 메모리에서 지워지고, 다음 요청은 저장소에서 다시 읽은 잔액으로 처리한다.
+ */
+public class TestOptimisticPointUpdater {
+
+    @Test
+    @DisplayName("동시 충전은 모두 한번씩 반영되고 각 요청은 서로 다른 잔액을 받는다")
+    void concurrentCharges_allApplied() throws Exception {
+        PointTestContext context = new PointTestContext();
+        OptimisticPointUpdater updater = new OptimisticPointUpdater(context.userPointRepository, context.pointHistoryRepository,
+                context.pointMetrics, 1_000, 100);
+        int threadCount = 20;
+        long userId = 1L;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> updater.execute(userId, TransactionType.CHARGE, 100L)))
+                .toList();
+        Set<Long> balances = new HashSet<>();
+        for (Future<UserPoint> future : futures) {
+            balances.add(future.get(30, TimeUnit.SECONDS).point());
+        }
+        executorService.shutdown();
+
+        assertEquals(LongStream.rangeClosed(1, threadCount).map(i -> i * 100L).boxed().collect(Collectors.toSet()), balances);
+        assertEquals(100L * threadCount, updater.current(userId).point());
+        assertEquals(100L * threadCount, context.userPointTable.selectById(userId).point());
+        assertEquals(threadCount, context.pointHistoryRepository.findAllByUserId(userId).size());
+    }
+
+    @Test
+    @DisplayName("한도 초과와 잔액 부족은 해당 요청만 실패하고 내역을 남기지 않는다")
+    void rejectedCommands_leaveNoHistory() {
+        PointTestContext context = new PointTestContext();
+        OptimisticPointUpdater updater = new OptimisticPointUpdater(context.userPointRepository, context.pointHistoryRepository,
+                context.pointMetrics, 16, 100);
+        long userId = 2L;
+
+        updater.execute(userId, TransactionType.CHARGE, 99_950L);
+        PointRejectedException overCap = assertThrows(PointRejectedException.class,
+                () -> updater.execute(userId, TransactionType.CHARGE, 100L));
+        updater.execute(userId, TransactionType.USE, 99_900L);
+        PointRejectedException insufficient = assertThrows(PointRejectedException.class,
+                () -> updater.execute(userId, TransactionType.USE, 51L));
+
+        assertEquals(PointRejectedException.Reason.OVER_CAP, overCap.getReason());
+        assertEquals(PointRejectedException.Reason.INSUFFICIENT_BALANCE, insufficient.getReason());
+        assertEquals(50L, updater.current(userId).point());
+        assertEquals(50L, context.userPointTable.selectById(userId).point());
+        assertEquals(2, context.pointHistoryRepository.findAllByUserId(userId).size());
+    }
+
+    @Test
+    @DisplayName("재시도를 다 쓴 요청은 반영되지 않고 실패한다")
+    void exhaustedRetries_failWithoutApplying() throws Exception {
+        PointTestContext context = new PointTestContext();
+        OptimisticPointUpdater updater = new OptimisticPointUpdater(context.userPointRepository, context.pointHistoryRepository,
+                context.pointMetrics, 0, 0);
+        int threadCount = 16;
+        long userId = 3L;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> updater.execute(userId, TransactionType.CHARGE, 10L)))
+                .toList();
+        int succeeded = 0;
+        int failed = 0;
+        for (Future<UserPoint> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(PointOverloadedException.class, e.getCause());
+                failed++;
+            }
+        }
+        executorService.shutdown();
+
+        assertEquals(10L * succeeded, updater.current(userId).point());
+        assertEquals(succeeded, context.pointHistoryRepository.findAllByUserId(userId).size());
+        assertEquals(failed, (long) context.meterRegistry.get("point.optimistic.exhausted").counter().count());
+    }
+
+    @Test
+    @DisplayName("오래 쓰이지 않은 잔액은 지워지고, 다음 요청은 저장소에서 다시 읽는다")
+    void idleBalances_areEvicted() throws Exception {
+        PointTestContext context = new PointTestContext();
+        OptimisticPointUpdater updater = new OptimisticPointUpdater(context.userPointRepository, context.pointHistoryRepository,
+                context.pointMetrics, 16, 100, 1, 1);
+
+        updater.execute(4L, TransactionType.CHARGE, 300L);
+        TimeUnit.MILLISECONDS.sleep(5);
+        // 새 유저의 잔액을 읽어올 때 오래된 잔액을 지운다.
+        updater.execute(5L, TransactionType.CHARGE, 100L);
+        assertEquals(1, updater.size());
+
+        assertEquals(500L, updater.execute(4L, TransactionType.CHARGE, 200L).point());
+        assertEquals(500L, context.userPointTable.selectById(4L).point());
+    }
+
+    @Test
+    @DisplayName("내역을 남기지 못한 변경은 잔액에서 되돌려진다")
+    void historyFailure_revertsBalance() {
+        AtomicBoolean failHistory = new AtomicBoolean();
+        PointTestContext context = new PointTestContext();
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(context.pointHistoryWriter,
+                PointWriteAheadLog.disabled()) {
+            @Override
+            public PointHistory save(long userId, long amount, TransactionType type, long updateMillis) {
+                if (failHistory.get()) {
+                    throw new UncheckedIOException(new IOException("log failed"));
+                }
+                return super.save(userId, amount, type, updateMillis);
+            }
+        };
+        OptimisticPointUpdater updater = new OptimisticPointUpdater(context.userPointRepository, pointHistoryRepository,
+                context.pointMetrics, 16, 100);
+        long userId = 6L;
+
+        updater.execute(userId, TransactionType.CHARGE, 500L);
+        failHistory.set(true);
+        assertThrows(UncheckedIOException.class, () -> updater.execute(userId, TransactionType.USE, 200L));
+        failHistory.set(false);
+
+        assertEquals(500L, updater.current(userId).point());
+        assertEquals(500L, context.userPointTable.selectById(userId).point());
+        assertEquals(1, pointHistoryRepository.findAllByUserId(userId).size());
+    }
+}
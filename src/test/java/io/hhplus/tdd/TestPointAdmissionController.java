@@ -0,0 +1,124 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointAdmissionController;
+import io.hhplus.tdd.point.PointAdmissionController.Permit;
+import io.hhplus.tdd.point.PointAdmissionInterceptor;
+import io.hhplus.tdd.point.PointOverloadedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 요청 수용 제어 검증
+ * - 같은 유저의 처리 중 요청이 한도를 넘으면 그 유저의 요청만 바로 거절되고, 반납하면 다시 받는다.
+ * - 유저별 한도는 충전/사용에만 걸리고, 잔액 조회는 전체 한도만 받는다.
+ * - 전체 동시 처리 요청이 한도를 넘으면 거절된다.
+ * - 응답이 느리면 한도를 배수로 줄이고, 빠르고 한도를 충분히 쓰면 조금씩 늘린다.
+ */
+public class TestPointAdmissionController {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    @DisplayName("같은 유저의 요청이 한도를 넘으면 그 유저만 거절된다")
+    void perUserLimit_rejectsOnlyThatUser() {
+        PointAdmissionController controller = new PointAdmissionController(true, 2, 100, 8, 180, 1_000, 0.9, 3);
+
+        Permit first = controller.acquire(1L);
+        controller.acquire(1L);
+        PointOverloadedException rejected = assertThrows(PointOverloadedException.class, () -> controller.acquire(1L));
+        controller.acquire(2L);
+        controller.acquire(null);
+
+        assertEquals(PointOverloadedException.Scope.USER, rejected.getScope());
+        assertEquals(3L, rejected.getRetryAfterSeconds());
+        assertEquals(4, controller.inflight());
+
+        controller.release(first, FAST);
+        controller.acquire(1L);
+        assertEquals(1L, controller.rejectedCount(PointOverloadedException.Scope.USER));
+    }
+
+    @Test
+    @DisplayName("유저별 한도는 충전/사용에만 걸리고, 잔액 조회는 전체 한도만 받는다")
+    void interceptor_userLimitOnlyForWrites() {
+        PointAdmissionController controller = new PointAdmissionController(true, 2, 100, 8, 180, 1_000, 0.9, 1);
+        PointAdmissionInterceptor interceptor = new PointAdmissionInterceptor(controller);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(interceptor.preHandle(request("GET", "/point/{id}"), new MockHttpServletResponse(), null));
+        }
+        interceptor.preHandle(request("PATCH", "/point/{id}/charge"), new MockHttpServletResponse(), null);
+        interceptor.preHandle(request("PATCH", "/point/{id}/use"), new MockHttpServletResponse(), null);
+        assertThrows(PointOverloadedException.class,
+                () -> interceptor.preHandle(request("PATCH", "/point/{id}/charge"), new MockHttpServletResponse(), null));
+
+        assertEquals(12, controller.inflight());
+        assertEquals(1L, controller.rejectedCount(PointOverloadedException.Scope.USER));
+    }
+
+    @Test
+    @DisplayName("전체 동시 처리 요청이 한도를 넘으면 거절되고 유저 몫도 돌려받는다")
+    void globalLimit_rejectsAndReturnsUserSlot() {
+        PointAdmissionController controller = new PointAdmissionController(true, 1, 8, 8, 16, 1_000, 0.5, 1);
+        for (long userId = 1; userId <= 8; userId++) {
+            controller.acquire(userId);
+        }
+
+        PointOverloadedException rejected = assertThrows(PointOverloadedException.class, () -> controller.acquire(9L));
+
+        assertEquals(PointOverloadedException.Scope.GLOBAL, rejected.getScope());
+        assertEquals(1L, controller.rejectedCount(PointOverloadedException.Scope.GLOBAL));
+        // 전체 한도로 거절된 유저의 몫은 남지 않는다.
+        controller.release(new Permit(null, System.nanoTime()), FAST);
+        controller.acquire(9L);
+    }
+
+    @Test
+    @DisplayName("느린 응답에는 한도를 줄이고, 빠른 응답이 이어지면 다시 늘린다")
+    void aimd_adjustsLimit() {
+        PointAdmissionController controller = new PointAdmissionController(true, 100, 100, 10, 200, 1_000, 0.5, 1);
+
+        controller.release(controller.acquire(null), SLOW);
+        assertEquals(50, controller.limit());
+        // 줄인 직후의 느린 응답은 같은 원인이므로 한번만 줄인다.
+        controller.release(controller.acquire(null), SLOW);
+        assertEquals(50, controller.limit());
+
+        // 한도를 절반 이상 쓰는 동안 빠른 응답이 이어지면 늘어난다.
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            permits.add(controller.acquire(null));
+        }
+        for (int round = 0; round < 200; round++) {
+            controller.release(permits.remove(0), FAST);
+            permits.add(controller.acquire(null));
+        }
+        assertTrue(controller.limit() > 50, "limit=" + controller.limit());
+
+        // 한도를 거의 쓰지 않으면 늘리지 않는다.
+        permits.forEach(permit -> controller.release(permit, FAST));
+        int idleLimit = controller.limit();
+        for (int i = 0; i < 200; i++) {
+            controller.release(controller.acquire(null), FAST);
+        }
+        assertEquals(idleLimit, controller.limit());
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern.replace("{id}", "1"));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "1"));
+        return request;
+    }
+}
@@ -0,0 +1,85 @@
+package io.hhplus.tdd;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 한 유저에게 요청이 몰릴 때의 요청 수용 제어 부하 테스트 (기본 실행에서 제외)
+ * - 한 유저에게 사용 요청을 한꺼번에 보내는 동안 다른 유저들의 잔액 조회 지연 시간을 잰다.
+ * - 몰린 유저의 요청은 유저별 한도를 넘는 만큼 429 로 바로 거절되고, 다른 유저의 요청은 모두 성공한다.
+ *   ./gradlew test --tests '*TestPointAdmissionLoad' -DloadTest=true
+ *   ./gradlew test --tests '*TestPointAdmissionLoad' -DloadTest=true -Dpoint.admission.enabled=false  (비교)
+ * - 몰리는 요청 수는 -DloadTest.flood 로 바꾼다. (기본 400)
+ */
+@Tag("load")
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=50"
+)
+public class TestPointAdmissionLoad {
+
+    private static final long HOT_USER = 1L;
+    private static final int OTHER_USERS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("한 유저에게 요청이 몰려도 다른 유저의 지연 시간은 그대로다")
+    void hotKeyFlood_keepsOthersFast() {
+        int flood = Integer.getInteger("loadTest.flood", 400);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        List<CompletableFuture<Integer>> hot = new ArrayList<>(flood);
+        for (int i = 0; i < flood; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + HOT_USER + "/use"))
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("1"))
+                    .build();
+            hot.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode)
+                    .exceptionally(e -> -1));
+        }
+
+        List<CompletableFuture<Long>> others = new ArrayList<>(OTHER_USERS);
+        for (int i = 0; i < OTHER_USERS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + (HOT_USER + 1 + i)))
+                    .timeout(Duration.ofSeconds(120))
+                    .GET()
+                    .build();
+            long sentAt = System.nanoTime();
+            others.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> response.statusCode() == 200 ? System.nanoTime() - sentAt : -1L)
+                    .exceptionally(e -> -1L));
+        }
+
+        long[] latencies = others.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        long tooMany = hot.stream().map(CompletableFuture::join).filter(status -> status == 429).count();
+        System.out.printf("flood=%d hot429=%d others p50=%dms p99=%dms max=%dms%n", flood, tooMany,
+                latencies[latencies.length / 2] / 1_000_000,
+                latencies[(int) Math.ceil(0.99 * latencies.length) - 1] / 1_000_000,
+                latencies[latencies.length - 1] / 1_000_000);
+
+        assertTrue(latencies[0] >= 0, "다른 유저의 요청은 모두 성공해야 합니다.");
+        if (!"false".equals(System.getProperty("point.admission.enabled"))) {
+            assertTrue(tooMany > 0);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointBatchProcessor;
+import io.hhplus.tdd.point.PointBatchRequest;
+import io.hhplus.tdd.point.PointBatchResult;
+import io.hhplus.tdd.point.PointBatchTooLargeException;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 포인트 일괄 처리 검증
+ * - 요청마다 성공 결과 또는 실패 사유가 한 건씩 나온다.
+ * - 같은 유저의 요청은 요청 순서대로 처리된다.
+ * - 유저별 작업이 Error 로 멈춰도 남은 요청마다 실패 결과가 나오고 호출한 스레드는 끝난다.
+ * - 최대 건수를 넘는 요청은 하나도 처리하지 않고 거절한다.
+ */
+public class TestPointBatchProcessor {
+
+    @Test
+    @DisplayName("유저별로 순서대로 처리하고 요청마다 결과를 돌려준다")
+    void process_perUserOrderAndPerOperationResult() throws Exception {
+        PointTestContext context = new PointTestContext();
+        PointBatchProcessor processor = new PointBatchProcessor(context.pointService, 4, 100);
+        List<PointBatchRequest> requests = List.of(
+                new PointBatchRequest(1L, TransactionType.CHARGE, 1000L),
+                new PointBatchRequest(2L, TransactionType.CHARGE, 500L),
+                new PointBatchRequest(1L, TransactionType.USE, 300L),
+                new PointBatchRequest(2L, TransactionType.USE, 800L),   // 잔액 부족
+                new PointBatchRequest(1L, TransactionType.USE, 700L),
+                new PointBatchRequest(3L, TransactionType.CHARGE, -1L)  // 잘못된 금액
+        );
+
+        List<PointBatchResult> results = new ArrayList<>();
+        processor.process(requests, results::add);
+        processor.close();
+        results.sort(Comparator.comparingInt(PointBatchResult::index));
+
+        assertEquals(requests.size(), results.size());
+        assertEquals(1000L, results.get(0).userPoint().point());
+        assertEquals(500L, results.get(1).userPoint().point());
+        assertEquals(700L, results.get(2).userPoint().point());
+        assertEquals("400", results.get(3).error().code());
+        assertEquals(0L, results.get(4).userPoint().point());
+        assertEquals("400", results.get(5).error().code());
+        assertNull(results.get(5).userPoint());
+
+        assertEquals(0L, context.pointService.point(1L).point());
+        assertEquals(500L, context.pointService.point(2L).point());
+    }
+
+    @Test
+    @DisplayName("유저별 작업이 Error 로 멈춰도 남은 요청마다 실패 결과가 나온다")
+    void process_errorFailsRemaining() throws Exception {
+        PointTestContext context = new PointTestContext();
+        PointService pointService = new PointService(context.pointPartitions, context.pointMetrics) {
+            @Override
+            public UserPoint charge(long id, long amount) {
+                if (id == 9L) {
+                    throw new AssertionError("작업 중단");
+                }
+                return super.charge(id, amount);
+            }
+        };
+        PointBatchProcessor processor = new PointBatchProcessor(pointService, 2, 100);
+        List<PointBatchRequest> requests = List.of(
+                new PointBatchRequest(9L, TransactionType.CHARGE, 100L),
+                new PointBatchRequest(1L, TransactionType.CHARGE, 100L),
+                new PointBatchRequest(9L, TransactionType.CHARGE, 200L)
+        );
+
+        List<PointBatchResult> results = new ArrayList<>();
+        processor.process(requests, results::add);
+        processor.close();
+        results.sort(Comparator.comparingInt(PointBatchResult::index));
+
+        assertEquals(3, results.size());
+        assertEquals("500", results.get(0).error().code());
+        assertEquals(100L, results.get(1).userPoint().point());
+        assertEquals("500", results.get(2).error().code());
+    }
+
+    @Test
+    @DisplayName("최대 건수를 넘는 요청은 하나도 처리하지 않고 거절한다")
+    void process_rejectsTooLarge() {
+        PointTestContext context = new PointTestContext();
+        PointBatchProcessor processor = new PointBatchProcessor(context.pointService, 2, 2);
+        List<PointBatchRequest> requests = List.of(
+                new PointBatchRequest(1L, TransactionType.CHARGE, 100L),
+                new PointBatchRequest(2L, TransactionType.CHARGE, 100L),
+                new PointBatchRequest(3L, TransactionType.CHARGE, 100L)
+        );
+
+        assertThrows(PointBatchTooLargeException.class, () -> processor.process(requests, result -> fail()));
+        processor.close();
+        assertEquals(0L, context.pointService.point(1L).point());
+    }
+}
@@ -0,0 +1,166 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointCommandQueue;
+import io.hhplus.tdd.point.PointCommitException;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/*
+ * 유저별 명령 큐(group commit) 검증
+ * - 몰려든 명령은 한번의 조회/저장으로 묶여서 처리된다.
+ * - 각 요청은 자신의 명령이 적용된 시점의 포인트를 돌려받는다.
+ * - 한도 초과, 잔액 부족 명령은 해당 요청만 실패한다.
+ * - 내역을 남기지 못한 명령은 잔액에 반영되지 않고, 내역을 남긴 뒤의 실패는 반영된 포인트와 함께 알린다.
+ */
+public class TestPointCommandQueue {
+
+    @Test
+    @DisplayName("동시 충전 요청은 묶어서 저장하고 각 요청은 자신의 중간 잔액을 받는다")
+    void concurrentCharges_areGroupCommitted() throws Exception {
+        UserPointTable userPointTable = spy(new UserPointTable());
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        PointCommandQueue commandQueue = new PointTestContext(userPointTable, pointHistoryTable).pointCommandQueue;
+        int threadCount = 20;
+        long userId = 1L;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> commandQueue.execute(userId, TransactionType.CHARGE, 100L)))
+                .toList();
+        Set<Long> balances = new HashSet<>();
+        for (Future<UserPoint> future : futures) {
+            balances.add(future.get(30, TimeUnit.SECONDS).point());
+        }
+        executorService.shutdown();
+
+        assertEquals(LongStream.rangeClosed(1, threadCount).map(i -> i * 100L).boxed().collect(Collectors.toSet()), balances);
+        assertEquals(100L * threadCount, userPointTable.selectById(userId).point());
+        verify(userPointTable, atMost(threadCount - 1)).insertOrUpdate(eq(userId), anyLong());
+
+        // 내역은 적용된 순서대로 모두 남는다.
+        List<PointHistory> histories = pointHistoryTable.selectAllByUserId(userId);
+        assertEquals(threadCount, histories.size());
+    }
+
+    @Test
+    @DisplayName("한도를 넘는 충전은 해당 요청만 실패한다")
+    void overCapCharge_failsOnlyThatCommand() throws Exception {
+        UserPointTable userPointTable = new UserPointTable();
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        PointCommandQueue commandQueue = new PointTestContext(userPointTable, pointHistoryTable).pointCommandQueue;
+        int threadCount = 12;
+        long userId = 2L;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        // 10,000 씩 12번 충전하면 10번만 성공해야 한다.
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> commandQueue.execute(userId, TransactionType.CHARGE, 10_000L)))
+                .toList();
+        int failures = 0;
+        for (Future<UserPoint> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                failures++;
+            }
+        }
+        executorService.shutdown();
+
+        assertEquals(2, failures);
+        assertEquals(UserPoint.MAX_POINT, userPointTable.selectById(userId).point());
+        assertEquals(10, pointHistoryTable.selectAllByUserId(userId).size());
+    }
+
+    @Test
+    @DisplayName("잔액보다 큰 사용은 실패하고 잔액은 변하지 않는다")
+    void insufficientBalance_failsWithoutWrite() {
+        UserPointTable userPointTable = spy(new UserPointTable());
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        PointCommandQueue commandQueue = new PointTestContext(userPointTable, pointHistoryTable).pointCommandQueue;
+
+        commandQueue.execute(3L, TransactionType.CHARGE, 500L);
+
+        assertThrows(IllegalArgumentException.class, () -> commandQueue.execute(3L, TransactionType.USE, 1000L));
+        assertEquals(500L, userPointTable.selectById(3L).point());
+        verify(userPointTable, times(1)).insertOrUpdate(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("내역을 남기지 못한 명령은 잔액에 반영되지 않는다")
+    void historyFailure_leavesBalanceUnchanged() {
+        AtomicBoolean failHistory = new AtomicBoolean();
+        PointTestContext context = new PointTestContext();
+        PointHistoryRepository pointHistoryRepository = new PointHistoryRepository(context.pointHistoryWriter,
+                PointWriteAheadLog.disabled()) {
+            @Override
+            public PointHistory save(long userId, long amount, TransactionType type, long updateMillis) {
+                if (failHistory.get()) {
+                    throw new UncheckedIOException(new IOException("log failed"));
+                }
+                return super.save(userId, amount, type, updateMillis);
+            }
+        };
+        PointCommandQueue commandQueue = new PointCommandQueue(context.userPointRepository, pointHistoryRepository,
+                context.pointLockManager, context.pointReadCoalescer);
+        commandQueue.execute(4L, TransactionType.CHARGE, 500L);
+
+        failHistory.set(true);
+        assertThrows(UncheckedIOException.class, () -> commandQueue.execute(4L, TransactionType.CHARGE, 100L));
+
+        assertEquals(500L, commandQueue.current(4L).point());
+        assertEquals(500L, context.userPointTable.selectById(4L).point());
+        assertEquals(1, pointHistoryRepository.findAllByUserId(4L).size());
+    }
+
+    @Test
+    @DisplayName("내역을 남긴 뒤 잔액 저장에 실패하면 반영된 포인트와 함께 알린다")
+    void balanceFailureAfterHistory_reportsApplied() {
+        AtomicBoolean failUpsert = new AtomicBoolean();
+        UserPointTable userPointTable = new UserPointTable() {
+            @Override
+            public UserPoint insertOrUpdate(long id, long amount) {
+                if (failUpsert.get()) {
+                    throw new IllegalStateException("upsert failed");
+                }
+                return super.insertOrUpdate(id, amount);
+            }
+        };
+        PointTestContext context = new PointTestContext(userPointTable, new PointHistoryTable());
+        context.pointCommandQueue.execute(5L, TransactionType.CHARGE, 500L);
+
+        failUpsert.set(true);
+        PointCommitException failed = assertThrows(PointCommitException.class,
+                () -> context.pointCommandQueue.execute(5L, TransactionType.USE, 200L));
+
+        assertEquals(300L, failed.getApplied().point());
+        assertEquals(2, context.pointHistoryRepository.findAllByUserId(5L).size());
+    }
+}
@@ -0,0 +1,85 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointRequestExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 컨트롤러 부하 테스트 (기본 실행에서 제외)
+ * - 톰캣 스레드를 20개로 줄이고, 서로 다른 유저의 잔액 조회를 한꺼번에 보내 처리량과 지연 시간을 잰다.
+ * - 동기/비동기 모드를 바꿔가며 실행해서 결과를 비교한다.
+ *   ./gradlew test --tests '*TestPointControllerLoad' -DloadTest=true -Dpoint.async.enabled=true
+ *   ./gradlew test --tests '*TestPointControllerLoad' -DloadTest=true -Dpoint.async.enabled=false
+ * - 동시 요청 수는 -DloadTest.concurrency 로 바꾼다. (기본 400)
+ */
+@Tag("load")
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // 처리량을 비교하는 테스트이므로 요청 수용 제어(429)는 끈다. (TestPointAdmissionLoad 참고)
+        properties = {"server.tomcat.threads.max=20", "point.admission.enabled=false"}
+)
+public class TestPointControllerLoad {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PointRequestExecutor pointRequestExecutor;
+
+    @Test
+    @DisplayName("동시 잔액 조회 처리량과 지연 시간")
+    void concurrentBalanceReads() {
+        int concurrency = Integer.getInteger("loadTest.concurrency", 400);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/point/" + (i + 1)))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long sentAt = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> response.statusCode() == 200 ? System.nanoTime() - sentAt : -1L)
+                    .exceptionally(e -> -1L));
+        }
+        long[] latencies = futures.stream().mapToLong(CompletableFuture::join).toArray();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long failures = Arrays.stream(latencies).filter(latency -> latency < 0).count();
+        long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        System.out.printf("mode=%s concurrency=%d elapsed=%dms throughput=%.1f/s p50=%dms p99=%dms failures=%d%n",
+                pointRequestExecutor.isAsync() ? "async" : "sync", concurrency, elapsedMillis,
+                concurrency * 1000.0 / Math.max(1, elapsedMillis),
+                percentileMillis(succeeded, 0.50), percentileMillis(succeeded, 0.99), failures);
+
+        assertEquals(0, failures);
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000;
+    }
+}
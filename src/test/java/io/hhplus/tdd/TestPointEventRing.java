@@ -0,0 +1,211 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointEventRing;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryColdStore;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistorySequence;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 변경 피드 링 버퍼 검증
+ * - 구독자는 자기 순번부터 추가된 순서대로 내역을 받는다.
+ * - 버퍼 크기보다 뒤처진 구독자는 FELL_BEHIND 를 받는다.
+ * - 내역 id 로 이어받을 순번을 찾고, 이미 덮어써진 id 이면 FELL_BEHIND 를 받는다.
+ * - 여러 스레드가 링을 여러 바퀴 돌며 추가해도, 이전 바퀴의 내역이 새 내역을 덮어쓰지 않는다.
+ * - 내역 저장소에 추가된 내역이 링에 들어간다.
+ * - 저장소(파티션)가 여러 개여도 내역 id 는 겹치지 않고 링 순서대로 늘어나서 내역 id 로 이어받을 수 있다.
+ */
+public class TestPointEventRing {
+
+    @Test
+    @DisplayName("구독자는 자기 순번부터 추가된 순서대로 내역을 받는다")
+    void drain_returnsInOrder() {
+        PointEventRing ring = new PointEventRing(8);
+        for (long id = 1; id <= 5; id++) {
+            ring.publish(id - 1, history(id));
+        }
+
+        List<PointHistory> received = new ArrayList<>();
+        long next = ring.drain(2, 10, received::add);
+
+        assertEquals(5, next);
+        assertEquals(List.of(3L, 4L, 5L), received.stream().map(PointHistory::id).toList());
+        assertEquals(5, ring.drain(next, 10, received::add));
+    }
+
+    @Test
+    @DisplayName("버퍼 크기보다 뒤처지면 FELL_BEHIND 를 받는다")
+    void drain_fellBehind() {
+        PointEventRing ring = new PointEventRing(4);
+        long sequence = ring.head();
+        for (long id = 1; id <= 6; id++) {
+            ring.publish(id - 1, history(id));
+        }
+
+        assertEquals(PointEventRing.FELL_BEHIND, ring.drain(sequence, 10, pointHistory -> fail()));
+        List<PointHistory> received = new ArrayList<>();
+        assertEquals(6, ring.drain(2, 10, received::add));
+        assertEquals(List.of(3L, 4L, 5L, 6L), received.stream().map(PointHistory::id).toList());
+    }
+
+    @Test
+    @DisplayName("내역 id 다음 순번을 찾고, 이미 덮어써진 id 이면 FELL_BEHIND 를 받는다")
+    void sequenceAfter_resumesFromId() {
+        PointEventRing ring = new PointEventRing(4);
+        for (long id = 1; id <= 6; id++) {
+            ring.publish(id - 1, history(id));
+        }
+
+        assertEquals(4, ring.sequenceAfter(4));
+        assertEquals(2, ring.sequenceAfter(2));
+        assertEquals(6, ring.sequenceAfter(6));
+        assertEquals(PointEventRing.FELL_BEHIND, ring.sequenceAfter(1));
+    }
+
+    @Test
+    @DisplayName("동시에 추가해도 빠지거나 겹치는 내역 없이 받는다")
+    void concurrentPublish_noLoss() throws Exception {
+        PointEventRing ring = new PointEventRing(1 << 14);
+        int threadCount = 8;
+        int perThread = 1000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong sequences = new AtomicLong();
+        for (int t = 0; t < threadCount; t++) {
+            executorService.submit(() -> {
+                start.await();
+                for (int i = 1; i <= perThread; i++) {
+                    long sequence = sequences.getAndIncrement();
+                    ring.publish(sequence, history(sequence + 1));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        boolean[] seen = new boolean[threadCount * perThread + 1];
+        long next = ring.drain(0, Integer.MAX_VALUE, pointHistory -> {
+            assertFalse(seen[(int) pointHistory.id()]);
+            seen[(int) pointHistory.id()] = true;
+        });
+        assertEquals(threadCount * perThread, next);
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 링을 여러 바퀴 돌며 추가해도 마지막 바퀴의 내역을 모두 읽을 수 있다")
+    void concurrentPublish_wrapAround() throws Exception {
+        PointEventRing ring = new PointEventRing(8);
+        int threadCount = 8;
+        int perThread = 20_000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong sequences = new AtomicLong();
+        for (int t = 0; t < threadCount; t++) {
+            executorService.submit(() -> {
+                start.await();
+                for (int i = 1; i <= perThread; i++) {
+                    long sequence = sequences.getAndIncrement();
+                    ring.publish(sequence, history(sequence + 1));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        long head = ring.head();
+        List<PointHistory> received = new ArrayList<>();
+        assertEquals(head, ring.drain(head - ring.capacity(), ring.capacity(), received::add));
+        assertEquals(ring.capacity(), received.size());
+    }
+
+    @Test
+    @DisplayName("내역 저장소에 추가된 내역이 링에 들어간다")
+    void repository_publishes() throws Exception {
+        PointEventRing ring = new PointEventRing(16);
+        try (PointHistoryWriter writer = new PointHistoryWriter(new PointHistoryTable(),
+                new PointMetrics(new SimpleMeterRegistry()), false, 16, 16)) {
+            PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled(),
+                    new PointHistorySequence(ring), PointHistoryColdStore.disabled());
+            // 복구한 내역은 링에 넣지 않고, 새 내역은 그 다음 id 부터 링의 처음 순번에 들어간다.
+            repository.restore(new PointHistory(10L, 3L, 10L, TransactionType.CHARGE, 3L));
+            repository.save(1L, 100L, TransactionType.CHARGE, 1L);
+            repository.save(2L, 50L, TransactionType.CHARGE, 2L);
+            assertThrows(IllegalStateException.class,
+                    () -> repository.restore(new PointHistory(20L, 3L, 10L, TransactionType.CHARGE, 3L)));
+        }
+
+        List<PointHistory> received = new ArrayList<>();
+        assertEquals(0, ring.sequenceAfter(10));
+        ring.drain(0, 10, received::add);
+        assertEquals(List.of(11L, 12L), received.stream().map(PointHistory::id).toList());
+    }
+
+    @Test
+    @DisplayName("저장소가 여러 개여도 내역 id 는 겹치지 않고 링 순서대로 늘어나서 이어받을 수 있다")
+    void partitionedRepositories_shareSequence() throws Exception {
+        PointEventRing ring = new PointEventRing(1 << 14);
+        PointHistorySequence sequence = new PointHistorySequence(ring);
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        int partitionCount = 4;
+        int perPartition = 1000;
+        List<PointHistoryWriter> writers = new ArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(partitionCount);
+        for (int p = 0; p < partitionCount; p++) {
+            // id 만 보므로 지연이 있는 테이블 기록은 건너뛴다.
+            PointHistoryTable table = new PointHistoryTable() {
+                @Override
+                public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+                    return null;
+                }
+            };
+            PointHistoryWriter writer = new PointHistoryWriter(table, pointMetrics, false, 16, 16);
+            writers.add(writer);
+            PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled(), sequence,
+                    PointHistoryColdStore.disabled());
+            long userId = p;
+            executorService.submit(() -> {
+                for (int i = 0; i < perPartition; i++) {
+                    repository.save(userId, 1L, TransactionType.CHARGE, i);
+                }
+                return null;
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+        for (PointHistoryWriter writer : writers) {
+            writer.close();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        ring.drain(0, Integer.MAX_VALUE, pointHistory -> ids.add(pointHistory.id()));
+        assertEquals(LongStream.rangeClosed(1, partitionCount * perPartition).boxed().toList(), ids);
+        assertEquals(1500, ring.sequenceAfter(1500));
+    }
+
+    private static PointHistory history(long id) {
+        return new PointHistory(id, id % 7, 100L, TransactionType.CHARGE, id);
+    }
+}
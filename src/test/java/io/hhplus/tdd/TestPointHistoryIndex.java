@@ -0,0 +1,153 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryIndex;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 컬럼 방식 내역 색인 검증
+ * - 청크 경계, id/시각 차이가 int 를 넘는 경우, int 를 넘는 금액도 추가한 그대로 조회된다.
+ * - afterId 이후부터 조회하면 청크 중간에서도 정확히 이어서 읽는다.
+ * - 조회한 목록은 그 이후 추가된 내역을 보지 않고, 추가 중에 읽어도 앞선 내역은 온전하다.
+ * - 시점 잔액은 그 시각까지의 내역을 누적한 값이고, 시각이 거꾸로 간 내역은 앞선 최대 시각에 있었던 것으로 본다.
+ */
+public class TestPointHistoryIndex {
+
+    @Test
+    @DisplayName("추가한 내역이 값 그대로 id 순서대로 조회된다")
+    void append_roundTripsAllColumns() {
+        PointHistoryIndex index = new PointHistoryIndex();
+        List<PointHistory> expected = new ArrayList<>();
+        long id = 1;
+        long millis = 1_700_000_000_000L;
+        for (int i = 0; i < 500; i++) {
+            // 중간중간 id, 시각 차이가 int 를 넘고, 금액도 int 를 넘는 내역을 섞는다.
+            id += i % 97 == 0 ? 5_000_000_000L : 1 + i % 3;
+            millis += i % 131 == 0 ? 40L * 24 * 60 * 60 * 1000 : -1 + i % 5;
+            long amount = i % 53 == 0 ? 10_000_000_000L : i;
+            PointHistory history = new PointHistory(id, 7L, amount, i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, millis);
+            expected.add(history);
+            index.append(history);
+        }
+        index.append(new PointHistory(id + 1, 8L, 1L, TransactionType.CHARGE, millis));
+
+        assertEquals(expected, index.findAllByUserId(7L));
+        assertEquals(500, index.countByUserId(7L));
+        assertEquals(2, index.userCount());
+        assertTrue(index.findAllByUserId(9L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("afterId 이후의 내역부터 이어서 조회한다")
+    void forEach_startsAfterId() {
+        PointHistoryIndex index = new PointHistoryIndex();
+        for (long id = 10; id <= 2_000; id += 10) {
+            index.append(new PointHistory(id, 1L, id, TransactionType.CHARGE, id));
+        }
+
+        for (long afterId : new long[]{0, 10, 15, 640, 645, 1_990, 2_000}) {
+            List<Long> ids = new ArrayList<>();
+            index.forEach(1L, afterId, history -> ids.add(history.id()));
+            List<Long> expected = new ArrayList<>();
+            for (long id = 10; id <= 2_000; id += 10) {
+                if (id > afterId) {
+                    expected.add(id);
+                }
+            }
+            assertEquals(expected, ids, "afterId=" + afterId);
+        }
+
+        List<Long> limited = new ArrayList<>();
+        index.forEach(1L, 0, history -> limited.add(history.id()) && limited.size() < 3);
+        assertEquals(List.of(10L, 20L, 30L), limited);
+    }
+
+    @Test
+    @DisplayName("조회 중에 내역이 추가되어도 앞선 내역은 온전히 보인다")
+    void concurrentAppend_readersSeeConsistentPrefix() throws Exception {
+        PointHistoryIndex index = new PointHistoryIndex();
+        int rows = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (long id = 1; id <= rows; id++) {
+                    index.append(new PointHistory(id, 1L, id, TransactionType.USE, id * 2));
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (!writer.isDone()) {
+                        List<PointHistory> histories = index.findAllByUserId(1L);
+                        for (int i = 0; i < histories.size(); i++) {
+                            PointHistory history = histories.get(i);
+                            assertEquals(new PointHistory(i + 1, 1L, i + 1, TransactionType.USE, (i + 1) * 2L), history);
+                        }
+                    }
+                }));
+            }
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<PointHistory> snapshot = index.findAllByUserId(1L);
+        index.append(new PointHistory(rows + 1, 1L, 1L, TransactionType.CHARGE, 0L));
+        assertEquals(rows, snapshot.size());
+        assertEquals(rows + 1, index.countByUserId(1L));
+    }
+
+    @Test
+    @DisplayName("시점 잔액은 그 시각까지의 내역을 누적한 값이다")
+    void balanceAt_replaysUpToTime() {
+        PointHistoryIndex index = new PointHistoryIndex();
+        long balance = 0;
+        long[] expected = new long[300];
+        for (int i = 0; i < 300; i++) {
+            // 10ms 간격, 여러 청크에 걸치도록 300 건
+            TransactionType type = i % 3 == 2 ? TransactionType.USE : TransactionType.CHARGE;
+            long amount = 10 + i;
+            balance += type == TransactionType.CHARGE ? amount : -amount;
+            expected[i] = balance;
+            index.append(new PointHistory(i + 1, 1L, amount, type, 1_000L + i * 10L));
+        }
+
+        assertNull(index.balanceAt(2L, 5_000L));
+        assertEquals(new UserPoint(1L, 0L, 0L), index.balanceAt(1L, 999L));
+        for (int i = 0; i < 300; i++) {
+            long at = 1_000L + i * 10L;
+            assertEquals(new UserPoint(1L, expected[i], at), index.balanceAt(1L, at), "at=" + at);
+            assertEquals(new UserPoint(1L, expected[i], at), index.balanceAt(1L, at + 9), "at=" + (at + 9));
+        }
+
+        index.setBaseBalance(1L, 1_000L);
+        assertEquals(1_000L, index.balanceAt(1L, 0L).point());
+        assertEquals(1_000L + balance, index.balanceAt(1L, Long.MAX_VALUE).point());
+    }
+
+    @Test
+    @DisplayName("시각이 거꾸로 간 내역은 앞선 최대 시각에 있었던 것으로 본다")
+    void balanceAt_clampsBackwardClock() {
+        PointHistoryIndex index = new PointHistoryIndex();
+        index.append(new PointHistory(1L, 1L, 100L, TransactionType.CHARGE, 1_000L));
+        index.append(new PointHistory(2L, 1L, 50L, TransactionType.CHARGE, 2_000L));
+        index.append(new PointHistory(3L, 1L, 30L, TransactionType.USE, 1_500L));
+
+        assertEquals(100L, index.balanceAt(1L, 1_500L).point());
+        assertEquals(120L, index.balanceAt(1L, 2_000L).point());
+    }
+}
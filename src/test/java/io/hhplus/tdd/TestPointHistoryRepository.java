@@ -0,0 +1,124 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
+import io.hhplus.tdd.point.PointHistoryQuery;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/*
+ * 포인트 내역 저장소 검증
+ * - 유저별 조회는 해당 유저의 내역만 id 순서대로 돌려준다.
+ * - 여러 유저의 내역이 동시에 추가되어도 유실되거나 섞이지 않는다.
+ * - 커서로 나눠 조회하면 빠짐없이 한번씩 조회되고, 종류/기간 조건이 적용된다.
+ */
+public class TestPointHistoryRepository {
+
+    @Test
+    @DisplayName("유저별 내역은 해당 유저의 내역만 id 순서대로 조회된다")
+    void findAllByUserId_returnsOnlyThatUserInOrder() {
+        PointHistoryRepository repository = new PointTestContext().pointHistoryRepository;
+
+        repository.save(1L, 100L, TransactionType.CHARGE, 1L);
+        repository.save(2L, 200L, TransactionType.CHARGE, 2L);
+        repository.save(1L, 50L, TransactionType.USE, 3L);
+
+        List<PointHistory> histories = repository.findAllByUserId(1L);
+        assertEquals(2, histories.size());
+        assertEquals(List.of(1L, 3L), histories.stream().map(PointHistory::id).toList());
+        assertTrue(histories.stream().allMatch(history -> history.userId() == 1L));
+        assertTrue(repository.findAllByUserId(3L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("여러 유저의 내역을 동시에 추가해도 유실되지 않는다")
+    void concurrentSave_acrossUsers() throws Exception {
+        PointHistoryRepository repository = new PointTestContext().pointHistoryRepository;
+        int userCount = 4;
+        int perUser = 5;
+        ExecutorService executorService = Executors.newFixedThreadPool(userCount);
+
+        List<Future<?>> futures = IntStream.range(0, userCount)
+                .<Future<?>>mapToObj(user -> executorService.submit(() -> {
+                    for (int i = 0; i < perUser; i++) {
+                        repository.save(user, i + 1, TransactionType.CHARGE, System.currentTimeMillis());
+                    }
+                }))
+                .toList();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        for (int user = 0; user < userCount; user++) {
+            List<PointHistory> histories = repository.findAllByUserId(user);
+            assertEquals(perUser, histories.size());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), histories.stream().map(PointHistory::amount).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("커서를 따라가면 모든 내역을 한번씩 조회한다")
+    void findPage_followsCursor() {
+        // 테이블 기록 지연 없이 색인만 검증한다.
+        PointHistoryRepository repository = new PointTestContext(new UserPointTable(), mock(PointHistoryTable.class)).pointHistoryRepository;
+        for (int i = 0; i < 150; i++) {
+            repository.save(1L, i + 1, TransactionType.CHARGE, i);
+            repository.save(2L, i + 1, TransactionType.CHARGE, i);
+        }
+
+        List<Long> amounts = new ArrayList<>();
+        long cursor = 0;
+        int pages = 0;
+        while (true) {
+            PointHistoryPage page = repository.findPage(1L, new PointHistoryQuery(cursor, null, null, null), 40);
+            page.items().forEach(history -> amounts.add(history.amount()));
+            pages++;
+            if (page.nextCursor() == null) {
+                break;
+            }
+            cursor = page.nextCursor();
+        }
+
+        assertEquals(4, pages);
+        assertEquals(150, amounts.size());
+        assertEquals(1L, amounts.get(0));
+        assertEquals(150L, amounts.get(149));
+    }
+
+    @Test
+    @DisplayName("종류와 기간 조건에 맞는 내역만 조회한다")
+    void findPage_appliesFilters() {
+        // 테이블 기록 지연 없이 색인만 검증한다.
+        PointHistoryRepository repository = new PointTestContext(new UserPointTable(), mock(PointHistoryTable.class)).pointHistoryRepository;
+        for (int i = 0; i < 10; i++) {
+            repository.save(1L, 100L, i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, i * 1000L);
+        }
+
+        PointHistoryPage uses = repository.findPage(1L, new PointHistoryQuery(0, TransactionType.USE, null, null), 100);
+        assertEquals(5, uses.items().size());
+        assertNull(uses.nextCursor());
+
+        PointHistoryPage range = repository.findPage(1L, new PointHistoryQuery(0, null, 2000L, 5000L), 100);
+        assertEquals(List.of(2000L, 3000L, 4000L), range.items().stream().map(PointHistory::updateMillis).toList());
+
+        List<PointHistory> streamed = new ArrayList<>();
+        repository.forEach(1L, new PointHistoryQuery(0, TransactionType.CHARGE, 4000L, null), streamed::add);
+        assertEquals(List.of(4000L, 6000L, 8000L), streamed.stream().map(PointHistory::updateMillis).toList());
+    }
+}
@@ -0,0 +1,78 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 유저별 내역 집계 검증
+ * - 내역을 추가하면 누적 충전/사용 금액과 건수가 바로 반영된다.
+ * - 시간별/일별 구간은 내역이 있는 구간만 시간 순서대로, 최근 구간 창 안의 것만 조회된다.
+ * - 늦게 들어온 과거 내역도 창 안이면 해당 구간에 들어간다.
+ */
+public class TestPointHistorySummaries {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long NOW = 100 * DAY + 10 * HOUR + 5;
+
+    @Test
+    @DisplayName("누적 합계와 구간별 합계가 내역 추가와 함께 갱신된다")
+    void save_updatesTotalsAndBuckets() {
+        PointHistoryRepository repository = new PointTestContext().pointHistoryRepository;
+
+        repository.save(1L, 1_000L, TransactionType.CHARGE, NOW - 2 * HOUR);
+        repository.save(1L, 300L, TransactionType.USE, NOW - 2 * HOUR + 10);
+        repository.save(1L, 500L, TransactionType.CHARGE, NOW);
+        // 과거 내역이 늦게 들어와도 창 안이면 구간 사이에 들어간다.
+        repository.save(1L, 200L, TransactionType.USE, NOW - HOUR);
+        repository.save(2L, 9_999L, TransactionType.CHARGE, NOW);
+
+        PointSummary summary = repository.summarize(1L, NOW);
+
+        assertEquals(1_500L, summary.chargedAmount());
+        assertEquals(2L, summary.chargedCount());
+        assertEquals(500L, summary.usedAmount());
+        assertEquals(2L, summary.usedCount());
+        long hour = NOW / HOUR * HOUR;
+        assertEquals(List.of(
+                new PointSummary.Bucket(hour - 2 * HOUR, 1_000L, 1L, 300L, 1L),
+                new PointSummary.Bucket(hour - HOUR, 0L, 0L, 200L, 1L),
+                new PointSummary.Bucket(hour, 500L, 1L, 0L, 0L)
+        ), summary.hourly());
+        assertEquals(List.of(new PointSummary.Bucket(NOW / DAY * DAY, 1_500L, 2L, 500L, 2L)), summary.daily());
+        assertEquals(PointSummary.empty(3L), repository.summarize(3L, NOW));
+    }
+
+    @Test
+    @DisplayName("창 밖으로 밀려난 구간은 조회되지 않지만 누적 합계에는 남는다")
+    void oldBuckets_leaveWindow() {
+        PointHistoryRepository repository = new PointTestContext().pointHistoryRepository;
+
+        for (int day = 40; day >= 0; day--) {
+            repository.save(1L, 10L, TransactionType.CHARGE, NOW - day * DAY);
+        }
+        // 가장 최근 구간보다 창 이상 오래된 내역은 구간에 넣지 않는다.
+        repository.save(1L, 7L, TransactionType.USE, NOW - 60 * DAY);
+
+        PointSummary summary = repository.summarize(1L, NOW);
+        assertEquals(410L, summary.chargedAmount());
+        assertEquals(7L, summary.usedAmount());
+        assertEquals(30, summary.daily().size());
+        assertEquals(NOW / DAY * DAY - 29 * DAY, summary.daily().get(0).startMillis());
+        // 시간 구간은 48 개이므로 오늘과 어제 같은 시각의 구간만 남는다.
+        assertEquals(2, summary.hourly().size());
+
+        // 조회 시점이 지나면 그만큼 창이 밀린다.
+        PointSummary later = repository.summarize(1L, NOW + 10 * DAY);
+        assertEquals(20, later.daily().size());
+        assertTrue(later.hourly().isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryColdStore;
+import io.hhplus.tdd.point.PointHistoryIndex;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 내역 세그먼트 옮기기 검증
+ * - 옮긴 뒤에도 목록, afterId 이후 조회, 시점 잔액, 내역 합계가 옮기기 전과 같다.
+ * - 옮긴 내역은 메모리 색인에서 빠진다.
+ * - 추가와 옮기기가 동시에 일어나도 빠지거나 겹치는 내역이 없다.
+ * - 여러 번 옮겨도 세그먼트는 max-segments 개를 넘지 않고, 합친 뒤에도 조회 결과가 같다.
+ */
+public class TestPointHistoryTiering {
+
+    private static final int USERS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("옮긴 뒤에도 조회 결과가 옮기기 전과 같다")
+    void tierOut_readsMergeBothTiers() {
+        try (PointHistoryColdStore coldStore = new PointHistoryColdStore(true, directory.toString(), 100)) {
+            PointHistoryIndex index = new PointHistoryIndex(coldStore);
+            Map<Long, List<PointHistory>> expected = new HashMap<>();
+            long id = 1;
+            for (int i = 0; i < 300; i++) {
+                for (long userId = 1; userId <= USERS; userId++) {
+                    PointHistory history = new PointHistory(id, userId, 10 + i, i % 3 == 2 ? TransactionType.USE : TransactionType.CHARGE, id * 10);
+                    expected.computeIfAbsent(userId, key -> new ArrayList<>()).add(history);
+                    index.append(history);
+                    id++;
+                }
+            }
+            UserPoint before = index.balanceAt(3L, 2_000);
+            PointHistoryIndex.LedgerSum sumBefore = index.sumUntil(3L, 1_000);
+
+            long moved = index.tierOut(10_000);
+
+            assertTrue(moved > 0);
+            assertEquals(USERS * 300L - moved, index.hotCount());
+            assertEquals(1, coldStore.segmentCount());
+            for (long userId = 1; userId <= USERS; userId++) {
+                assertEquals(expected.get(userId), index.findAllByUserId(userId));
+                assertEquals(300, index.countByUserId(userId));
+            }
+            for (long afterId : new long[]{0, 3, 500, 1_001, 1_200, 1_500}) {
+                List<PointHistory> page = new ArrayList<>();
+                index.forEach(2L, afterId, history -> page.add(history) && page.size() < 20);
+                assertEquals(expected.get(2L).stream().filter(history -> history.id() > afterId).limit(20).toList(), page);
+            }
+            assertEquals(before, index.balanceAt(3L, 2_000));
+            assertEquals(sumBefore, index.sumUntil(3L, 1_000));
+
+            // 남은 내역을 모두 옮겨도 같다.
+            index.tierOut(Long.MAX_VALUE);
+            assertEquals(0, index.hotCount());
+            assertEquals(expected.get(4L), index.findAllByUserId(4L));
+            assertEquals(before, index.balanceAt(3L, 2_000));
+        }
+    }
+
+    @Test
+    @DisplayName("추가와 옮기기가 동시에 일어나도 빠지거나 겹치는 내역이 없다")
+    void tierOut_concurrentAppends() throws Exception {
+        try (PointHistoryColdStore coldStore = new PointHistoryColdStore(true, directory.toString(), 64)) {
+            PointHistoryIndex index = new PointHistoryIndex(coldStore);
+            int perUser = 2_000;
+            ExecutorService executorService = Executors.newFixedThreadPool(USERS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (long userId = 1; userId <= USERS; userId++) {
+                long user = userId;
+                futures.add(executorService.submit(() -> {
+                    for (int i = 1; i <= perUser; i++) {
+                        long id = i * USERS + user;
+                        index.append(new PointHistory(id, user, 1, TransactionType.CHARGE, id));
+                        if (i % 100 == 0) {
+                            // 읽는 중에도 id 순서로 빠짐없이 보인다.
+                            List<PointHistory> seen = index.findAllByUserId(user);
+                            assertEquals(i, seen.size());
+                            assertEquals(id, seen.get(seen.size() - 1).id());
+                        }
+                    }
+                }));
+            }
+            long cutoff = 0;
+            while (futures.stream().anyMatch(future -> !future.isDone())) {
+                cutoff += 500;
+                index.tierOut(cutoff);
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executorService.shutdown();
+            index.tierOut(Long.MAX_VALUE);
+
+            for (long userId = 1; userId <= USERS; userId++) {
+                List<PointHistory> histories = index.findAllByUserId(userId);
+                assertEquals(perUser, histories.size());
+                for (int i = 0; i < perUser; i++) {
+                    assertEquals((i + 1L) * USERS + userId, histories.get(i).id());
+                }
+                assertEquals(perUser, index.sumUntil(userId, Long.MAX_VALUE).point());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("여러 번 옮겨도 세그먼트는 max-segments 개를 넘지 않고, 합친 뒤에도 조회 결과가 같다")
+    void tierOut_mergesSegments() throws Exception {
+        try (PointHistoryColdStore coldStore = new PointHistoryColdStore(true, directory.toString(), 16, 3)) {
+            PointHistoryIndex index = new PointHistoryIndex(coldStore);
+            Map<Long, List<PointHistory>> expected = new HashMap<>();
+            long id = 1;
+            for (int run = 1; run <= 20; run++) {
+                for (int i = 0; i < 64; i++) {
+                    for (long userId = 1; userId <= USERS; userId++) {
+                        PointHistory history = new PointHistory(id, userId, id, TransactionType.CHARGE, run);
+                        expected.computeIfAbsent(userId, key -> new ArrayList<>()).add(history);
+                        index.append(history);
+                        id++;
+                    }
+                }
+                index.tierOut(run + 1);
+
+                assertTrue(coldStore.segmentCount() <= 3);
+                try (Stream<Path> files = Files.list(directory)) {
+                    assertEquals(coldStore.segmentCount(), files.count());
+                }
+                for (long userId = 1; userId <= USERS; userId++) {
+                    assertEquals(expected.get(userId), index.findAllByUserId(userId));
+                }
+            }
+            assertEquals(0, index.hotCount());
+            List<PointHistory> page = new ArrayList<>();
+            index.forEach(2L, 3_000, history -> page.add(history) && page.size() < 10);
+            assertEquals(expected.get(2L).stream().filter(history -> history.id() > 3_000).limit(10).toList(), page);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryRepository;
+import io.hhplus.tdd.point.PointHistoryWriter;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 비동기 포인트 내역 기록 검증
+ * - 내역 저장 요청은 테이블 기록을 기다리지 않고 돌아온다.
+ * - 테이블 기록 전에도 같은 유저의 내역 조회에는 바로 보인다.
+ * - 테이블에는 요청한 순서대로, 같은 id 로 기록된다.
+ * - 종료 시 버퍼에 남은 내역을 모두 기록한다.
+ * - 기록에 실패한 내역은 그 내역만 버리고 센다.
+ * - 종료 중에 여러 스레드가 남은 내역을 기록해도 유저별 순서대로 기록된다.
+ */
+public class TestPointHistoryWriter {
+
+    private static final PointMetrics METRICS = new PointMetrics(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("저장한 내역은 테이블 기록 전에도 조회되고, 기록 후 테이블과 일치한다")
+    void asyncWrite_readYourWrites() throws Exception {
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        PointHistoryWriter writer = new PointHistoryWriter(pointHistoryTable, METRICS, true, 64, 8);
+        PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled());
+        int count = 10;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            repository.save(i % 2, i + 1, TransactionType.CHARGE, i);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 테이블 insert 는 건당 최대 300ms 이므로, 기다렸다면 훨씬 오래 걸린다.
+        assertTrue(elapsedMillis < 300, "elapsed=" + elapsedMillis);
+        assertEquals(5, repository.findAllByUserId(0).size());
+        assertEquals(5, repository.findAllByUserId(1).size());
+
+        writer.flush();
+        assertEquals(0, writer.pendingCount());
+        assertEquals(repository.findAllByUserId(0), pointHistoryTable.selectAllByUserId(0));
+        assertEquals(repository.findAllByUserId(1), pointHistoryTable.selectAllByUserId(1));
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("종료 시 남은 내역을 모두 기록한다")
+    void close_flushesRemaining() throws Exception {
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        PointHistoryWriter writer = new PointHistoryWriter(pointHistoryTable, METRICS, true, 64, 8);
+        PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled());
+
+        for (int i = 0; i < 5; i++) {
+            repository.save(1L, 100L, TransactionType.CHARGE, i);
+        }
+        writer.close();
+
+        List<PointHistory> histories = pointHistoryTable.selectAllByUserId(1L);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), histories.stream().map(PointHistory::id).toList());
+    }
+
+    @Test
+    @DisplayName("기록에 실패한 내역은 그 내역만 버리고 센다")
+    void failedInsert_drops() throws Exception {
+        PointHistoryTable pointHistoryTable = new PointHistoryTable() {
+            @Override
+            public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+                if (amount == 300L) {
+                    throw new IllegalStateException("insert failed");
+                }
+                return super.insert(userId, amount, type, updateMillis);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PointHistoryWriter writer = new PointHistoryWriter(pointHistoryTable, new PointMetrics(meterRegistry), true, 64, 8);
+        PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled());
+
+        for (long amount : new long[]{100L, 200L, 300L, 400L}) {
+            repository.save(1L, amount, TransactionType.CHARGE, amount);
+        }
+        writer.flush();
+        writer.close();
+
+        assertEquals(List.of(100L, 200L, 400L),
+                pointHistoryTable.selectAllByUserId(1L).stream().map(PointHistory::amount).toList());
+        assertEquals(1.0, meterRegistry.get("point.history.dropped").counter().count());
+    }
+
+    @Test
+    @DisplayName("종료 중에 여러 스레드가 남은 내역을 기록해도 유저별 순서대로 기록된다")
+    void close_concurrentWrites_keepPerUserOrder() throws Exception {
+        List<PointHistory> inserted = new ArrayList<>();
+        AtomicInteger insertCount = new AtomicInteger();
+        // 지연 없이 받은 순서대로 남긴다. (기록기가 테이블 락을 잡고 부른다)
+        PointHistoryTable pointHistoryTable = new PointHistoryTable() {
+            @Override
+            public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+                PointHistory pointHistory = new PointHistory(inserted.size() + 1, userId, amount, type, updateMillis);
+                inserted.add(pointHistory);
+                insertCount.incrementAndGet();
+                return pointHistory;
+            }
+        };
+        PointHistoryWriter writer = new PointHistoryWriter(pointHistoryTable, METRICS, true, 16, 4);
+        PointHistoryRepository repository = new PointHistoryRepository(writer, PointWriteAheadLog.disabled());
+        int threadCount = 4;
+        int perUser = 2_000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            long userId = t;
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < perUser; i++) {
+                    repository.save(userId, 1L, TransactionType.CHARGE, i);
+                }
+            }));
+        }
+        while (insertCount.get() < 100) {
+            Thread.onSpinWait();
+        }
+        writer.close();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        synchronized (pointHistoryTable) {
+            assertEquals(threadCount * perUser, inserted.size());
+            for (long userId = 0; userId < threadCount; userId++) {
+                long user = userId;
+                List<Long> millis = inserted.stream().filter(history -> history.userId() == user)
+                        .map(PointHistory::updateMillis).toList();
+                assertEquals(LongStream.range(0, perUser).boxed().toList(), millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointCommitException;
+import io.hhplus.tdd.point.PointIdempotencyCache;
+import io.hhplus.tdd.point.PointRejectedException;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 멱등 키 중복 제거 검증
+ * - 같은 키의 재시도는 테이블을 거치지 않고 처음 결과를 받는다.
+ * - 같은 키의 동시 요청은 한번만 실행되고 모두 같은 결과를 받는다.
+ * - 금액이 다른 재사용은 거절되고, 반영 전에 실패한 요청은 결과를 남기지 않는다.
+ * - 반영된 뒤 실패한 요청은 반영된 포인트를 결과로 남겨서 재시도가 다시 반영하지 않는다.
+ * - 보관 개수를 넘거나 만료된 결과는 지워진다.
+ */
+public class TestPointIdempotencyCache {
+
+    @Test
+    @DisplayName("같은 키의 재시도는 테이블을 거치지 않고 처음 결과를 받는다")
+    void retry_returnsStoredResult() {
+        AtomicInteger upserts = new AtomicInteger();
+        UserPointTable userPointTable = new UserPointTable() {
+            @Override
+            public UserPoint insertOrUpdate(long id, long amount) {
+                upserts.incrementAndGet();
+                return super.insertOrUpdate(id, amount);
+            }
+        };
+        PointTestContext context = new PointTestContext(userPointTable, new PointHistoryTable());
+        PointIdempotencyCache cache = new PointIdempotencyCache(100, 60_000);
+
+        UserPoint first = cache.execute(1L, TransactionType.CHARGE, 1000L, "key-1",
+                () -> context.pointService.charge(1L, 1000L));
+        UserPoint retried = cache.execute(1L, TransactionType.CHARGE, 1000L, "key-1",
+                () -> context.pointService.charge(1L, 1000L));
+        // 키가 같아도 종류가 다르면 다른 요청이다.
+        UserPoint used = cache.execute(1L, TransactionType.USE, 1000L, "key-1",
+                () -> context.pointService.use(1L, 1000L));
+
+        assertEquals(first, retried);
+        assertEquals(0L, used.point());
+        assertEquals(2, upserts.get());
+        assertEquals(2, context.pointService.history(1L).size());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("같은 키의 동시 요청은 한번만 실행되고 모두 같은 결과를 받는다")
+    void concurrentDuplicates_executeOnce() throws Exception {
+        PointIdempotencyCache cache = new PointIdempotencyCache(100, 60_000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threadCount = 10;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> cache.execute(1L, TransactionType.CHARGE, 100L, "key-1", () -> {
+                    executions.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return new UserPoint(1L, 100L, 1L);
+                })))
+                .toList();
+        while (cache.waitCount() + executions.get() < threadCount) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Future<UserPoint> future : futures) {
+            assertEquals(new UserPoint(1L, 100L, 1L), future.get(30, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(threadCount - 1, cache.waitCount());
+    }
+
+    @Test
+    @DisplayName("금액이 다른 재사용은 거절되고, 반영 전에 실패한 요청은 결과를 남기지 않는다")
+    void mismatchAndFailure() {
+        PointIdempotencyCache cache = new PointIdempotencyCache(100, 60_000);
+        cache.execute(1L, TransactionType.CHARGE, 100L, "key-1", () -> new UserPoint(1L, 100L, 1L));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.execute(1L, TransactionType.CHARGE, 200L, "key-1", () -> fail("실행되면 안 됩니다.")));
+
+        assertThrows(PointRejectedException.class, () -> cache.execute(1L, TransactionType.USE, 500L, "key-2", () -> {
+            throw new PointRejectedException(PointRejectedException.Reason.INSUFFICIENT_BALANCE, "잔액 부족");
+        }));
+        UserPoint retried = cache.execute(1L, TransactionType.USE, 500L, "key-2", () -> new UserPoint(1L, 0L, 2L));
+        assertEquals(0L, retried.point());
+    }
+
+    @Test
+    @DisplayName("반영된 뒤 실패한 요청은 반영된 포인트를 결과로 남겨서 재시도가 다시 반영하지 않는다")
+    void failureAfterCommit_storesApplied() {
+        PointIdempotencyCache cache = new PointIdempotencyCache(100, 60_000);
+        UserPoint applied = new UserPoint(1L, 300L, 1L);
+
+        assertThrows(PointCommitException.class, () -> cache.execute(1L, TransactionType.CHARGE, 300L, "key-1", () -> {
+            throw new PointCommitException(applied, new IllegalStateException("sync failed"));
+        }));
+        UserPoint retried = cache.execute(1L, TransactionType.CHARGE, 300L, "key-1", () -> fail("실행되면 안 됩니다."));
+
+        assertEquals(applied, retried);
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    @DisplayName("보관 개수를 넘거나 만료된 결과는 지워진다")
+    void evictsBySizeAndTtl() throws Exception {
+        PointIdempotencyCache bounded = new PointIdempotencyCache(2, 60_000);
+        for (int i = 0; i < 5; i++) {
+            bounded.execute(1L, TransactionType.CHARGE, 1L, "key-" + i, () -> new UserPoint(1L, 1L, 1L));
+        }
+        assertEquals(2, bounded.size());
+        assertEquals(3, bounded.evictionCount());
+
+        PointIdempotencyCache expiring = new PointIdempotencyCache(100, 1);
+        AtomicInteger executions = new AtomicInteger();
+        expiring.execute(1L, TransactionType.CHARGE, 1L, "key-1", () -> new UserPoint(1L, executions.incrementAndGet(), 1L));
+        TimeUnit.MILLISECONDS.sleep(5);
+        UserPoint again = expiring.execute(1L, TransactionType.CHARGE, 1L, "key-1",
+                () -> new UserPoint(1L, executions.incrementAndGet(), 1L));
+        assertEquals(2L, again.point());
+    }
+}
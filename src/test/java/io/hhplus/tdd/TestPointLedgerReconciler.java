@@ -0,0 +1,105 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointLedgerReconciler;
+import io.hhplus.tdd.point.PointReconciliationReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 잔액 대사 검증
+ * - 충전/사용으로만 바뀐 잔액은 내역 합계와 같다.
+ * - 내역 없이 바뀐 잔액은 불일치로 보고된다.
+ * - 대사 중에 충전/사용이 이어져도 불일치로 보고되지 않는다.
+ * - 테이블 저장소에서는 주기 대사를 켤 수 없다.
+ */
+public class TestPointLedgerReconciler {
+
+    @Test
+    @DisplayName("충전/사용으로만 바뀐 잔액은 내역 합계와 같다")
+    void reconcile_matches() throws Exception {
+        PointTestContext context = new PointTestContext();
+        context.pointService.charge(1L, 1000L);
+        context.pointService.use(1L, 300L);
+        context.pointService.charge(2L, 500L);
+
+        try (PointLedgerReconciler reconciler = newReconciler(context)) {
+            PointReconciliationReport report = reconciler.reconcile();
+
+            assertEquals(3, report.cutId());
+            assertEquals(2, report.users());
+            assertEquals(3, report.histories());
+            assertEquals(0, report.mismatchCount());
+            assertEquals(0, report.unsettled());
+        }
+    }
+
+    @Test
+    @DisplayName("내역 없이 바뀐 잔액은 불일치로 보고된다")
+    void reconcile_reportsMismatch() throws Exception {
+        PointTestContext context = new PointTestContext();
+        context.pointService.charge(1L, 1000L);
+        context.pointService.charge(2L, 500L);
+        context.userPointTable.insertOrUpdate(2L, 700L);
+
+        try (PointLedgerReconciler reconciler = newReconciler(context)) {
+            PointReconciliationReport report = reconciler.reconcile();
+
+            assertEquals(1, report.mismatchCount());
+            assertEquals(List.of(new PointReconciliationReport.Mismatch(2L, 700L, 500L)), report.mismatches());
+            assertEquals(1, reconciler.lastMismatchCount());
+        }
+    }
+
+    @Test
+    @DisplayName("대사 중에 충전/사용이 이어져도 불일치로 보고되지 않는다")
+    void reconcile_duringWrites() throws Exception {
+        PointTestContext context = new PointTestContext();
+        int userCount = 4;
+        ExecutorService executorService = Executors.newFixedThreadPool(userCount);
+        List<Future<?>> futures = IntStream.range(0, userCount)
+                .<Future<?>>mapToObj(userId -> executorService.submit(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        context.pointService.charge(userId, 100L);
+                    }
+                }))
+                .toList();
+
+        try (PointLedgerReconciler reconciler = newReconciler(context)) {
+            PointReconciliationReport during = reconciler.reconcile();
+            assertEquals(0, during.mismatchCount());
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            PointReconciliationReport after = reconciler.reconcile();
+            assertEquals(userCount, after.users());
+            assertEquals(userCount * 5, after.histories());
+            assertEquals(0, after.mismatchCount());
+            assertEquals(0, after.unsettled());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("테이블 저장소에서는 주기 대사를 켤 수 없다")
+    void enabledOnTableStore_refused() {
+        PointTestContext context = new PointTestContext();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new PointLedgerReconciler(context.pointPartitions, true, 3600, 4, 5, 400, 100));
+    }
+
+    private static PointLedgerReconciler newReconciler(PointTestContext context) {
+        return new PointLedgerReconciler(context.pointPartitions, false, 3600, 4, 5, 400, 100);
+    }
+}
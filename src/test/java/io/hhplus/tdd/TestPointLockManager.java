@@ -0,0 +1,153 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointLockManager;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.UserPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 유저별 락 동작 검증
+ * - 같은 유저의 요청은 한번에 하나씩, 도착한 순서대로 실행된다.
+ * - 다른 유저의 요청은 서로를 기다리지 않고 병렬로 실행된다.
+ * - 요청이 모두 끝나면 유저별 락은 정리된다.
+ */
+public class TestPointLockManager {
+
+    private static final PointMetrics METRICS = new PointMetrics(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("같은 유저의 요청은 도착 순서대로 하나씩 실행된다")
+    void sameUser_runsSequentiallyInArrivalOrder() throws Exception {
+        PointLockManager lockManager = new PointLockManager(0, METRICS);
+        ExecutorService executorService = Executors.newFixedThreadPool(11);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        long userId = 1L;
+
+        // 첫 요청이 락을 잡고 있는 동안 나머지 요청을 순서대로 대기시킨다.
+        Future<?> first = executorService.submit(() -> lockManager.executeWithLock(userId, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        holding.await();
+
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int seq = i;
+            futures.add(executorService.submit(() -> lockManager.executeWithLock(userId, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(seq);
+                running.decrementAndGet();
+                return null;
+            })));
+            Thread.sleep(20);
+        }
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(IntStream.range(0, 10).boxed().toList(), order);
+        assertEquals(0, lockManager.lockedUserCount());
+    }
+
+    @Test
+    @DisplayName("다른 유저의 요청은 병렬로 실행된다")
+    void differentUsers_runInParallel() throws Exception {
+        PointLockManager lockManager = new PointLockManager(0, METRICS);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        // 두 유저의 작업이 동시에 락 안에 있어야만 래치가 풀린다.
+        Future<Boolean> user1 = executorService.submit(() -> lockManager.executeWithLock(1L, () -> {
+            bothRunning.countDown();
+            return await(bothRunning);
+        }));
+        Future<Boolean> user2 = executorService.submit(() -> lockManager.executeWithLock(2L, () -> {
+            bothRunning.countDown();
+            return await(bothRunning);
+        }));
+
+        assertTrue(user1.get(5, TimeUnit.SECONDS));
+        assertTrue(user2.get(5, TimeUnit.SECONDS));
+        executorService.shutdown();
+        assertEquals(0, lockManager.lockedUserCount());
+    }
+
+    @Test
+    @DisplayName("락 대기 시간을 넘기면 요청은 실패한다")
+    void lockTimeout_throwsException() throws Exception {
+        PointLockManager lockManager = new PointLockManager(50, METRICS);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = executorService.submit(() -> lockManager.executeWithLock(1L, () -> {
+            holding.countDown();
+            await(release);
+            return null;
+        }));
+        holding.await();
+
+        assertThrows(IllegalStateException.class, () -> lockManager.executeWithLock(1L, () -> null));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executorService.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 유저에 대한 동시 충전/사용이 유실 없이 반영된다")
+    void concurrentChargeAndUse_sameUser() throws Exception {
+        PointService pointService = new PointTestContext().pointService;
+        int threadCount = 10;
+        long userId = 1L;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        pointService.charge(userId, 1000L);
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> i % 2 == 0
+                        ? pointService.charge(userId, 100L)
+                        : pointService.use(userId, 50L)))
+                .toList();
+        for (Future<UserPoint> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        assertEquals(1000L + 100L * 5 - 50L * 5, pointService.point(userId).point());
+        assertEquals(threadCount + 1, pointService.history(userId).size());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.HotUserSketch;
+import io.hhplus.tdd.point.PointRejectedException;
+import io.hhplus.tdd.point.PointService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 포인트 지표 검증
+ * - 거절된 요청은 사유별로 집계된다.
+ * - 요청이 몰린 유저가 상위 K 명에 잡힌다.
+ */
+public class TestPointMetrics {
+
+    @Test
+    @DisplayName("거절된 충전/사용 요청은 사유별로 집계된다")
+    void rejections_countedByReason() {
+        PointTestContext context = new PointTestContext();
+        PointService pointService = context.pointService;
+
+        pointService.charge(1L, 90_000L);
+        PointRejectedException overCap = assertThrows(PointRejectedException.class, () -> pointService.charge(1L, 20_000L));
+        PointRejectedException insufficient = assertThrows(PointRejectedException.class, () -> pointService.use(2L, 1L));
+        assertThrows(PointRejectedException.class, () -> pointService.charge(1L, 0L));
+
+        assertEquals(PointRejectedException.Reason.OVER_CAP, overCap.getReason());
+        assertEquals(PointRejectedException.Reason.INSUFFICIENT_BALANCE, insufficient.getReason());
+        assertEquals(1.0, context.meterRegistry.get("point.rejections").tag("reason", "over_cap").counter().count());
+        assertEquals(1.0, context.meterRegistry.get("point.rejections").tag("reason", "insufficient_balance").counter().count());
+        assertEquals(1.0, context.meterRegistry.get("point.rejections").tag("reason", "invalid_amount").counter().count());
+        assertEquals(0, context.pointMetrics.inflight());
+    }
+
+    @Test
+    @DisplayName("요청이 몰린 유저가 상위 K 명에 순서대로 잡힌다")
+    void hotUsers_topK() {
+        HotUserSketch sketch = new HotUserSketch(4, 1);
+        for (long userId = 1; userId <= 100; userId++) {
+            sketch.offer(userId);
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.offer(7L);
+            if (i % 2 == 0) {
+                sketch.offer(42L);
+            }
+        }
+
+        long[][] top = sketch.top(2);
+
+        assertEquals(2, top.length);
+        assertEquals(7L, top[0][0]);
+        assertEquals(42L, top[1][0]);
+        assertTrue(top[0][1] >= 500);
+    }
+}
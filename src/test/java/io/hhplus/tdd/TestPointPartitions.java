@@ -0,0 +1,147 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.InMemoryUserPointStore;
+import io.hhplus.tdd.database.PrimitiveUserPointStore;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryColdStore;
+import io.hhplus.tdd.point.PointHistorySequence;
+import io.hhplus.tdd.point.PointMetrics;
+import io.hhplus.tdd.point.PointPartitionFactory;
+import io.hhplus.tdd.point.PointPartitionRing;
+import io.hhplus.tdd.point.PointPartitions;
+import io.hhplus.tdd.point.PointService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 파티션 라우팅과 재분배 검증
+ * - 해시 링은 유저를 파티션에 고르게 나누고, 파티션을 더하면 새 파티션으로 가는 유저만 자리가 바뀐다.
+ * - 충전이 계속 들어오는 중에 파티션을 더해도, 모든 충전이 한번씩 반영되고 내역도 빠짐없이 id 순서대로 남는다.
+ *   내역 id 는 파티션 사이에서 겹치지 않는다.
+ * - 옮겨간 유저는 새 파티션에서 처리된다.
+ * - 새 파티션의 잔액 저장소는 point.store.type 을 따른다.
+ */
+public class TestPointPartitions {
+
+    @Test
+    @DisplayName("파티션을 더하면 새 파티션으로 가는 유저만 옮겨진다")
+    void ring_addPartitionMovesOnlyToNewPartition() {
+        PointPartitionRing ring = new PointPartitionRing(4, 128);
+        PointPartitionRing next = ring.withPartition();
+        int users = 100_000;
+        int[] counts = new int[4];
+        int moved = 0;
+        for (long userId = 1; userId <= users; userId++) {
+            int before = ring.partitionOf(userId);
+            int after = next.partitionOf(userId);
+            counts[before]++;
+            if (before != after) {
+                assertEquals(4, after, "userId=" + userId);
+                moved++;
+            }
+        }
+
+        for (int count : counts) {
+            assertTrue(count > users * 0.18 && count < users * 0.32, "count=" + count);
+        }
+        assertTrue(moved > users * 0.12 && moved < users * 0.28, "moved=" + moved);
+    }
+
+    @Test
+    @DisplayName("충전 중에 파티션을 더해도 모든 충전과 내역이 옮겨진 파티션에 남는다")
+    void addPartition_underLoad_keepsEveryCharge() throws Exception {
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        PointPartitionFactory factory = new PointPartitionFactory(pointMetrics, PointHistorySequence.standalone(), 4, "lock",
+                64, 1000, 0, 1000, true, 1024, 64);
+        PointPartitions pointPartitions = new PointPartitions(List.of(factory.create(0), factory.create(1)), factory, 128);
+        PointService pointService = new PointService(pointPartitions, pointMetrics);
+        int users = 24;
+        AtomicLongArray charged = new AtomicLongArray(users + 1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            // 옮기기 전에 모든 유저가 원래 파티션에 잔액과 내역을 갖게 한다.
+            List<Future<?>> seeds = new ArrayList<>();
+            for (int userId = 1; userId <= users; userId++) {
+                int id = userId;
+                seeds.add(executorService.submit(() -> {
+                    pointService.charge(id, 10L);
+                    charged.addAndGet(id, 10L);
+                }));
+            }
+            for (Future<?> seed : seeds) {
+                seed.get(30, TimeUnit.SECONDS);
+            }
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int worker = t;
+                workers.add(executorService.submit(() -> {
+                    for (int i = 0; i < 12; i++) {
+                        int id = (worker * 5 + i * 7) % users + 1;
+                        pointService.charge(id, 10L);
+                        charged.addAndGet(id, 10L);
+                    }
+                }));
+            }
+            PointPartitions.Rebalance rebalance = pointPartitions.addPartition();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(2, rebalance.partition());
+            assertEquals(3, pointPartitions.partitionCount());
+            int movedUsers = 0;
+            Set<Long> historyIds = new HashSet<>();
+            for (int userId = 1; userId <= users; userId++) {
+                if (pointPartitions.partitionOf(userId) == 2) {
+                    movedUsers++;
+                }
+                assertEquals(charged.get(userId), pointService.point(userId).point(), "userId=" + userId);
+                List<PointHistory> histories = pointService.history(userId);
+                assertEquals(charged.get(userId) / 10, histories.size(), "userId=" + userId);
+                for (int i = 1; i < histories.size(); i++) {
+                    assertTrue(histories.get(i - 1).id() < histories.get(i).id(), "userId=" + userId);
+                }
+                histories.forEach(pointHistory -> assertTrue(historyIds.add(pointHistory.id()), "id=" + pointHistory.id()));
+            }
+            assertTrue(movedUsers > 0);
+            assertEquals(movedUsers, rebalance.movedUsers());
+        } finally {
+            executorService.shutdown();
+            pointPartitions.close();
+        }
+    }
+
+    @Test
+    @DisplayName("새 파티션의 잔액 저장소는 point.store.type 을 따른다")
+    void create_followsStoreType() throws Exception {
+        PointMetrics pointMetrics = new PointMetrics(new SimpleMeterRegistry());
+        for (String storeType : List.of("memory", "primitive")) {
+            PointPartitionFactory factory = new PointPartitionFactory(pointMetrics, PointHistorySequence.standalone(),
+                    PointHistoryColdStore.disabled(), storeType, 1024, false, 0, "lock", 64, 1000, 60_000, 1, 0, 100,
+                    false, 16, 16);
+            PointPartitions pointPartitions = new PointPartitions(List.of(factory.create(0)), factory, 128);
+            pointPartitions.addPartition();
+
+            Class<?> expected = storeType.equals("memory") ? InMemoryUserPointStore.class : PrimitiveUserPointStore.class;
+            assertEquals(expected, pointPartitions.partitions().get(1).userPointStore().getClass());
+            pointPartitions.close();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PointPartitionFactory(pointMetrics,
+                PointHistorySequence.standalone(), PointHistoryColdStore.disabled(), "unknown", 1024, false, 0, "lock",
+                64, 1000, 60_000, 1, 0, 100, false, 16, 16));
+    }
+}
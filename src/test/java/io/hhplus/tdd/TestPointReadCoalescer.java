@@ -0,0 +1,115 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointReadCoalescer;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 동시 잔액 조회 합치기 검증
+ * - 캐시에 없는 유저를 동시에 조회하면 테이블 조회가 합쳐지고, 모두 같은 잔액을 받는다.
+ * - 읽기 직전에 목록에서 빠진 조회에는 더 이상 합쳐지지 않고 새로 읽는다.
+ * - 직접 읽은 건수와 합쳐진 건수가 지표로 남는다.
+ */
+public class TestPointReadCoalescer {
+
+    @Test
+    @DisplayName("같은 유저의 동시 조회는 테이블 조회가 합쳐진다")
+    void concurrentReads_shareTableCall() throws Exception {
+        AtomicInteger selects = new AtomicInteger();
+        UserPointTable userPointTable = new UserPointTable() {
+            @Override
+            public UserPoint selectById(Long id) {
+                selects.incrementAndGet();
+                return super.selectById(id);
+            }
+        };
+        userPointTable.insertOrUpdate(1L, 700L);
+        PointTestContext context = new PointTestContext(userPointTable, new PointHistoryTable());
+        int threadCount = 20;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<UserPoint>> futures = IntStream.range(0, threadCount)
+                .mapToObj(i -> executorService.submit(() -> {
+                    start.await();
+                    return context.pointService.point(1L);
+                }))
+                .toList();
+        start.countDown();
+        for (Future<UserPoint> future : futures) {
+            assertEquals(700L, future.get(30, TimeUnit.SECONDS).point());
+        }
+        executorService.shutdown();
+
+        // 처음 읽는 동안 들어온 조회는 다음 한번으로 합쳐지고, 그 뒤로는 캐시에서 읽는다.
+        assertTrue(selects.get() <= 2, "selects=" + selects.get());
+        double loads = context.meterRegistry.get("point.read.loads").counter().count();
+        double coalesced = context.meterRegistry.get("point.read.coalesced").counter().count();
+        assertTrue(loads >= 1 && loads + coalesced <= threadCount);
+    }
+
+    @Test
+    @DisplayName("읽기 시작 전에 들어온 조회만 합쳐지고, 그 뒤의 조회는 새로 읽는다")
+    void readsAfterDetach_loadAgain() throws Exception {
+        PointTestContext context = new PointTestContext();
+        PointReadCoalescer coalescer = context.pointReadCoalescer;
+        CountDownLatch joined = new CountDownLatch(1);
+        CountDownLatch detached = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserPoint> leader = executorService.submit(() -> coalescer.load(1L, detach -> {
+                await(joined);
+                detach.run();
+                detached.countDown();
+                await(finish);
+                return new UserPoint(1L, 100L, 1L);
+            }));
+            Future<UserPoint> follower = executorService.submit(() -> coalescer.load(1L, detach -> {
+                throw new AssertionError("진행 중인 조회에 합쳐져야 합니다.");
+            }));
+            while (context.meterRegistry.get("point.read.coalesced").counter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            joined.countDown();
+            detached.await(10, TimeUnit.SECONDS);
+
+            // 읽기를 시작한 조회에는 합쳐지지 않는다.
+            UserPoint fresh = coalescer.load(1L, detach -> {
+                detach.run();
+                return new UserPoint(1L, 200L, 2L);
+            });
+            finish.countDown();
+
+            assertEquals(200L, fresh.point());
+            assertEquals(100L, leader.get(10, TimeUnit.SECONDS).point());
+            assertEquals(100L, follower.get(10, TimeUnit.SECONDS).point());
+            assertEquals(0, coalescer.pendingCount());
+            assertEquals(2.0, context.meterRegistry.get("point.read.loads").counter().count());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -56,9 +55,15 @@ public class TestPointService {
     @Mock
     private PointHistoryTable pointHistoryTable;
 
-    @InjectMocks
+    private PointTestContext context;
     private PointService pointService;
 
+    @BeforeEach
+    void setUp() {
+        context = new PointTestContext(userPointTable, pointHistoryTable);
+        pointService = context.pointService;
+    }
+
     @Test
     @DisplayName("포인트 충전 성공케이스")
     void testCharge_successful(){
@@ -238,12 +243,14 @@ public class TestPointService {
     void testHistory_Success() {
         // Given
         long userId = 1L;
+        long now = System.currentTimeMillis();
         List<PointHistory> expectedHistories = Arrays.asList(
-                new PointHistory(1L, userId, 100L, TransactionType.CHARGE, System.currentTimeMillis()),
-                new PointHistory(2L, userId, 50L, TransactionType.USE, System.currentTimeMillis())
+                new PointHistory(1L, userId, 100L, TransactionType.CHARGE, now),
+                new PointHistory(2L, userId, 50L, TransactionType.USE, now)
         );
 
-        when(pointHistoryTable.selectAllByUserId(userId)).thenReturn(expectedHistories);
+        context.pointHistoryRepository.save(userId, 100L, TransactionType.CHARGE, now);
+        context.pointHistoryRepository.save(userId, 50L, TransactionType.USE, now);
 
         // When
         List<PointHistory> result = pointService.history(userId);
@@ -252,7 +259,7 @@ public class TestPointService {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(expectedHistories, result);
-        verify(pointHistoryTable, times(1)).selectAllByUserId(userId);
+        verify(pointHistoryTable, never()).selectAllByUserId(userId);  // 전체 내역을 훑지 않고 유저별 색인에서 읽는다
     }
 
     @Test
@@ -260,7 +267,6 @@ public class TestPointService {
     void testHistory_EmptyHistory() {
         // Given
         long userId = 999L;
-        when(pointHistoryTable.selectAllByUserId(userId)).thenReturn(List.of());
 
         // When
         List<PointHistory> result = pointService.history(userId);
@@ -268,7 +274,7 @@ public class TestPointService {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(pointHistoryTable, times(1)).selectAllByUserId(userId);
+        verify(pointHistoryTable, never()).selectAllByUserId(userId);
     }
 
     @Test
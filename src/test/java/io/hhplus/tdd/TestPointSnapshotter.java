@@ -0,0 +1,191 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointSnapshotter;
+import io.hhplus.tdd.point.PointSnapshotter.Compaction;
+import io.hhplus.tdd.point.PointWriteAheadLog.FsyncPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 잔액 스냅샷과 로그 정리 검증
+ * - 스냅샷은 다 채워진 세그먼트까지의 잔액이고, 포함된 세그먼트는 보관 디렉토리로 옮겨진다.
+ * - 재시작하면 스냅샷을 읽고 그 뒤의 로그만 잔액에 다시 적용한다. 보관된 내역은 기본으로 다시 읽지 않는다.
+ * - replay-archive 를 켜면 보관된 내역이 조회에 다시 복구된다.
+ * - 지운 세그먼트의 내역은 복구되지 않고, 시점 잔액은 지운 내역까지의 잔액에서 이어진다.
+ * - 다음 스냅샷은 직전 스냅샷에 바뀐 유저만 합친다.
+ * - 손상된 스냅샷은 건너뛰고 직전 스냅샷을 읽는다.
+ */
+public class TestPointSnapshotter {
+
+    // 세그먼트 하나에 레코드 2건
+    private static final int SEGMENT_BYTES = 40 * 2;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("스냅샷에 포함된 세그먼트는 보관되고, 재시작하면 스냅샷과 남은 로그로 잔액이 복구된다")
+    void snapshot_archivesAndRecovers() throws Exception {
+        DurablePointTestContext context = durable(Compaction.ARCHIVE);
+        context.pointService.charge(1L, 1_000L);
+        context.pointService.charge(2L, 500L);
+        context.pointService.use(1L, 300L);
+        context.pointService.charge(3L, 10L);
+        context.pointService.use(2L, 100L);
+
+        // 1~4 번 내역이 든 세그먼트 두 개만 스냅샷에 포함된다.
+        assertEquals(4L, context.pointSnapshotter.snapshot());
+        assertEquals(2, files("archive").size());
+        assertEquals(1, context.pointWriteAheadLog.segmentCount());
+        context.close();
+
+        DurablePointTestContext restarted = durable(Compaction.ARCHIVE);
+        assertEquals(4L, restarted.pointLedgerRecovery.snapshotId());
+        assertEquals(5L, restarted.pointLedgerRecovery.lastId());
+        assertEquals(1, restarted.pointLedgerRecovery.userCount());
+        assertEquals(700L, restarted.pointService.point(1L).point());
+        assertEquals(400L, restarted.pointService.point(2L).point());
+        assertEquals(10L, restarted.pointService.point(3L).point());
+        // 보관된 내역은 다시 읽지 않으므로 스냅샷 이후의 내역만 조회되고, 시점 잔액은 스냅샷 잔액에서 이어진다.
+        assertEquals(List.of(5L), restarted.pointService.history(2L).stream().map(PointHistory::id).toList());
+        assertEquals(500L, restarted.pointService.pointAt(2L, 0L).point());
+        assertEquals(400L, restarted.pointService.pointAt(2L, Long.MAX_VALUE).point());
+        assertEquals(2, files("archive").size());
+
+        // 새 내역 id 는 마지막 내역 다음부터 이어진다.
+        restarted.pointService.charge(3L, 5L);
+        assertEquals(List.of(6L), restarted.pointService.history(3L).stream().map(PointHistory::id).toList());
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("replay-archive 를 켜면 보관된 내역이 조회에 다시 복구된다")
+    void replayArchive_restoresArchivedHistory() throws Exception {
+        DurablePointTestContext context = durable(Compaction.ARCHIVE, true);
+        context.pointService.charge(1L, 1_000L);
+        context.pointService.charge(2L, 500L);
+        context.pointService.use(1L, 300L);
+        context.pointService.charge(3L, 10L);
+        context.pointService.use(2L, 100L);
+        assertEquals(4L, context.pointSnapshotter.snapshot());
+        context.close();
+
+        DurablePointTestContext restarted = durable(Compaction.ARCHIVE, true);
+        assertEquals(5L, restarted.pointLedgerRecovery.lastId());
+        assertEquals(400L, restarted.pointService.point(2L).point());
+        assertEquals(List.of(2L, 5L), restarted.pointService.history(2L).stream().map(PointHistory::id).toList());
+        assertEquals(List.of(1L, 3L), restarted.pointService.history(1L).stream().map(PointHistory::id).toList());
+        // 시점 잔액도 첫 내역부터 계산한다.
+        assertEquals(0L, restarted.pointService.pointAt(2L, 0L).point());
+        assertEquals(400L, restarted.pointService.pointAt(2L, Long.MAX_VALUE).point());
+        assertEquals(0L, restarted.pointService.pointAt(1L, 0L).point());
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("지운 세그먼트의 내역은 조회에서 빠지고, 시점 잔액은 스냅샷 잔액에서 이어진다")
+    void deletedSegments_startFromSnapshotBalance() throws Exception {
+        DurablePointTestContext context = durable(Compaction.DELETE);
+        context.pointService.charge(1L, 1_000L);
+        context.pointService.charge(2L, 500L);
+        context.pointService.use(1L, 300L);
+        context.pointService.charge(3L, 10L);
+        context.pointService.use(2L, 100L);
+        assertEquals(4L, context.pointSnapshotter.snapshot());
+        context.close();
+
+        DurablePointTestContext restarted = durable(Compaction.DELETE);
+        assertEquals(400L, restarted.pointService.point(2L).point());
+        assertEquals(List.of(5L), restarted.pointService.history(2L).stream().map(PointHistory::id).toList());
+        // 시점 잔액은 지운 내역까지의 잔액(500)에서 남은 내역을 이어서 계산한다.
+        assertEquals(500L, restarted.pointService.pointAt(2L, 0L).point());
+        assertEquals(400L, restarted.pointService.pointAt(2L, Long.MAX_VALUE).point());
+        assertEquals(700L, restarted.pointService.pointAt(1L, 0L).point());
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("다음 스냅샷은 직전 스냅샷에 바뀐 유저만 합친다")
+    void snapshot_mergesWithPrevious() throws Exception {
+        DurablePointTestContext context = durable(Compaction.DELETE);
+        context.pointService.charge(1L, 100L);
+        context.pointService.charge(3L, 300L);
+        context.pointService.charge(5L, 500L);
+        assertEquals(2L, context.pointSnapshotter.snapshot());
+
+        context.pointService.charge(2L, 200L);
+        context.pointService.use(3L, 50L);
+        context.pointService.charge(6L, 600L);
+        // 5, 6 번 내역이 든 세그먼트는 다음 내역이 들어와야 다 채워진 세그먼트가 된다.
+        context.pointService.charge(7L, 700L);
+        assertEquals(6L, context.pointSnapshotter.snapshot());
+        assertTrue(files("archive").isEmpty());
+        assertEquals(2, files("snapshot").size());
+
+        Map<Long, Long> balances = new HashMap<>();
+        long snapshotId = context.pointSnapshotter.load((userId, point, updateMillis) -> balances.put(userId, point));
+        context.close();
+
+        assertEquals(6L, snapshotId);
+        assertEquals(Map.of(1L, 100L, 2L, 200L, 3L, 250L, 5L, 500L, 6L, 600L), balances);
+    }
+
+    @Test
+    @DisplayName("최근 스냅샷이 손상되면 직전 스냅샷과 로그로 복구한다")
+    void corruptSnapshot_fallsBackToPrevious() throws Exception {
+        DurablePointTestContext context = durable(Compaction.NONE);
+        context.pointService.charge(1L, 100L);
+        context.pointService.charge(1L, 200L);
+        context.pointService.charge(1L, 300L);
+        assertEquals(2L, context.pointSnapshotter.snapshot());
+        context.pointService.charge(2L, 400L);
+        context.pointService.charge(2L, 500L);
+        assertEquals(4L, context.pointSnapshotter.snapshot());
+        context.close();
+
+        List<Path> snapshots = files("snapshot");
+        try (FileChannel channel = FileChannel.open(snapshots.get(1), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{9, 9, 9}), 20);
+        }
+
+        DurablePointTestContext restarted = durable(Compaction.NONE);
+        assertEquals(2L, restarted.pointLedgerRecovery.snapshotId());
+        assertEquals(600L, restarted.pointService.point(1L).point());
+        assertEquals(900L, restarted.pointService.point(2L).point());
+        assertEquals(3, restarted.pointService.history(1L).size());
+        restarted.close();
+    }
+
+    private DurablePointTestContext durable(PointSnapshotter.Compaction compaction) {
+        return durable(compaction, false);
+    }
+
+    private DurablePointTestContext durable(PointSnapshotter.Compaction compaction, boolean replayArchive) {
+        return new DurablePointTestContext(directory, FsyncPolicy.OS, SEGMENT_BYTES, compaction, replayArchive);
+    }
+
+    private List<Path> files(String name) throws IOException {
+        Path path = directory.resolve(name);
+        if (!Files.isDirectory(path)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.sorted().toList();
+        }
+    }
+}
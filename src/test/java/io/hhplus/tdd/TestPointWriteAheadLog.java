@@ -0,0 +1,134 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointSnapshotter;
+import io.hhplus.tdd.point.PointWriteAheadLog;
+import io.hhplus.tdd.point.PointWriteAheadLog.FsyncPolicy;
+import io.hhplus.tdd.point.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 포인트 내역 선행 기록 로그 검증
+ * - 세그먼트를 넘나들며 덧붙인 내역을 다시 열었을 때 순서대로 읽을 수 있다.
+ * - 끝이 손상된 레코드는 버리고 그 자리부터 이어 쓴다.
+ * - 재시작하면 로그로 잔액과 내역이 복구된다.
+ */
+public class TestPointWriteAheadLog {
+
+    // 세그먼트 하나에 레코드 4건
+    private static final int SEGMENT_BYTES = 40 * 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("세그먼트를 넘나들며 기록한 내역을 다시 열면 순서대로 읽힌다")
+    void replay_acrossSegments() throws Exception {
+        PointWriteAheadLog wal = open(FsyncPolicy.ALWAYS);
+        for (long id = 1; id <= 10; id++) {
+            wal.append(history(id));
+            wal.sync(id);
+        }
+        assertEquals(10L, wal.durableId());
+        assertEquals(3, wal.segmentCount());
+        wal.close();
+
+        PointWriteAheadLog reopened = open(FsyncPolicy.OS);
+        List<PointHistory> replayed = new ArrayList<>();
+        long lastId = reopened.replay(replayed::add);
+        reopened.close();
+
+        assertEquals(10L, lastId);
+        assertEquals(10, replayed.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(history(i + 1), replayed.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("마지막 레코드가 손상되면 버리고 그 자리부터 이어 쓴다")
+    void tornTail_isDiscarded() throws Exception {
+        PointWriteAheadLog wal = open(FsyncPolicy.GROUP);
+        for (long id = 1; id <= 6; id++) {
+            wal.append(history(id));
+        }
+        wal.sync(6);
+        wal.close();
+        corruptRecord(lastSegment(), 1);
+
+        PointWriteAheadLog reopened = open(FsyncPolicy.GROUP);
+        assertEquals(5L, reopened.lastAppendedId());
+        reopened.append(history(6));
+        reopened.append(history(7));
+        reopened.sync(7);
+        reopened.close();
+
+        List<PointHistory> replayed = new ArrayList<>();
+        PointWriteAheadLog again = open(FsyncPolicy.OS);
+        again.replay(replayed::add);
+        again.close();
+
+        assertEquals(7, replayed.size());
+        assertEquals(history(7), replayed.get(6));
+    }
+
+    @Test
+    @DisplayName("재시작하면 로그로 잔액과 내역이 복구되고, 내역 id 는 이어서 매겨진다")
+    void restart_recoversBalancesAndHistory() throws Exception {
+        DurablePointTestContext context = durable();
+        context.pointService.charge(1L, 1_000L);
+        context.pointService.use(1L, 300L);
+        context.pointService.charge(2L, 500L);
+        context.close();
+
+        DurablePointTestContext restarted = durable();
+        assertEquals(3L, restarted.pointLedgerRecovery.lastId());
+        assertEquals(2, restarted.pointLedgerRecovery.userCount());
+        assertEquals(700L, restarted.pointService.point(1L).point());
+        assertEquals(500L, restarted.pointService.point(2L).point());
+        assertEquals(List.of(TransactionType.CHARGE, TransactionType.USE),
+                restarted.pointService.history(1L).stream().map(PointHistory::type).toList());
+
+        restarted.pointService.charge(2L, 100L);
+        assertEquals(4L, restarted.pointService.history(2L).get(1).id());
+        restarted.close();
+    }
+
+    private PointWriteAheadLog open(FsyncPolicy fsyncPolicy) {
+        return new PointWriteAheadLog(true, directory.toString(), SEGMENT_BYTES, fsyncPolicy, 1);
+    }
+
+    private DurablePointTestContext durable() {
+        return new DurablePointTestContext(directory, FsyncPolicy.GROUP, SEGMENT_BYTES, PointSnapshotter.Compaction.NONE);
+    }
+
+    private static PointHistory history(long id) {
+        return new PointHistory(id, id % 3, id * 10, id % 2 == 0 ? TransactionType.USE : TransactionType.CHARGE, 1_000L + id);
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+
+    private static void corruptRecord(Path segment, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), index * 40L + 36);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PrimitiveUserPointStore;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * 박싱 없는 잔액 저장소 검증
+ * - 없는 유저는 잔액 0 으로 조회된다.
+ * - 저장한 잔액과 갱신 시각이 그대로 조회되고, 칸이 모자라면 늘어난다. (heap, off-heap)
+ * - 여러 스레드가 동시에 저장하고 조회해도 값을 잃지 않는다.
+ */
+public class TestPrimitiveUserPointStore {
+
+    @Test
+    @DisplayName("없는 유저는 잔액 0 으로 조회된다")
+    void unknownUser_isEmpty() {
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(16, false);
+
+        UserPoint userPoint = store.selectById(42L);
+
+        assertEquals(42L, userPoint.id());
+        assertEquals(0L, userPoint.point());
+        assertEquals(0L, store.size());
+    }
+
+    @Test
+    @DisplayName("저장한 잔액이 그대로 조회되고, 유저가 늘면 칸이 늘어난다")
+    void putAndGet_growsTable() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            PrimitiveUserPointStore store = new PrimitiveUserPointStore(16, offHeap);
+            long initialBytes = store.capacityBytes();
+
+            for (long id = 0; id < 10_000; id++) {
+                store.restore(id, id * 10, id + 1);
+            }
+            store.restore(-5L, 50L, 1L);
+            UserPoint updated = store.insertOrUpdate(7L, 700L);
+
+            assertEquals(10_001L, store.size());
+            assertTrue(store.capacityBytes() > initialBytes);
+            assertEquals(new UserPoint(9_999L, 99_990L, 10_000L), store.selectById(9_999L));
+            assertEquals(updated, store.selectById(7L));
+            assertEquals(new UserPoint(-5L, 50L, 1L), store.selectById(-5L));
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 저장하고 조회해도 마지막 잔액이 남는다")
+    void concurrentWriters_keepLastValue() throws Exception {
+        PrimitiveUserPointStore store = new PrimitiveUserPointStore(16, false);
+        int threads = 8;
+        int usersPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+        try {
+            List<Future<?>> futures = IntStream.range(0, threads).<Future<?>>mapToObj(t -> executor.submit(() -> {
+                for (int round = 1; round <= 3; round++) {
+                    for (long i = 0; i < usersPerThread; i++) {
+                        long id = t * (long) usersPerThread + i;
+                        store.restore(id, round * 100L, round);
+                    }
+                }
+            })).toList();
+            // 저장과 크기 조정 중에도 조회는 막히지 않고, 저장된 값이거나 0 이다.
+            List<Future<?>> readers = IntStream.range(0, threads).<Future<?>>mapToObj(t -> executor.submit(() -> {
+                for (long id = 0; id < threads * (long) usersPerThread; id++) {
+                    long point = store.selectById(id).point();
+                    assertTrue(point == 0 || point == 100 || point == 200 || point == 300);
+                }
+            })).toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (Future<?> future : readers) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * (long) usersPerThread, store.size());
+        for (long id = 0; id < threads * (long) usersPerThread; id++) {
+            assertEquals(300L, store.selectById(id).point());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.hhplus.tdd;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.UserPoint;
+import io.hhplus.tdd.point.UserPointCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/*
+ * 유저 포인트 캐시 검증
+ * - 최대 개수를 넘으면 오래 사용하지 않은 항목부터 제거된다.
+ * - 캐시된 유저의 조회는 테이블을 거치지 않는다. 캐시에 없던 조회는 실패를 한번만 센다.
+ * - 충전/사용 후 캐시는 저장된 포인트로 갱신된다.
+ */
+public class TestUserPointCache {
+
+    @Test
+    @DisplayName("최대 개수를 넘으면 가장 오래 사용하지 않은 유저가 제거된다")
+    void evictsLeastRecentlyUsed() {
+        UserPointCache cache = new UserPointCache(1);
+        cache.put(new UserPoint(1L, 100L, 0L));
+        cache.put(new UserPoint(2L, 200L, 0L));
+
+        assertNull(cache.get(1L));
+        assertEquals(200L, cache.get(2L).point());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("캐시된 유저의 조회는 테이블을 다시 읽지 않는다")
+    void cachedRead_skipsTable() {
+        UserPointTable userPointTable = spy(new UserPointTable());
+        PointTestContext context = new PointTestContext(userPointTable, new PointHistoryTable());
+
+        context.pointService.point(1L);
+        context.pointService.point(1L);
+
+        verify(userPointTable, times(1)).selectById(1L);
+        assertEquals(1, context.userPointCache.hitCount());
+        // 캐시에 없던 첫 조회가 락을 잡고 다시 확인해도 실패는 한번만 센다.
+        assertEquals(1, context.userPointCache.missCount());
+    }
+
+    @Test
+    @DisplayName("충전/사용은 캐시된 잔액을 기준으로 테이블에 한번만 쓴다")
+    void chargeAndUse_updateCache() {
+        UserPointTable userPointTable = spy(new UserPointTable());
+        PointTestContext context = new PointTestContext(userPointTable, new PointHistoryTable());
+
+        context.pointService.charge(1L, 1000L);
+        context.pointService.use(1L, 300L);
+
+        assertEquals(700L, context.pointService.point(1L).point());
+        verify(userPointTable, times(1)).selectById(1L);
+        verify(userPointTable, times(2)).insertOrUpdate(anyLong(), anyLong());
+    }
+}